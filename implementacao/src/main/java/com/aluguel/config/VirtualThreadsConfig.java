@@ -0,0 +1,24 @@
+package com.aluguel.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Impede a subida com {@code spring.threads.virtual.enabled=true} (perfil "virtual") em JVM anterior
+ * ao Java 21: nesse caso o Spring Boot ignora a propriedade em silêncio e a aplicação rodaria com
+ * threads de plataforma e o pool ampliado do perfil.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    static final int VERSAO_MINIMA = 21;
+
+    public VirtualThreadsConfig() {
+        int versao = Runtime.version().feature();
+        if (versao < VERSAO_MINIMA) {
+            throw new IllegalStateException("spring.threads.virtual.enabled exige Java " + VERSAO_MINIMA
+                    + " ou superior, mas a JVM atual é Java " + versao);
+        }
+    }
+}
@@ -2,12 +2,14 @@ package com.aluguel.controller;
 
 import com.aluguel.model.Agente;
 import com.aluguel.service.AgenteService;
+import com.aluguel.service.VersoesColecoes;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,17 +22,22 @@ import java.util.List;
 public class AgenteController {
 
     private final AgenteService agenteService;
+    private final VersoesColecoes versoesColecoes;
 
-    public AgenteController(AgenteService agenteService) {
+    public AgenteController(AgenteService agenteService, VersoesColecoes versoesColecoes) {
         this.agenteService = agenteService;
+        this.versoesColecoes = versoesColecoes;
     }
 
     @GetMapping
     @Operation(summary = "Listar todos os agentes", description = "Retorna uma lista com todos os agentes cadastrados")
     @ApiResponse(responseCode = "200", description = "Lista de agentes retornada com sucesso")
-    public ResponseEntity<List<Agente>> listarTodos() {
-        List<Agente> agentes = agenteService.listarTodos();
-        return ResponseEntity.ok(agentes);
+    public ResponseEntity<List<Agente>> listarTodos(
+            @Parameter(description = "Cursor: ID do último item da página anterior") @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Tamanho da página") @RequestParam(defaultValue = Paginacao.LIMITE_PADRAO) int limit) {
+        int limite = Paginacao.limite(limit);
+        List<Agente> agentes = agenteService.listarTodos(after, limite);
+        return Paginacao.pagina(agentes, limite, Agente::getId);
     }
 
     @GetMapping("/{id}")
@@ -61,19 +68,31 @@ public class AgenteController {
 
 
     @GetMapping("/credenciados")
-    @Operation(summary = "Listar agentes credenciados", description = "Retorna uma lista com todos os agentes credenciados")
-    @ApiResponse(responseCode = "200", description = "Lista de agentes credenciados retornada com sucesso")
-    public ResponseEntity<List<Agente>> listarCredenciados() {
-        List<Agente> agentes = agenteService.listarCredenciados();
-        return ResponseEntity.ok(agentes);
+    @Operation(summary = "Listar agentes credenciados", description = "Retorna uma lista com todos os agentes credenciados, com ETag que muda a cada escrita em usuários")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Lista de agentes credenciados retornada com sucesso"),
+        @ApiResponse(responseCode = "304", description = "Nada mudou desde o ETag informado")
+    })
+    public ResponseEntity<List<Agente>> listarCredenciados(
+            @Parameter(description = "Cursor: ID do último item da página anterior") @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Tamanho da página") @RequestParam(defaultValue = Paginacao.LIMITE_PADRAO) int limit,
+            @Parameter(description = "ETag de uma resposta anterior; se ainda valer, a resposta é 304 sem corpo") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        int limite = Paginacao.limite(limit);
+        return Condicional.responder(ifNoneMatch, versoesColecoes.etag(VersoesColecoes.USUARIOS), () -> {
+            List<Agente> agentes = agenteService.listarCredenciados(after, limite);
+            return Paginacao.pagina(agentes, limite, Agente::getId);
+        });
     }
 
     @GetMapping("/nao-credenciados")
     @Operation(summary = "Listar agentes não credenciados", description = "Retorna uma lista com todos os agentes não credenciados")
     @ApiResponse(responseCode = "200", description = "Lista de agentes não credenciados retornada com sucesso")
-    public ResponseEntity<List<Agente>> listarNaoCredenciados() {
-        List<Agente> agentes = agenteService.listarNaoCredenciados();
-        return ResponseEntity.ok(agentes);
+    public ResponseEntity<List<Agente>> listarNaoCredenciados(
+            @Parameter(description = "Cursor: ID do último item da página anterior") @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Tamanho da página") @RequestParam(defaultValue = Paginacao.LIMITE_PADRAO) int limit) {
+        int limite = Paginacao.limite(limit);
+        List<Agente> agentes = agenteService.listarNaoCredenciados(after, limite);
+        return Paginacao.pagina(agentes, limite, Agente::getId);
     }
 
 
@@ -1,17 +1,36 @@
 package com.aluguel.controller;
 
+import com.aluguel.dto.AlteracoesCatalogo;
+import com.aluguel.dto.BuscaAutomoveis;
+import com.aluguel.dto.DisponibilidadeLoteRequest;
+import com.aluguel.dto.ErroCampo;
+import com.aluguel.dto.ResultadoDisponibilidade;
+import com.aluguel.dto.ResultadoImportacao;
+import com.aluguel.dto.SugestaoPlaca;
 import com.aluguel.model.Automovel;
+import com.aluguel.model.Automovel.TipoProprietario;
+import com.aluguel.service.AlteracoesCatalogoService;
+import com.aluguel.service.AutomovelImportacaoService;
 import com.aluguel.service.AutomovelService;
+import com.aluguel.service.BuscaAutomoveisService;
+import com.aluguel.service.IndicePlacas;
+import com.aluguel.service.VersoesColecoes;
+import com.aluguel.service.ValorDuplicadoException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -20,38 +39,150 @@ import java.util.List;
 public class AutomovelController {
 
     private final AutomovelService automovelService;
+    private final AutomovelImportacaoService automovelImportacaoService;
+    private final BuscaAutomoveisService buscaAutomoveisService;
+    private final IndicePlacas indicePlacas;
+    private final VersoesColecoes versoesColecoes;
+    private final AlteracoesCatalogoService alteracoesCatalogoService;
 
-    public AutomovelController(AutomovelService automovelService) {
+    public AutomovelController(AutomovelService automovelService, AutomovelImportacaoService automovelImportacaoService,
+                               BuscaAutomoveisService buscaAutomoveisService, IndicePlacas indicePlacas,
+                               VersoesColecoes versoesColecoes, AlteracoesCatalogoService alteracoesCatalogoService) {
         this.automovelService = automovelService;
+        this.automovelImportacaoService = automovelImportacaoService;
+        this.buscaAutomoveisService = buscaAutomoveisService;
+        this.indicePlacas = indicePlacas;
+        this.versoesColecoes = versoesColecoes;
+        this.alteracoesCatalogoService = alteracoesCatalogoService;
     }
 
     @GetMapping
     @Operation(summary = "Listar todos os automóveis", description = "Retorna uma lista com todos os automóveis cadastrados")
     @ApiResponse(responseCode = "200", description = "Lista de automóveis retornada com sucesso")
-    public ResponseEntity<List<Automovel>> listarTodos() {
-        List<Automovel> automoveis = automovelService.listarTodos();
-        return ResponseEntity.ok(automoveis);
+    public ResponseEntity<List<Automovel>> listarTodos(
+            @Parameter(description = "Cursor: ID do último item da página anterior") @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Tamanho da página") @RequestParam(defaultValue = Paginacao.LIMITE_PADRAO) int limit) {
+        int limite = Paginacao.limite(limit);
+        List<Automovel> automoveis = automovelService.listarTodos(after, limite);
+        return Paginacao.pagina(automoveis, limite, Automovel::getId);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Buscar automóveis com filtros", description = "Filtra por marca, modelo, faixa de ano, tipo de proprietário e disponibilidade, com contagens por marca, modelo, ano e proprietário; cada faceta ignora o próprio filtro")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Página de resultados, total e facetas"),
+        @ApiResponse(responseCode = "400", description = "Faixa de ano inválida")
+    })
+    public ResponseEntity<BuscaAutomoveis> buscar(
+            @Parameter(description = "Marca") @RequestParam(required = false) String marca,
+            @Parameter(description = "Modelo") @RequestParam(required = false) String modelo,
+            @Parameter(description = "Ano mínimo") @RequestParam(required = false) Integer anoMin,
+            @Parameter(description = "Ano máximo") @RequestParam(required = false) Integer anoMax,
+            @Parameter(description = "Tipo de proprietário (CLIENTE, EMPRESA, BANCO)") @RequestParam(required = false) TipoProprietario proprietario,
+            @Parameter(description = "Disponibilidade") @RequestParam(required = false) Boolean disponivel,
+            @Parameter(description = "Cursor: ID do último item da página anterior") @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Tamanho da página") @RequestParam(defaultValue = Paginacao.LIMITE_PADRAO) int limit) {
+        int limite = Paginacao.limite(limit);
+        try {
+            BuscaAutomoveis busca = buscaAutomoveisService.buscar(marca, modelo, anoMin, anoMax, proprietario, disponivel, after, limite);
+            List<Automovel> automoveis = busca.getAutomoveis();
+            if (automoveis.size() < limite) {
+                return ResponseEntity.ok(busca);
+            }
+            return Paginacao.comCursor(busca, limite, automoveis.get(automoveis.size() - 1).getId());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Alterações do catálogo desde uma versão", description = "Sincronização incremental: retorna os automóveis incluídos ou alterados e os IDs excluídos com versão maior que since, e a versão a usar na próxima consulta. Para começar do zero, carregue o catálogo com since=0 até o fim")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Alterações desde a versão informada"),
+        @ApiResponse(responseCode = "410", description = "Versão anterior ao ponto de compactação (ou de outro banco): recarregue o catálogo inteiro e recomece da versão retornada")
+    })
+    public ResponseEntity<AlteracoesCatalogo> listarAlteracoes(
+            @Parameter(description = "Versão da última sincronização") @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Máximo de alterações por página") @RequestParam(defaultValue = Paginacao.LIMITE_PADRAO) int limit) {
+        int limite = Paginacao.limite(limit);
+        AlteracoesCatalogo alteracoes = alteracoesCatalogoService.buscar(since, limite);
+        if (alteracoes.getResincronizar()) {
+            return ResponseEntity.status(HttpStatus.GONE).body(alteracoes);
+        }
+        if (alteracoes.getAlterados().size() + alteracoes.getExcluidos().size() < limite) {
+            return ResponseEntity.ok(alteracoes);
+        }
+        return Paginacao.comCursor(alteracoes, limite, "since", alteracoes.getVersao());
+    }
+
+    @GetMapping("/placa")
+    @Operation(summary = "Buscar automóveis por placa parcial", description = "Retorna as placas que começam pelo texto informado (formato antigo ou Mercosul, com ou sem hífen) e, a partir de 3 caracteres, as que começam por algo a um caractere de diferença; as exatas vêm primeiro, com distancia 0")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Placas encontradas"),
+        @ApiResponse(responseCode = "400", description = "Consulta sem letras ou dígitos")
+    })
+    public ResponseEntity<List<SugestaoPlaca>> buscarPorPlaca(
+            @Parameter(description = "Início da placa") @RequestParam String q,
+            @Parameter(description = "Máximo de placas retornadas (até 100)") @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(indicePlacas.buscar(q, Math.max(1, Math.min(limit, 100))));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Buscar automóvel por ID", description = "Retorna um automóvel específico pelo seu ID")
+    @Operation(summary = "Buscar automóvel por ID", description = "Retorna um automóvel específico pelo seu ID, com ETag derivado do ID e da versão do registro")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Automóvel encontrado"),
+        @ApiResponse(responseCode = "304", description = "Automóvel não mudou desde o ETag informado"),
         @ApiResponse(responseCode = "404", description = "Automóvel não encontrado")
     })
     public ResponseEntity<Automovel> buscarPorId(
-            @Parameter(description = "ID do automóvel") @PathVariable Long id) {
+            @Parameter(description = "ID do automóvel") @PathVariable Long id,
+            @Parameter(description = "ETag de uma resposta anterior; se ainda valer, a resposta é 304 sem corpo") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         return automovelService.buscarPorId(id)
-                .map(ResponseEntity::ok)
+                .map(automovel -> Condicional.responder(ifNoneMatch,
+                        versoesColecoes.etagRegistro(automovel.getId(), automovel.getVersao()),
+                        () -> ResponseEntity.ok(automovel)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/disponiveis")
-    @Operation(summary = "Listar automóveis disponíveis", description = "Retorna uma lista com todos os automóveis disponíveis para locação")
-    @ApiResponse(responseCode = "200", description = "Lista de automóveis disponíveis retornada com sucesso")
-    public ResponseEntity<List<Automovel>> listarDisponiveis() {
-        List<Automovel> automoveis = automovelService.listarDisponiveis();
-        return ResponseEntity.ok(automoveis);
+    @Operation(summary = "Listar automóveis disponíveis", description = "Retorna uma lista com todos os automóveis disponíveis para locação, com ETag que muda a cada escrita na frota")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Lista de automóveis disponíveis retornada com sucesso"),
+        @ApiResponse(responseCode = "304", description = "Frota não mudou desde o ETag informado")
+    })
+    public ResponseEntity<List<Automovel>> listarDisponiveis(
+            @Parameter(description = "Cursor: ID do último item da página anterior") @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Tamanho da página") @RequestParam(defaultValue = Paginacao.LIMITE_PADRAO) int limit,
+            @Parameter(description = "ETag de uma resposta anterior; se ainda valer, a resposta é 304 sem corpo") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        int limite = Paginacao.limite(limit);
+        return Condicional.responder(ifNoneMatch, versoesColecoes.etag(VersoesColecoes.AUTOMOVEIS), () -> {
+            List<Automovel> automoveis = automovelService.listarDisponiveis(after, limite);
+            return Paginacao.pagina(automoveis, limite, Automovel::getId);
+        });
+    }
+
+    @GetMapping(value = "/disponiveis", params = {"inicio", "fim"})
+    @Operation(summary = "Listar automóveis disponíveis no período", description = "Retorna os automóveis sem contrato pendente, aprovado ou ativo que se sobreponha ao período informado")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Lista de automóveis disponíveis no período retornada com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Período inválido")
+    })
+    public ResponseEntity<List<Automovel>> listarDisponiveisNoPeriodo(
+            @Parameter(description = "Data de início (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @Parameter(description = "Data de fim (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+            @Parameter(description = "Cursor: ID do último item da página anterior") @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Tamanho da página") @RequestParam(defaultValue = Paginacao.LIMITE_PADRAO) int limit) {
+        try {
+            int limite = Paginacao.limite(limit);
+            List<Automovel> automoveis = automovelService.listarDisponiveisNoPeriodo(inicio, fim, after, limite);
+            return Paginacao.pagina(automoveis, limite, Automovel::getId);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
 
@@ -59,36 +190,58 @@ public class AutomovelController {
     @Operation(summary = "Criar novo automóvel", description = "Cadastra um novo automóvel no sistema")
     @ApiResponses({
         @ApiResponse(responseCode = "201", description = "Automóvel criado com sucesso"),
-        @ApiResponse(responseCode = "400", description = "Dados inválidos ou placa/matrícula já cadastrada")
+        @ApiResponse(responseCode = "400", description = "Dados inválidos ou placa/matrícula já cadastrada; em caso de duplicidade o corpo indica o campo")
     })
-    public ResponseEntity<Automovel> criar(
+    public ResponseEntity<?> criar(
             @Parameter(description = "Dados do automóvel") @Valid @RequestBody Automovel automovel) {
         try {
             Automovel automovelSalvo = automovelService.salvar(automovel);
             return ResponseEntity.status(HttpStatus.CREATED).body(automovelSalvo);
+        } catch (ValorDuplicadoException e) {
+            return ResponseEntity.badRequest().body(new ErroCampo(e.getCampo(), e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @PostMapping("/import")
+    @Operation(summary = "Importar automóveis", description = "Cadastra em lote os automóveis enviados em CSV (com cabeçalho) ou NDJSON, lidos em fluxo contínuo, e retorna os erros por linha")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Importação concluída; linhas rejeitadas constam em erros"),
+        @ApiResponse(responseCode = "400", description = "Formato não suportado ou cabeçalho CSV inválido")
+    })
+    public ResponseEntity<ResultadoImportacao> importar(
+            @Parameter(description = "Formato do corpo (csv ou ndjson)") @RequestParam(defaultValue = "csv") String formato,
+            @Parameter(hidden = true) InputStream corpo) throws IOException {
+        try {
+            if ("csv".equalsIgnoreCase(formato)) {
+                return ResponseEntity.ok(automovelImportacaoService.importarCsv(corpo));
+            }
+            if ("ndjson".equalsIgnoreCase(formato)) {
+                return ResponseEntity.ok(automovelImportacaoService.importarNdjson(corpo));
+            }
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Atualizar automóvel", description = "Atualiza os dados de um automóvel existente")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Automóvel atualizado com sucesso"),
         @ApiResponse(responseCode = "404", description = "Automóvel não encontrado"),
-        @ApiResponse(responseCode = "400", description = "Dados inválidos ou placa/matrícula já cadastrada")
+        @ApiResponse(responseCode = "400", description = "Dados inválidos ou placa/matrícula já cadastrada; em caso de duplicidade o corpo indica o campo"),
+        @ApiResponse(responseCode = "409", description = "Automóvel alterado por outra requisição durante a atualização")
     })
-    public ResponseEntity<Automovel> atualizar(
+    public ResponseEntity<?> atualizar(
             @Parameter(description = "ID do automóvel") @PathVariable Long id,
             @Parameter(description = "Dados atualizados do automóvel") @Valid @RequestBody Automovel automovel) {
         try {
             Automovel automovelAtualizado = automovelService.atualizar(id, automovel);
             return ResponseEntity.ok(automovelAtualizado);
-        } catch (RuntimeException e) {
-            if (e.getMessage().contains("não encontrado")) {
-                return ResponseEntity.notFound().build();
-            }
-            return ResponseEntity.badRequest().build();
+        } catch (ValorDuplicadoException e) {
+            return ResponseEntity.badRequest().body(new ErroCampo(e.getCampo(), e.getMessage()));
         }
     }
 
@@ -108,6 +261,22 @@ public class AutomovelController {
         }
     }
 
+    @PatchMapping("/disponibilidade")
+    @Operation(summary = "Alterar disponibilidade em lote", description = "Marca como disponíveis ou indisponíveis os automóveis informados por ID ou, sem IDs, todos os que atendem aos filtros (marca, modelo, anoMin, anoMax, proprietario). num único UPDATE; retorna quantos mudaram")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Disponibilidade alterada"),
+        @ApiResponse(responseCode = "400", description = "Sem IDs nem filtros, ou faixa de ano inválida")
+    })
+    public ResponseEntity<ResultadoDisponibilidade> alterarDisponibilidade(
+            @Valid @RequestBody DisponibilidadeLoteRequest request) {
+        try {
+            int alterados = automovelService.alterarDisponibilidade(request);
+            return ResponseEntity.ok(new ResultadoDisponibilidade(request.getDisponivel(), alterados));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PatchMapping("/{id}/disponivel")
     @Operation(summary = "Marcar automóvel como disponível", description = "Altera o status de um automóvel para disponível")
     @ApiResponses({
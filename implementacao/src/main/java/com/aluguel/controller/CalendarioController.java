@@ -0,0 +1,83 @@
+package com.aluguel.controller;
+
+import com.aluguel.dto.JanelaLivre;
+import com.aluguel.dto.OcupacaoAutomovel;
+import com.aluguel.dto.OcupacaoFrota;
+import com.aluguel.service.CalendarioOcupacaoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/calendario")
+@Tag(name = "Calendário", description = "API para consulta da ocupação diária da frota")
+public class CalendarioController {
+
+    private final CalendarioOcupacaoService calendarioOcupacaoService;
+
+    public CalendarioController(CalendarioOcupacaoService calendarioOcupacaoService) {
+        this.calendarioOcupacaoService = calendarioOcupacaoService;
+    }
+
+    @GetMapping("/automoveis/{id}")
+    @Operation(summary = "Ocupação anual do automóvel", description = "Retorna um caractere por dia do ano: 1 para dia reservado, 0 para dia livre")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Ocupação do automóvel retornada com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Ano fora do intervalo aceito")
+    })
+    public ResponseEntity<OcupacaoAutomovel> ocupacaoDoAutomovel(
+            @Parameter(description = "ID do automóvel") @PathVariable Long id,
+            @Parameter(description = "Ano de referência (" + CalendarioOcupacaoService.ANO_MINIMO + " a " + CalendarioOcupacaoService.ANO_MAXIMO + ")") @RequestParam int ano) {
+        try {
+            return ResponseEntity.ok(calendarioOcupacaoService.ocupacaoDoAutomovel(id, ano));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/frota")
+    @Operation(summary = "Mapa de calor da frota", description = "Retorna, para cada dia do mês ou do ano, quantos automóveis estão reservados")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Ocupação da frota retornada com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Ano fora do intervalo aceito ou mês inválido")
+    })
+    public ResponseEntity<OcupacaoFrota> ocupacaoDaFrota(
+            @Parameter(description = "Ano de referência (" + CalendarioOcupacaoService.ANO_MINIMO + " a " + CalendarioOcupacaoService.ANO_MAXIMO + ")") @RequestParam int ano,
+            @Parameter(description = "Mês de referência (1 a 12); se omitido, considera o ano inteiro") @RequestParam(required = false) Integer mes) {
+        try {
+            return ResponseEntity.ok(calendarioOcupacaoService.ocupacaoDaFrota(ano, mes));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/janelas-livres")
+    @Operation(summary = "Buscar dias livres consecutivos", description = "Retorna os automóveis com ao menos N dias livres consecutivos no período, com a primeira janela encontrada")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Janelas livres retornadas com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Período ou quantidade de dias inválidos")
+    })
+    public ResponseEntity<List<JanelaLivre>> buscarJanelasLivres(
+            @Parameter(description = "Data de início (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @Parameter(description = "Data de fim (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+            @Parameter(description = "Quantidade de dias livres consecutivos") @RequestParam int dias,
+            @Parameter(description = "Cursor: ID do último automóvel da página anterior") @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Tamanho da página") @RequestParam(defaultValue = Paginacao.LIMITE_PADRAO) int limit) {
+        try {
+            int limite = Paginacao.limite(limit);
+            return Paginacao.pagina(calendarioOcupacaoService.buscarJanelasLivres(inicio, fim, dias, after, limite),
+                    limite, JanelaLivre::getAutomovelId);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
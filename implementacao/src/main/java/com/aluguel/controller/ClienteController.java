@@ -1,7 +1,9 @@
 package com.aluguel.controller;
 
+import com.aluguel.dto.ErroCampo;
 import com.aluguel.model.Cliente;
 import com.aluguel.service.ClienteService;
+import com.aluguel.service.ValorDuplicadoException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -28,9 +30,12 @@ public class ClienteController {
     @GetMapping
     @Operation(summary = "Listar todos os clientes", description = "Retorna uma lista com todos os clientes cadastrados")
     @ApiResponse(responseCode = "200", description = "Lista de clientes retornada com sucesso")
-    public ResponseEntity<List<Cliente>> listarTodos() {
-        List<Cliente> clientes = clienteService.listarTodos();
-        return ResponseEntity.ok(clientes);
+    public ResponseEntity<List<Cliente>> listarTodos(
+            @Parameter(description = "Cursor: ID do último item da página anterior") @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Tamanho da página") @RequestParam(defaultValue = Paginacao.LIMITE_PADRAO) int limit) {
+        int limite = Paginacao.limite(limit);
+        List<Cliente> clientes = clienteService.listarTodos(after, limite);
+        return Paginacao.pagina(clientes, limite, Cliente::getId);
     }
 
     @GetMapping("/{id}")
@@ -64,13 +69,15 @@ public class ClienteController {
     @Operation(summary = "Criar novo cliente", description = "Cadastra um novo cliente no sistema")
     @ApiResponses({
         @ApiResponse(responseCode = "201", description = "Cliente criado com sucesso"),
-        @ApiResponse(responseCode = "400", description = "Dados inválidos ou CPF/Email/RG já cadastrado")
+        @ApiResponse(responseCode = "400", description = "Dados inválidos ou CPF/Email/RG já cadastrado; em caso de duplicidade o corpo indica o campo")
     })
-    public ResponseEntity<Cliente> criar(
+    public ResponseEntity<?> criar(
             @Parameter(description = "Dados do cliente") @Valid @RequestBody Cliente cliente) {
         try {
             Cliente clienteSalvo = clienteService.salvar(cliente);
             return ResponseEntity.status(HttpStatus.CREATED).body(clienteSalvo);
+        } catch (ValorDuplicadoException e) {
+            return ResponseEntity.badRequest().body(new ErroCampo(e.getCampo(), e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -81,19 +88,16 @@ public class ClienteController {
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Cliente atualizado com sucesso"),
         @ApiResponse(responseCode = "404", description = "Cliente não encontrado"),
-        @ApiResponse(responseCode = "400", description = "Dados inválidos ou CPF/Email/RG já cadastrado")
+        @ApiResponse(responseCode = "400", description = "Dados inválidos ou CPF/Email/RG já cadastrado; em caso de duplicidade o corpo indica o campo")
     })
-    public ResponseEntity<Cliente> atualizar(
+    public ResponseEntity<?> atualizar(
             @Parameter(description = "ID do cliente") @PathVariable Long id,
             @Parameter(description = "Dados atualizados do cliente") @Valid @RequestBody Cliente cliente) {
         try {
             Cliente clienteAtualizado = clienteService.atualizar(id, cliente);
             return ResponseEntity.ok(clienteAtualizado);
-        } catch (RuntimeException e) {
-            if (e.getMessage().contains("não encontrado")) {
-                return ResponseEntity.notFound().build();
-            }
-            return ResponseEntity.badRequest().build();
+        } catch (ValorDuplicadoException e) {
+            return ResponseEntity.badRequest().body(new ErroCampo(e.getCampo(), e.getMessage()));
         }
     }
 
@@ -105,11 +109,7 @@ public class ClienteController {
     })
     public ResponseEntity<Void> excluir(
             @Parameter(description = "ID do cliente") @PathVariable Long id) {
-        try {
-            clienteService.excluir(id);
-            return ResponseEntity.noContent().build();
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
+        clienteService.excluir(id);
+        return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
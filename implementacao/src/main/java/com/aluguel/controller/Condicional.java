@@ -0,0 +1,54 @@
+package com.aluguel.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+/**
+ * GET condicional ({@code If-None-Match}): quando o ETag do cliente ainda vale, responde 304 sem
+ * montar nem serializar o corpo. O ETag deve ser calculado antes de gerar a resposta.
+ */
+final class Condicional {
+
+    private Condicional() {}
+
+    static <T> ResponseEntity<T> responder(String ifNoneMatch, String etag, Supplier<ResponseEntity<T>> gerar) {
+        if (corresponde(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .build();
+        }
+        ResponseEntity<T> resposta = gerar.get();
+        if (!resposta.getStatusCode().is2xxSuccessful()) {
+            return resposta;
+        }
+        return ResponseEntity.status(resposta.getStatusCode())
+                .headers(resposta.getHeaders())
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(resposta.getBody());
+    }
+
+    /** Comparação fraca, como pede o RFC 9110 para If-None-Match: o prefixo {@code W/} é ignorado. */
+    private static boolean corresponde(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.equals("*")) {
+                return true;
+            }
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
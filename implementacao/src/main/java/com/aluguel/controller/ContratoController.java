@@ -1,19 +1,38 @@
 package com.aluguel.controller;
 
+import com.aluguel.dto.AnaliseFinanceira;
+import com.aluguel.dto.ContratoResumo;
+import com.aluguel.dto.ResultadoTransicao;
+import com.aluguel.dto.ResumoAnaliseLote;
+import com.aluguel.dto.TicketPedido;
+import com.aluguel.dto.TransicaoLoteRequest;
+import com.aluguel.model.Agente;
 import com.aluguel.model.Contrato;
 import com.aluguel.model.Contrato.StatusContrato;
+import com.aluguel.service.AnaliseFinanceiraService;
+import com.aluguel.service.ContratoExportacaoService;
+import com.aluguel.service.ContratoFilaService;
+import com.aluguel.service.ContratoLoteService;
 import com.aluguel.service.ContratoService;
+import com.aluguel.service.PedidoAssincronoService;
+import com.aluguel.service.VersoesColecoes;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/contratos")
@@ -21,17 +40,35 @@ import java.util.List;
 public class ContratoController {
 
     private final ContratoService contratoService;
+    private final ContratoLoteService contratoLoteService;
+    private final ContratoExportacaoService contratoExportacaoService;
+    private final ContratoFilaService contratoFilaService;
+    private final AnaliseFinanceiraService analiseFinanceiraService;
+    private final PedidoAssincronoService pedidoAssincronoService;
+    private final VersoesColecoes versoesColecoes;
 
-    public ContratoController(ContratoService contratoService) {
+    public ContratoController(ContratoService contratoService, ContratoLoteService contratoLoteService,
+                              ContratoExportacaoService contratoExportacaoService, ContratoFilaService contratoFilaService,
+                              AnaliseFinanceiraService analiseFinanceiraService, PedidoAssincronoService pedidoAssincronoService,
+                              VersoesColecoes versoesColecoes) {
         this.contratoService = contratoService;
+        this.contratoLoteService = contratoLoteService;
+        this.contratoExportacaoService = contratoExportacaoService;
+        this.contratoFilaService = contratoFilaService;
+        this.analiseFinanceiraService = analiseFinanceiraService;
+        this.pedidoAssincronoService = pedidoAssincronoService;
+        this.versoesColecoes = versoesColecoes;
     }
 
     @GetMapping
     @Operation(summary = "Listar todos os contratos", description = "Retorna uma lista com todos os contratos cadastrados")
     @ApiResponse(responseCode = "200", description = "Lista de contratos retornada com sucesso")
-    public ResponseEntity<List<Contrato>> listarTodos() {
-        List<Contrato> contratos = contratoService.listarTodos();
-        return ResponseEntity.ok(contratos);
+    public ResponseEntity<List<ContratoResumo>> listarTodos(
+            @Parameter(description = "Cursor: ID do último item da página anterior") @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Tamanho da página") @RequestParam(defaultValue = Paginacao.LIMITE_PADRAO) int limit) {
+        int limite = Paginacao.limite(limit);
+        List<ContratoResumo> contratos = contratoService.listarTodos(after, limite);
+        return Paginacao.pagina(contratos, limite, ContratoResumo::getId);
     }
 
     @GetMapping("/{id}")
@@ -50,18 +87,96 @@ public class ContratoController {
     @GetMapping("/status/{status}")
     @Operation(summary = "Listar contratos por status", description = "Retorna contratos filtrados por status (PENDENTE, APROVADO, REJEITADO, ATIVO, FINALIZADO, CANCELADO)")
     @ApiResponse(responseCode = "200", description = "Lista de contratos com o status especificado")
-    public ResponseEntity<List<Contrato>> listarPorStatus(
-            @Parameter(description = "Status do contrato") @PathVariable StatusContrato status) {
-        List<Contrato> contratos = contratoService.listarPorStatus(status);
-        return ResponseEntity.ok(contratos);
+    public ResponseEntity<List<ContratoResumo>> listarPorStatus(
+            @Parameter(description = "Status do contrato") @PathVariable StatusContrato status,
+            @Parameter(description = "Cursor: ID do último item da página anterior") @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Tamanho da página") @RequestParam(defaultValue = Paginacao.LIMITE_PADRAO) int limit) {
+        int limite = Paginacao.limite(limit);
+        List<ContratoResumo> contratos = contratoService.listarPorStatus(status, after, limite);
+        return Paginacao.pagina(contratos, limite, ContratoResumo::getId);
     }
 
     @GetMapping("/pendentes")
-    @Operation(summary = "Listar pedidos pendentes", description = "Retorna todos os pedidos de aluguel pendentes de aprovação")
-    @ApiResponse(responseCode = "200", description = "Lista de pedidos pendentes")
-    public ResponseEntity<List<Contrato>> listarPedidosPendentes() {
-        List<Contrato> contratos = contratoService.listarPedidosPendentes();
-        return ResponseEntity.ok(contratos);
+    @Operation(summary = "Listar pedidos pendentes", description = "Retorna todos os pedidos de aluguel pendentes de aprovação, com ETag que muda a cada escrita em contratos, automóveis ou usuários")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Lista de pedidos pendentes"),
+        @ApiResponse(responseCode = "304", description = "Nada mudou desde o ETag informado")
+    })
+    public ResponseEntity<List<ContratoResumo>> listarPedidosPendentes(
+            @Parameter(description = "Cursor: ID do último item da página anterior") @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Tamanho da página") @RequestParam(defaultValue = Paginacao.LIMITE_PADRAO) int limit,
+            @Parameter(description = "ETag de uma resposta anterior; se ainda valer, a resposta é 304 sem corpo") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        int limite = Paginacao.limite(limit);
+        // O resumo traz placa, modelo e nomes do cliente e do agente: a versão cobre as três coleções.
+        String etag = versoesColecoes.etag(VersoesColecoes.CONTRATOS, VersoesColecoes.AUTOMOVEIS, VersoesColecoes.USUARIOS);
+        return Condicional.responder(ifNoneMatch, etag, () -> {
+            List<ContratoResumo> contratos = contratoService.listarPedidosPendentes(after, limite);
+            return Paginacao.pagina(contratos, limite, ContratoResumo::getId);
+        });
+    }
+
+    @PostMapping("/pendentes/claim")
+    @Operation(summary = "Reivindicar pedidos pendentes", description = "Atribui ao agente autenticado até N pedidos pendentes ainda não reivindicados (ou cuja reivindicação expirou)")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Pedidos atribuídos ao agente"),
+        @ApiResponse(responseCode = "400", description = "Quantidade inválida"),
+        @ApiResponse(responseCode = "403", description = "Usuário autenticado não é um agente ativo e credenciado")
+    })
+    public ResponseEntity<List<ContratoResumo>> reivindicarPendentes(
+            @Parameter(description = "Quantidade máxima de pedidos") @RequestParam(defaultValue = "20") int n,
+            @Parameter(hidden = true) Authentication autenticacao) {
+        try {
+            return ResponseEntity.ok(contratoFilaService.reivindicar(autenticacao.getName(), n));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+    }
+
+    @PostMapping("/pendentes/analise-financeira")
+    @Operation(summary = "Analisar financeiramente os pedidos pendentes", description = "Calcula o score de risco de todos os pedidos pendentes em paralelo e grava o rascunho de parecer nos que não têm parecer manual")
+    @ApiResponse(responseCode = "200", description = "Quantidade de pedidos analisados por faixa de risco")
+    public ResponseEntity<ResumoAnaliseLote> analisarPendentes() {
+        return ResponseEntity.ok(analiseFinanceiraService.analisarPendentes());
+    }
+
+    @PostMapping("/{id}/analise-financeira")
+    @Operation(summary = "Analisar financeiramente um contrato", description = "Interpreta os rendimentos do cliente, calcula o score de risco e, se o pedido estiver pendente sem parecer manual, grava o rascunho de parecer")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Análise calculada"),
+        @ApiResponse(responseCode = "400", description = "Contrato não pertence a um cliente"),
+        @ApiResponse(responseCode = "404", description = "Contrato não encontrado")
+    })
+    public ResponseEntity<AnaliseFinanceira> analisarContrato(
+            @Parameter(description = "ID do contrato") @PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(analiseFinanceiraService.analisar(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Exportar contratos", description = "Transmite todos os contratos em NDJSON (padrão) ou CSV, linha a linha, sem carregar a tabela em memória")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Exportação transmitida"),
+        @ApiResponse(responseCode = "400", description = "Formato não suportado")
+    })
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @Parameter(description = "Formato da exportação (ndjson ou csv)") @RequestParam(defaultValue = "ndjson") String formato) {
+        if ("csv".equalsIgnoreCase(formato)) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"contratos.csv\"")
+                    .body(contratoExportacaoService::exportarCsv);
+        }
+        if ("ndjson".equalsIgnoreCase(formato)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(contratoExportacaoService::exportarNdjson);
+        }
+        return ResponseEntity.badRequest().build();
     }
 
     @PostMapping("/pedido")
@@ -80,101 +195,156 @@ public class ContratoController {
         }
     }
 
+    @PostMapping("/pedido/async")
+    @Operation(summary = "Enfileirar pedido de aluguel", description = "Recebe o pedido para processamento assíncrono e devolve um ticket para consulta do resultado")
+    @ApiResponses({
+        @ApiResponse(responseCode = "202", description = "Pedido recebido; o resultado fica disponível no ticket"),
+        @ApiResponse(responseCode = "400", description = "Dados inválidos"),
+        @ApiResponse(responseCode = "429", description = "Fila de pedidos cheia")
+    })
+    public ResponseEntity<TicketPedido> enfileirarPedidoAluguel(
+            @Parameter(description = "Dados do pedido de aluguel") @Valid @RequestBody Contrato contrato) {
+        try {
+            return pedidoAssincronoService.enfileirar(contrato)
+                    .map(ticket -> ResponseEntity.accepted()
+                            .header(HttpHeaders.LOCATION, "/api/contratos/tickets/" + ticket.getId())
+                            .body(ticket))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                            .header(HttpHeaders.RETRY_AFTER, "1")
+                            .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/tickets/{id}")
+    @Operation(summary = "Consultar ticket de pedido", description = "Retorna a situação de um pedido enviado por /pedido/async")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Situação do pedido"),
+        @ApiResponse(responseCode = "404", description = "Ticket não encontrado ou expirado")
+    })
+    public ResponseEntity<TicketPedido> buscarTicket(
+            @Parameter(description = "ID do ticket") @PathVariable String id) {
+        return pedidoAssincronoService.buscarTicket(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Atualizar contrato", description = "Atualiza os dados de um contrato existente")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Contrato atualizado com sucesso"),
         @ApiResponse(responseCode = "404", description = "Contrato não encontrado"),
-        @ApiResponse(responseCode = "400", description = "Dados inválidos")
+        @ApiResponse(responseCode = "400", description = "Dados inválidos"),
+        @ApiResponse(responseCode = "409", description = "Status diferente do atual (use os endpoints de transição) ou novas datas sobre outra reserva do automóvel")
     })
     public ResponseEntity<Contrato> atualizar(
             @Parameter(description = "ID do contrato") @PathVariable Long id,
-            @Parameter(description = "Dados atualizados do contrato") @Valid @RequestBody Contrato contrato) {
-        try {
-            Contrato contratoAtualizado = contratoService.atualizarContrato(id, contrato);
-            return ResponseEntity.ok(contratoAtualizado);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
+            @Parameter(description = "Dados atualizados do contrato (o status deve ser o atual)") @Valid @RequestBody Contrato contrato) {
+        Contrato contratoAtualizado = contratoService.atualizarContrato(id, contrato);
+        return ResponseEntity.ok(contratoAtualizado);
     }
 
     @PatchMapping("/{id}/aprovar")
-    @Operation(summary = "Aprovar pedido", description = "Aprova um pedido de aluguel pendente")
+    @Operation(summary = "Aprovar pedido", description = "Aprova um pedido de aluguel pendente reivindicado pelo agente autenticado")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Pedido aprovado com sucesso"),
-        @ApiResponse(responseCode = "404", description = "Contrato não encontrado")
+        @ApiResponse(responseCode = "403", description = "Usuário autenticado não é um agente ativo e credenciado"),
+        @ApiResponse(responseCode = "404", description = "Contrato não encontrado"),
+        @ApiResponse(responseCode = "409", description = "Contrato não está pendente ou não foi reivindicado pelo agente autenticado")
     })
     public ResponseEntity<Void> aprovarPedido(
-            @Parameter(description = "ID do contrato") @PathVariable Long id) {
-        try {
-            contratoService.aprovarPedido(id);
-            return ResponseEntity.ok().build();
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
+            @Parameter(description = "ID do contrato") @PathVariable Long id,
+            @Parameter(hidden = true) Authentication autenticacao) {
+        return contratoFilaService.analista(autenticacao.getName())
+                .map(agente -> {
+                    contratoService.aprovarPedido(id, agente.getId());
+                    return ResponseEntity.ok().<Void>build();
+                })
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.FORBIDDEN).build());
     }
 
     @PatchMapping("/{id}/rejeitar")
-    @Operation(summary = "Rejeitar pedido", description = "Rejeita um pedido de aluguel pendente")
+    @Operation(summary = "Rejeitar pedido", description = "Rejeita um pedido de aluguel pendente reivindicado pelo agente autenticado")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Pedido rejeitado com sucesso"),
-        @ApiResponse(responseCode = "404", description = "Contrato não encontrado")
+        @ApiResponse(responseCode = "403", description = "Usuário autenticado não é um agente ativo e credenciado"),
+        @ApiResponse(responseCode = "404", description = "Contrato não encontrado"),
+        @ApiResponse(responseCode = "409", description = "Contrato não está pendente ou não foi reivindicado pelo agente autenticado")
     })
     public ResponseEntity<Void> rejeitarPedido(
-            @Parameter(description = "ID do contrato") @PathVariable Long id) {
-        try {
-            contratoService.rejeitarPedido(id);
-            return ResponseEntity.ok().build();
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
+            @Parameter(description = "ID do contrato") @PathVariable Long id,
+            @Parameter(hidden = true) Authentication autenticacao) {
+        return contratoFilaService.analista(autenticacao.getName())
+                .map(agente -> {
+                    contratoService.rejeitarPedido(id, agente.getId());
+                    return ResponseEntity.ok().<Void>build();
+                })
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.FORBIDDEN).build());
     }
 
     @PatchMapping("/{id}/ativar")
     @Operation(summary = "Ativar contrato", description = "Ativa um contrato aprovado")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Contrato ativado com sucesso"),
-        @ApiResponse(responseCode = "404", description = "Contrato não encontrado")
+        @ApiResponse(responseCode = "404", description = "Contrato não encontrado"),
+        @ApiResponse(responseCode = "409", description = "Contrato não está em um status que permita a transição")
     })
     public ResponseEntity<Void> ativarContrato(
             @Parameter(description = "ID do contrato") @PathVariable Long id) {
-        try {
-            contratoService.ativarContrato(id);
-            return ResponseEntity.ok().build();
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
+        contratoService.ativarContrato(id);
+        return ResponseEntity.ok().build();
     }
 
     @PatchMapping("/{id}/finalizar")
     @Operation(summary = "Finalizar contrato", description = "Finaliza um contrato ativo")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Contrato finalizado com sucesso"),
-        @ApiResponse(responseCode = "404", description = "Contrato não encontrado")
+        @ApiResponse(responseCode = "404", description = "Contrato não encontrado"),
+        @ApiResponse(responseCode = "409", description = "Contrato não está em um status que permita a transição")
     })
     public ResponseEntity<Void> finalizarContrato(
             @Parameter(description = "ID do contrato") @PathVariable Long id) {
-        try {
-            contratoService.finalizarContrato(id);
-            return ResponseEntity.ok().build();
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
+        contratoService.finalizarContrato(id);
+        return ResponseEntity.ok().build();
     }
 
     @PatchMapping("/{id}/cancelar")
-    @Operation(summary = "Cancelar contrato", description = "Cancela um contrato ativo")
+    @Operation(summary = "Cancelar contrato", description = "Cancela um contrato pendente, aprovado ou ativo")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Contrato cancelado com sucesso"),
-        @ApiResponse(responseCode = "404", description = "Contrato não encontrado")
+        @ApiResponse(responseCode = "404", description = "Contrato não encontrado"),
+        @ApiResponse(responseCode = "409", description = "Contrato não está em um status que permita a transição")
     })
     public ResponseEntity<Void> cancelarContrato(
             @Parameter(description = "ID do contrato") @PathVariable Long id) {
+        contratoService.cancelarContrato(id);
+        return ResponseEntity.ok().build();
+    }
+
+    @PatchMapping("/lote")
+    @Operation(summary = "Alterar status em lote", description = "Aprova, rejeita ou finaliza vários contratos de uma vez, retornando o resultado de cada ID (200, 404 ou 409); IDs repetidos recebem um único resultado")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Lote processado; consulte o código de cada contrato"),
+        @ApiResponse(responseCode = "400", description = "Dados inválidos ou status de destino não suportado em lote"),
+        @ApiResponse(responseCode = "403", description = "Aprovação ou rejeição pedida por quem não é agente ativo e credenciado")
+    })
+    public ResponseEntity<List<ResultadoTransicao>> transitarEmLote(
+            @Parameter(description = "IDs dos contratos e status de destino (APROVADO, REJEITADO ou FINALIZADO); aprovação e rejeição só alteram os pedidos reivindicados pelo agente autenticado") @Valid @RequestBody TransicaoLoteRequest request,
+            @Parameter(hidden = true) Authentication autenticacao) {
+        Long agenteId = null;
+        if (request.getStatus() == StatusContrato.APROVADO || request.getStatus() == StatusContrato.REJEITADO) {
+            Optional<Agente> agente = contratoFilaService.analista(autenticacao.getName());
+            if (agente.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+            agenteId = agente.get().getId();
+        }
         try {
-            contratoService.cancelarContrato(id);
-            return ResponseEntity.ok().build();
+            List<ResultadoTransicao> resultados = contratoLoteService.transitar(request.getIds(), request.getStatus(), agenteId);
+            return ResponseEntity.ok(resultados);
         } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
+            return ResponseEntity.badRequest().build();
         }
     }
 
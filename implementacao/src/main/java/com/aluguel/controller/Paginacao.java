@@ -0,0 +1,48 @@
+package com.aluguel.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Paginação por cursor ({@code ?after=<id>&limit=}): cada página começa logo após o último
+ * ID devolvido na anterior, com custo constante independentemente da profundidade.
+ */
+final class Paginacao {
+
+    static final String LIMITE_PADRAO = "100";
+    static final int LIMITE_MAXIMO = 1000;
+
+    private Paginacao() {}
+
+    static int limite(int solicitado) {
+        return Math.max(1, Math.min(solicitado, LIMITE_MAXIMO));
+    }
+
+    static <T> ResponseEntity<List<T>> pagina(List<T> itens, int limite, Function<T, Long> id) {
+        if (itens.size() < limite) {
+            return ResponseEntity.ok(itens);
+        }
+        return comCursor(itens, limite, id.apply(itens.get(itens.size() - 1)));
+    }
+
+    static <B> ResponseEntity<B> comCursor(B corpo, int limite, Long cursor) {
+        return comCursor(corpo, limite, "after", cursor);
+    }
+
+    /** Variante para cursores que não são IDs, como a versão do feed de alterações ({@code since}). */
+    static <B> ResponseEntity<B> comCursor(B corpo, int limite, String parametro, Long cursor) {
+        String proxima = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam(parametro, cursor)
+                .replaceQueryParam("limit", limite)
+                .build()
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + proxima + ">; rel=\"next\"")
+                .header("X-Next-Cursor", String.valueOf(cursor))
+                .body(corpo);
+    }
+}
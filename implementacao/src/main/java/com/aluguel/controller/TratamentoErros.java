@@ -0,0 +1,24 @@
+package com.aluguel.controller;
+
+import com.aluguel.service.ConflitoException;
+import com.aluguel.service.NaoEncontradoException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/** Códigos HTTP das exceções tipadas dos serviços que os endpoints não tratam localmente. */
+@RestControllerAdvice
+public class TratamentoErros {
+
+    @ExceptionHandler(NaoEncontradoException.class)
+    public ResponseEntity<Void> naoEncontrado() {
+        return ResponseEntity.notFound().build();
+    }
+
+    @ExceptionHandler({ConflitoException.class, ObjectOptimisticLockingFailureException.class})
+    public ResponseEntity<Void> conflito() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+}
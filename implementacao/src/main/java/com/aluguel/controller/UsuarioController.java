@@ -28,9 +28,12 @@ public class UsuarioController {
     @GetMapping
     @Operation(summary = "Listar todos os usuários", description = "Retorna uma lista com todos os usuários cadastrados")
     @ApiResponse(responseCode = "200", description = "Lista de usuários retornada com sucesso")
-    public ResponseEntity<List<Usuario>> listarTodos() {
-        List<Usuario> usuarios = usuarioService.listarTodos();
-        return ResponseEntity.ok(usuarios);
+    public ResponseEntity<List<Usuario>> listarTodos(
+            @Parameter(description = "Cursor: ID do último item da página anterior") @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Tamanho da página") @RequestParam(defaultValue = Paginacao.LIMITE_PADRAO) int limit) {
+        int limite = Paginacao.limite(limit);
+        List<Usuario> usuarios = usuarioService.listarTodos(after, limite);
+        return Paginacao.pagina(usuarios, limite, Usuario::getId);
     }
 
     @GetMapping("/{id}")
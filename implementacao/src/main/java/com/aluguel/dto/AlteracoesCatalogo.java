@@ -0,0 +1,70 @@
+package com.aluguel.dto;
+
+import com.aluguel.model.Automovel;
+
+import java.util.List;
+
+/**
+ * Página do feed de alterações do catálogo. {@code versao} é o valor a enviar como {@code since}
+ * na próxima consulta; com {@code resincronizar}, o cliente deve recarregar o catálogo inteiro
+ * e recomeçar a partir de {@code versao}.
+ */
+public class AlteracoesCatalogo {
+
+    private Long versao;
+    private Long compactadoAte;
+    private Boolean resincronizar;
+    private List<Automovel> alterados;
+    private List<Long> excluidos;
+
+    public AlteracoesCatalogo() {}
+
+    public AlteracoesCatalogo(Long versao, Long compactadoAte, Boolean resincronizar,
+                              List<Automovel> alterados, List<Long> excluidos) {
+        this.versao = versao;
+        this.compactadoAte = compactadoAte;
+        this.resincronizar = resincronizar;
+        this.alterados = alterados;
+        this.excluidos = excluidos;
+    }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
+    public Long getCompactadoAte() {
+        return compactadoAte;
+    }
+
+    public void setCompactadoAte(Long compactadoAte) {
+        this.compactadoAte = compactadoAte;
+    }
+
+    public Boolean getResincronizar() {
+        return resincronizar;
+    }
+
+    public void setResincronizar(Boolean resincronizar) {
+        this.resincronizar = resincronizar;
+    }
+
+    public List<Automovel> getAlterados() {
+        return alterados;
+    }
+
+    public void setAlterados(List<Automovel> alterados) {
+        this.alterados = alterados;
+    }
+
+    public List<Long> getExcluidos() {
+        return excluidos;
+    }
+
+    public void setExcluidos(List<Long> excluidos) {
+        this.excluidos = excluidos;
+    }
+}
@@ -0,0 +1,105 @@
+package com.aluguel.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class AnaliseFinanceira {
+
+    private Long contratoId;
+    private Long clienteId;
+    private List<Rendimento> rendimentos;
+    private BigDecimal rendaMensal;
+    private BigDecimal custoAluguel;
+    private BigDecimal comprometimento;
+    private Integer score;
+    private String risco;
+    private String parecer;
+
+    public AnaliseFinanceira() {}
+
+    public AnaliseFinanceira(Long contratoId, Long clienteId, List<Rendimento> rendimentos,
+                             BigDecimal rendaMensal, BigDecimal custoAluguel, BigDecimal comprometimento,
+                             Integer score, String risco, String parecer) {
+        this.contratoId = contratoId;
+        this.clienteId = clienteId;
+        this.rendimentos = rendimentos;
+        this.rendaMensal = rendaMensal;
+        this.custoAluguel = custoAluguel;
+        this.comprometimento = comprometimento;
+        this.score = score;
+        this.risco = risco;
+        this.parecer = parecer;
+    }
+
+    public Long getContratoId() {
+        return contratoId;
+    }
+
+    public void setContratoId(Long contratoId) {
+        this.contratoId = contratoId;
+    }
+
+    public Long getClienteId() {
+        return clienteId;
+    }
+
+    public void setClienteId(Long clienteId) {
+        this.clienteId = clienteId;
+    }
+
+    public List<Rendimento> getRendimentos() {
+        return rendimentos;
+    }
+
+    public void setRendimentos(List<Rendimento> rendimentos) {
+        this.rendimentos = rendimentos;
+    }
+
+    public BigDecimal getRendaMensal() {
+        return rendaMensal;
+    }
+
+    public void setRendaMensal(BigDecimal rendaMensal) {
+        this.rendaMensal = rendaMensal;
+    }
+
+    public BigDecimal getCustoAluguel() {
+        return custoAluguel;
+    }
+
+    public void setCustoAluguel(BigDecimal custoAluguel) {
+        this.custoAluguel = custoAluguel;
+    }
+
+    public BigDecimal getComprometimento() {
+        return comprometimento;
+    }
+
+    public void setComprometimento(BigDecimal comprometimento) {
+        this.comprometimento = comprometimento;
+    }
+
+    public Integer getScore() {
+        return score;
+    }
+
+    public void setScore(Integer score) {
+        this.score = score;
+    }
+
+    public String getRisco() {
+        return risco;
+    }
+
+    public void setRisco(String risco) {
+        this.risco = risco;
+    }
+
+    public String getParecer() {
+        return parecer;
+    }
+
+    public void setParecer(String parecer) {
+        this.parecer = parecer;
+    }
+}
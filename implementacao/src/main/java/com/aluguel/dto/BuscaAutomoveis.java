@@ -0,0 +1,45 @@
+package com.aluguel.dto;
+
+import com.aluguel.model.Automovel;
+
+import java.util.List;
+import java.util.Map;
+
+public class BuscaAutomoveis {
+
+    private Long total;
+    private List<Automovel> automoveis;
+    private Map<String, Map<String, Long>> facetas;
+
+    public BuscaAutomoveis() {}
+
+    public BuscaAutomoveis(Long total, List<Automovel> automoveis, Map<String, Map<String, Long>> facetas) {
+        this.total = total;
+        this.automoveis = automoveis;
+        this.facetas = facetas;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    public List<Automovel> getAutomoveis() {
+        return automoveis;
+    }
+
+    public void setAutomoveis(List<Automovel> automoveis) {
+        this.automoveis = automoveis;
+    }
+
+    public Map<String, Map<String, Long>> getFacetas() {
+        return facetas;
+    }
+
+    public void setFacetas(Map<String, Map<String, Long>> facetas) {
+        this.facetas = facetas;
+    }
+}
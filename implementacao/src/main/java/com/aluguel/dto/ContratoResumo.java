@@ -0,0 +1,182 @@
+package com.aluguel.dto;
+
+import com.aluguel.model.Contrato.StatusContrato;
+import com.aluguel.model.Contrato.TipoContrato;
+
+import java.time.LocalDate;
+
+/**
+ * Visão de leitura de um contrato com os dados das associações já achatados, montada
+ * diretamente pela consulta para que as listagens não carreguem entidades nem proxies.
+ */
+public class ContratoResumo {
+
+    private Long id;
+    private Long versao;
+    private StatusContrato status;
+    private TipoContrato tipoContrato;
+    private LocalDate dataInicio;
+    private LocalDate dataFim;
+    private String observacoes;
+    private String parecerFinanceiro;
+    private Long automovelId;
+    private String automovelPlaca;
+    private String automovelMarca;
+    private String automovelModelo;
+    private Long usuarioId;
+    private String usuarioNome;
+    private Long agenteAnalisadorId;
+    private String agenteAnalisadorNome;
+
+    public ContratoResumo() {}
+
+    public ContratoResumo(Long id, Long versao, StatusContrato status, TipoContrato tipoContrato,
+                          LocalDate dataInicio, LocalDate dataFim, String observacoes, String parecerFinanceiro,
+                          Long automovelId, String automovelPlaca, String automovelMarca, String automovelModelo,
+                          Long usuarioId, String usuarioNome, Long agenteAnalisadorId, String agenteAnalisadorNome) {
+        this.id = id;
+        this.versao = versao;
+        this.status = status;
+        this.tipoContrato = tipoContrato;
+        this.dataInicio = dataInicio;
+        this.dataFim = dataFim;
+        this.observacoes = observacoes;
+        this.parecerFinanceiro = parecerFinanceiro;
+        this.automovelId = automovelId;
+        this.automovelPlaca = automovelPlaca;
+        this.automovelMarca = automovelMarca;
+        this.automovelModelo = automovelModelo;
+        this.usuarioId = usuarioId;
+        this.usuarioNome = usuarioNome;
+        this.agenteAnalisadorId = agenteAnalisadorId;
+        this.agenteAnalisadorNome = agenteAnalisadorNome;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
+    public StatusContrato getStatus() {
+        return status;
+    }
+
+    public void setStatus(StatusContrato status) {
+        this.status = status;
+    }
+
+    public TipoContrato getTipoContrato() {
+        return tipoContrato;
+    }
+
+    public void setTipoContrato(TipoContrato tipoContrato) {
+        this.tipoContrato = tipoContrato;
+    }
+
+    public LocalDate getDataInicio() {
+        return dataInicio;
+    }
+
+    public void setDataInicio(LocalDate dataInicio) {
+        this.dataInicio = dataInicio;
+    }
+
+    public LocalDate getDataFim() {
+        return dataFim;
+    }
+
+    public void setDataFim(LocalDate dataFim) {
+        this.dataFim = dataFim;
+    }
+
+    public String getObservacoes() {
+        return observacoes;
+    }
+
+    public void setObservacoes(String observacoes) {
+        this.observacoes = observacoes;
+    }
+
+    public String getParecerFinanceiro() {
+        return parecerFinanceiro;
+    }
+
+    public void setParecerFinanceiro(String parecerFinanceiro) {
+        this.parecerFinanceiro = parecerFinanceiro;
+    }
+
+    public Long getAutomovelId() {
+        return automovelId;
+    }
+
+    public void setAutomovelId(Long automovelId) {
+        this.automovelId = automovelId;
+    }
+
+    public String getAutomovelPlaca() {
+        return automovelPlaca;
+    }
+
+    public void setAutomovelPlaca(String automovelPlaca) {
+        this.automovelPlaca = automovelPlaca;
+    }
+
+    public String getAutomovelMarca() {
+        return automovelMarca;
+    }
+
+    public void setAutomovelMarca(String automovelMarca) {
+        this.automovelMarca = automovelMarca;
+    }
+
+    public String getAutomovelModelo() {
+        return automovelModelo;
+    }
+
+    public void setAutomovelModelo(String automovelModelo) {
+        this.automovelModelo = automovelModelo;
+    }
+
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+
+    public void setUsuarioId(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+
+    public String getUsuarioNome() {
+        return usuarioNome;
+    }
+
+    public void setUsuarioNome(String usuarioNome) {
+        this.usuarioNome = usuarioNome;
+    }
+
+    public Long getAgenteAnalisadorId() {
+        return agenteAnalisadorId;
+    }
+
+    public void setAgenteAnalisadorId(Long agenteAnalisadorId) {
+        this.agenteAnalisadorId = agenteAnalisadorId;
+    }
+
+    public String getAgenteAnalisadorNome() {
+        return agenteAnalisadorNome;
+    }
+
+    public void setAgenteAnalisadorNome(String agenteAnalisadorNome) {
+        this.agenteAnalisadorNome = agenteAnalisadorNome;
+    }
+}
@@ -0,0 +1,92 @@
+package com.aluguel.dto;
+
+import com.aluguel.model.Automovel.TipoProprietario;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/** Automóveis por ID ou, sem IDs, todos os que atendem aos filtros (ao menos um é obrigatório). */
+public class DisponibilidadeLoteRequest {
+
+    @NotNull(message = "Disponibilidade de destino é obrigatória")
+    private Boolean disponivel;
+
+    @Size(max = 10000, message = "Máximo de 10000 automóveis por requisição")
+    private List<@NotNull Long> ids;
+
+    private String marca;
+    private String modelo;
+    private Integer anoMin;
+    private Integer anoMax;
+    private TipoProprietario proprietario;
+
+    public DisponibilidadeLoteRequest() {}
+
+    public DisponibilidadeLoteRequest(Boolean disponivel, List<Long> ids, String marca, String modelo,
+                                      Integer anoMin, Integer anoMax, TipoProprietario proprietario) {
+        this.disponivel = disponivel;
+        this.ids = ids;
+        this.marca = marca;
+        this.modelo = modelo;
+        this.anoMin = anoMin;
+        this.anoMax = anoMax;
+        this.proprietario = proprietario;
+    }
+
+    public Boolean getDisponivel() {
+        return disponivel;
+    }
+
+    public void setDisponivel(Boolean disponivel) {
+        this.disponivel = disponivel;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public String getMarca() {
+        return marca;
+    }
+
+    public void setMarca(String marca) {
+        this.marca = marca;
+    }
+
+    public String getModelo() {
+        return modelo;
+    }
+
+    public void setModelo(String modelo) {
+        this.modelo = modelo;
+    }
+
+    public Integer getAnoMin() {
+        return anoMin;
+    }
+
+    public void setAnoMin(Integer anoMin) {
+        this.anoMin = anoMin;
+    }
+
+    public Integer getAnoMax() {
+        return anoMax;
+    }
+
+    public void setAnoMax(Integer anoMax) {
+        this.anoMax = anoMax;
+    }
+
+    public TipoProprietario getProprietario() {
+        return proprietario;
+    }
+
+    public void setProprietario(TipoProprietario proprietario) {
+        this.proprietario = proprietario;
+    }
+}
@@ -0,0 +1,30 @@
+package com.aluguel.dto;
+
+public class ErroCampo {
+
+    private String campo;
+    private String mensagem;
+
+    public ErroCampo() {}
+
+    public ErroCampo(String campo, String mensagem) {
+        this.campo = campo;
+        this.mensagem = mensagem;
+    }
+
+    public String getCampo() {
+        return campo;
+    }
+
+    public void setCampo(String campo) {
+        this.campo = campo;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    public void setMensagem(String mensagem) {
+        this.mensagem = mensagem;
+    }
+}
@@ -0,0 +1,40 @@
+package com.aluguel.dto;
+
+public class ErroImportacao {
+
+    private Long linha;
+    private String campo;
+    private String mensagem;
+
+    public ErroImportacao() {}
+
+    public ErroImportacao(Long linha, String campo, String mensagem) {
+        this.linha = linha;
+        this.campo = campo;
+        this.mensagem = mensagem;
+    }
+
+    public Long getLinha() {
+        return linha;
+    }
+
+    public void setLinha(Long linha) {
+        this.linha = linha;
+    }
+
+    public String getCampo() {
+        return campo;
+    }
+
+    public void setCampo(String campo) {
+        this.campo = campo;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    public void setMensagem(String mensagem) {
+        this.mensagem = mensagem;
+    }
+}
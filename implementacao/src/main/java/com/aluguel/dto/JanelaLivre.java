@@ -0,0 +1,42 @@
+package com.aluguel.dto;
+
+import java.time.LocalDate;
+
+public class JanelaLivre {
+
+    private Long automovelId;
+    private LocalDate inicio;
+    private LocalDate fim;
+
+    public JanelaLivre() {}
+
+    public JanelaLivre(Long automovelId, LocalDate inicio, LocalDate fim) {
+        this.automovelId = automovelId;
+        this.inicio = inicio;
+        this.fim = fim;
+    }
+
+    public Long getAutomovelId() {
+        return automovelId;
+    }
+
+    public void setAutomovelId(Long automovelId) {
+        this.automovelId = automovelId;
+    }
+
+    public LocalDate getInicio() {
+        return inicio;
+    }
+
+    public void setInicio(LocalDate inicio) {
+        this.inicio = inicio;
+    }
+
+    public LocalDate getFim() {
+        return fim;
+    }
+
+    public void setFim(LocalDate fim) {
+        this.fim = fim;
+    }
+}
@@ -0,0 +1,50 @@
+package com.aluguel.dto;
+
+public class OcupacaoAutomovel {
+
+    private Long automovelId;
+    private Integer ano;
+    private Integer diasOcupados;
+    private String dias;
+
+    public OcupacaoAutomovel() {}
+
+    public OcupacaoAutomovel(Long automovelId, Integer ano, Integer diasOcupados, String dias) {
+        this.automovelId = automovelId;
+        this.ano = ano;
+        this.diasOcupados = diasOcupados;
+        this.dias = dias;
+    }
+
+    public Long getAutomovelId() {
+        return automovelId;
+    }
+
+    public void setAutomovelId(Long automovelId) {
+        this.automovelId = automovelId;
+    }
+
+    public Integer getAno() {
+        return ano;
+    }
+
+    public void setAno(Integer ano) {
+        this.ano = ano;
+    }
+
+    public Integer getDiasOcupados() {
+        return diasOcupados;
+    }
+
+    public void setDiasOcupados(Integer diasOcupados) {
+        this.diasOcupados = diasOcupados;
+    }
+
+    public String getDias() {
+        return dias;
+    }
+
+    public void setDias(String dias) {
+        this.dias = dias;
+    }
+}
@@ -0,0 +1,53 @@
+package com.aluguel.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class OcupacaoFrota {
+
+    private LocalDate inicio;
+    private LocalDate fim;
+    private Long totalAutomoveis;
+    private List<Integer> ocupadosPorDia;
+
+    public OcupacaoFrota() {}
+
+    public OcupacaoFrota(LocalDate inicio, LocalDate fim, Long totalAutomoveis, List<Integer> ocupadosPorDia) {
+        this.inicio = inicio;
+        this.fim = fim;
+        this.totalAutomoveis = totalAutomoveis;
+        this.ocupadosPorDia = ocupadosPorDia;
+    }
+
+    public LocalDate getInicio() {
+        return inicio;
+    }
+
+    public void setInicio(LocalDate inicio) {
+        this.inicio = inicio;
+    }
+
+    public LocalDate getFim() {
+        return fim;
+    }
+
+    public void setFim(LocalDate fim) {
+        this.fim = fim;
+    }
+
+    public Long getTotalAutomoveis() {
+        return totalAutomoveis;
+    }
+
+    public void setTotalAutomoveis(Long totalAutomoveis) {
+        this.totalAutomoveis = totalAutomoveis;
+    }
+
+    public List<Integer> getOcupadosPorDia() {
+        return ocupadosPorDia;
+    }
+
+    public void setOcupadosPorDia(List<Integer> ocupadosPorDia) {
+        this.ocupadosPorDia = ocupadosPorDia;
+    }
+}
@@ -0,0 +1,32 @@
+package com.aluguel.dto;
+
+import java.math.BigDecimal;
+
+public class Rendimento {
+
+    private String fonte;
+    private BigDecimal valorMensal;
+
+    public Rendimento() {}
+
+    public Rendimento(String fonte, BigDecimal valorMensal) {
+        this.fonte = fonte;
+        this.valorMensal = valorMensal;
+    }
+
+    public String getFonte() {
+        return fonte;
+    }
+
+    public void setFonte(String fonte) {
+        this.fonte = fonte;
+    }
+
+    public BigDecimal getValorMensal() {
+        return valorMensal;
+    }
+
+    public void setValorMensal(BigDecimal valorMensal) {
+        this.valorMensal = valorMensal;
+    }
+}
@@ -0,0 +1,30 @@
+package com.aluguel.dto;
+
+public class ResultadoDisponibilidade {
+
+    private Boolean disponivel;
+    private Integer alterados;
+
+    public ResultadoDisponibilidade() {}
+
+    public ResultadoDisponibilidade(Boolean disponivel, Integer alterados) {
+        this.disponivel = disponivel;
+        this.alterados = alterados;
+    }
+
+    public Boolean getDisponivel() {
+        return disponivel;
+    }
+
+    public void setDisponivel(Boolean disponivel) {
+        this.disponivel = disponivel;
+    }
+
+    public Integer getAlterados() {
+        return alterados;
+    }
+
+    public void setAlterados(Integer alterados) {
+        this.alterados = alterados;
+    }
+}
@@ -0,0 +1,52 @@
+package com.aluguel.dto;
+
+import java.util.List;
+
+public class ResultadoImportacao {
+
+    private Long linhas;
+    private Long importados;
+    private Long rejeitados;
+    private List<ErroImportacao> erros;
+
+    public ResultadoImportacao() {}
+
+    public ResultadoImportacao(Long linhas, Long importados, Long rejeitados, List<ErroImportacao> erros) {
+        this.linhas = linhas;
+        this.importados = importados;
+        this.rejeitados = rejeitados;
+        this.erros = erros;
+    }
+
+    public Long getLinhas() {
+        return linhas;
+    }
+
+    public void setLinhas(Long linhas) {
+        this.linhas = linhas;
+    }
+
+    public Long getImportados() {
+        return importados;
+    }
+
+    public void setImportados(Long importados) {
+        this.importados = importados;
+    }
+
+    public Long getRejeitados() {
+        return rejeitados;
+    }
+
+    public void setRejeitados(Long rejeitados) {
+        this.rejeitados = rejeitados;
+    }
+
+    public List<ErroImportacao> getErros() {
+        return erros;
+    }
+
+    public void setErros(List<ErroImportacao> erros) {
+        this.erros = erros;
+    }
+}
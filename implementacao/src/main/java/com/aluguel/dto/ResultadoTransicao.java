@@ -0,0 +1,40 @@
+package com.aluguel.dto;
+
+public class ResultadoTransicao {
+
+    private Long id;
+    private Integer codigo;
+    private String mensagem;
+
+    public ResultadoTransicao() {}
+
+    public ResultadoTransicao(Long id, Integer codigo, String mensagem) {
+        this.id = id;
+        this.codigo = codigo;
+        this.mensagem = mensagem;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getCodigo() {
+        return codigo;
+    }
+
+    public void setCodigo(Integer codigo) {
+        this.codigo = codigo;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    public void setMensagem(String mensagem) {
+        this.mensagem = mensagem;
+    }
+}
@@ -0,0 +1,50 @@
+package com.aluguel.dto;
+
+public class ResumoAnaliseLote {
+
+    private Integer analisados;
+    private Integer riscoBaixo;
+    private Integer riscoMedio;
+    private Integer riscoAlto;
+
+    public ResumoAnaliseLote() {}
+
+    public ResumoAnaliseLote(Integer analisados, Integer riscoBaixo, Integer riscoMedio, Integer riscoAlto) {
+        this.analisados = analisados;
+        this.riscoBaixo = riscoBaixo;
+        this.riscoMedio = riscoMedio;
+        this.riscoAlto = riscoAlto;
+    }
+
+    public Integer getAnalisados() {
+        return analisados;
+    }
+
+    public void setAnalisados(Integer analisados) {
+        this.analisados = analisados;
+    }
+
+    public Integer getRiscoBaixo() {
+        return riscoBaixo;
+    }
+
+    public void setRiscoBaixo(Integer riscoBaixo) {
+        this.riscoBaixo = riscoBaixo;
+    }
+
+    public Integer getRiscoMedio() {
+        return riscoMedio;
+    }
+
+    public void setRiscoMedio(Integer riscoMedio) {
+        this.riscoMedio = riscoMedio;
+    }
+
+    public Integer getRiscoAlto() {
+        return riscoAlto;
+    }
+
+    public void setRiscoAlto(Integer riscoAlto) {
+        this.riscoAlto = riscoAlto;
+    }
+}
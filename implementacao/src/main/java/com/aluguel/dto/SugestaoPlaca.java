@@ -0,0 +1,40 @@
+package com.aluguel.dto;
+
+public class SugestaoPlaca {
+
+    private Long automovelId;
+    private String placa;
+    private Integer distancia;
+
+    public SugestaoPlaca() {}
+
+    public SugestaoPlaca(Long automovelId, String placa, Integer distancia) {
+        this.automovelId = automovelId;
+        this.placa = placa;
+        this.distancia = distancia;
+    }
+
+    public Long getAutomovelId() {
+        return automovelId;
+    }
+
+    public void setAutomovelId(Long automovelId) {
+        this.automovelId = automovelId;
+    }
+
+    public String getPlaca() {
+        return placa;
+    }
+
+    public void setPlaca(String placa) {
+        this.placa = placa;
+    }
+
+    public Integer getDistancia() {
+        return distancia;
+    }
+
+    public void setDistancia(Integer distancia) {
+        this.distancia = distancia;
+    }
+}
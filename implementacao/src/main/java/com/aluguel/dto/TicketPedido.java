@@ -0,0 +1,77 @@
+package com.aluguel.dto;
+
+import java.time.Instant;
+
+public class TicketPedido {
+
+    public enum StatusTicket {
+        RECEBIDO, PROCESSANDO, CONCLUIDO, RECUSADO
+    }
+
+    private String id;
+    private StatusTicket status;
+    private Long contratoId;
+    private String mensagem;
+    private Instant recebidoEm;
+    private Instant concluidoEm;
+
+    public TicketPedido() {}
+
+    public TicketPedido(String id, StatusTicket status, Long contratoId, String mensagem,
+                        Instant recebidoEm, Instant concluidoEm) {
+        this.id = id;
+        this.status = status;
+        this.contratoId = contratoId;
+        this.mensagem = mensagem;
+        this.recebidoEm = recebidoEm;
+        this.concluidoEm = concluidoEm;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public StatusTicket getStatus() {
+        return status;
+    }
+
+    public void setStatus(StatusTicket status) {
+        this.status = status;
+    }
+
+    public Long getContratoId() {
+        return contratoId;
+    }
+
+    public void setContratoId(Long contratoId) {
+        this.contratoId = contratoId;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    public void setMensagem(String mensagem) {
+        this.mensagem = mensagem;
+    }
+
+    public Instant getRecebidoEm() {
+        return recebidoEm;
+    }
+
+    public void setRecebidoEm(Instant recebidoEm) {
+        this.recebidoEm = recebidoEm;
+    }
+
+    public Instant getConcluidoEm() {
+        return concluidoEm;
+    }
+
+    public void setConcluidoEm(Instant concluidoEm) {
+        this.concluidoEm = concluidoEm;
+    }
+}
@@ -0,0 +1,41 @@
+package com.aluguel.dto;
+
+import com.aluguel.model.Contrato.StatusContrato;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class TransicaoLoteRequest {
+
+    @NotEmpty(message = "Lista de IDs é obrigatória")
+    @Size(max = 10000, message = "Máximo de 10000 contratos por requisição")
+    private List<@NotNull Long> ids;
+
+    @NotNull(message = "Status de destino é obrigatório")
+    private StatusContrato status;
+
+    public TransicaoLoteRequest() {}
+
+    public TransicaoLoteRequest(List<Long> ids, StatusContrato status) {
+        this.ids = ids;
+        this.status = status;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public StatusContrato getStatus() {
+        return status;
+    }
+
+    public void setStatus(StatusContrato status) {
+        this.status = status;
+    }
+}
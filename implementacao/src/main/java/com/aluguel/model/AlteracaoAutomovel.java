@@ -0,0 +1,83 @@
+package com.aluguel.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Última alteração de cada automóvel no catálogo, com a versão em que ocorreu. Uma exclusão
+ * fica registrada ({@code excluido}) até a compactação, para que clientes em sincronização
+ * incremental removam o automóvel. Enquanto a transação que a gravou não chega ao commit, a linha
+ * fica sem versão e marcada com {@code transacao}; a versão é atribuída logo antes do commit.
+ */
+@Entity
+@Table(name = "alteracoes_automovel", indexes = {
+    @Index(name = "idx_alteracao_automovel_versao", columnList = "versao", unique = true),
+    @Index(name = "idx_alteracao_automovel_transacao", columnList = "transacao")
+})
+public class AlteracaoAutomovel {
+
+    @Id
+    @Column(name = "automovel_id")
+    private Long automovelId;
+
+    private Long versao;
+
+    @Column(length = 36)
+    private String transacao;
+
+    @Column(nullable = false)
+    private Boolean excluido;
+
+    @Column(name = "alterado_em", nullable = false)
+    private Instant alteradoEm;
+
+    public AlteracaoAutomovel() {}
+
+    public AlteracaoAutomovel(Long automovelId, Long versao, Boolean excluido, Instant alteradoEm) {
+        this.automovelId = automovelId;
+        this.versao = versao;
+        this.excluido = excluido;
+        this.alteradoEm = alteradoEm;
+    }
+
+    public Long getAutomovelId() {
+        return automovelId;
+    }
+
+    public void setAutomovelId(Long automovelId) {
+        this.automovelId = automovelId;
+    }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
+    public String getTransacao() {
+        return transacao;
+    }
+
+    public void setTransacao(String transacao) {
+        this.transacao = transacao;
+    }
+
+    public Boolean getExcluido() {
+        return excluido;
+    }
+
+    public void setExcluido(Boolean excluido) {
+        this.excluido = excluido;
+    }
+
+    public Instant getAlteradoEm() {
+        return alteradoEm;
+    }
+
+    public void setAlteradoEm(Instant alteradoEm) {
+        this.alteradoEm = alteradoEm;
+    }
+}
@@ -1,22 +1,41 @@
 package com.aluguel.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Pattern;
 
+import java.math.BigDecimal;
+
 
 @Entity
-@Table(name = "automoveis")
+@Table(name = "automoveis", uniqueConstraints = {
+    @UniqueConstraint(name = Automovel.UK_PLACA, columnNames = "placa"),
+    @UniqueConstraint(name = Automovel.UK_MATRICULA, columnNames = "matricula")
+}, indexes = {
+    @Index(name = "idx_automovel_marca_modelo_ano", columnList = "marca, modelo, ano"),
+    @Index(name = "idx_automovel_proprietario_ano", columnList = "proprietario, ano"),
+    @Index(name = "idx_automovel_ano", columnList = "ano")
+})
 public class Automovel {
 
+    public static final String UK_PLACA = "uk_automovel_placa";
+    public static final String UK_MATRICULA = "uk_automovel_matricula";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seq_automoveis")
+    @SequenceGenerator(name = "seq_automoveis", sequenceName = "seq_automoveis", allocationSize = 50)
     private Long id;
 
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long versao;
+
     @NotBlank(message = "Matrícula é obrigatória")
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String matricula;
 
     @NotNull(message = "Ano é obrigatório")
@@ -34,7 +53,7 @@ public class Automovel {
 
     @NotBlank(message = "Placa é obrigatória")
     @Pattern(regexp = "[A-Z]{3}[0-9]{4}|[A-Z]{3}[0-9][A-Z][0-9]{2}", message = "Placa deve estar no formato ABC1234 ou ABC1A23")
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String placa;
 
     @Column(nullable = false)
@@ -44,6 +63,10 @@ public class Automovel {
     @Column(nullable = false)
     private TipoProprietario proprietario = TipoProprietario.EMPRESA;
 
+    @DecimalMin(value = "0.0", message = "Valor da diária não pode ser negativo")
+    @Column(name = "valor_diaria", precision = 10, scale = 2)
+    private BigDecimal valorDiaria;
+
     public enum TipoProprietario {
         CLIENTE, EMPRESA, BANCO
     }
@@ -67,6 +90,14 @@ public class Automovel {
         this.id = id;
     }
 
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
     public String getMatricula() {
         return matricula;
     }
@@ -122,4 +153,12 @@ public class Automovel {
     public void setProprietario(TipoProprietario proprietario) {
         this.proprietario = proprietario;
     }
+
+    public BigDecimal getValorDiaria() {
+        return valorDiaria;
+    }
+
+    public void setValorDiaria(BigDecimal valorDiaria) {
+        this.valorDiaria = valorDiaria;
+    }
 }
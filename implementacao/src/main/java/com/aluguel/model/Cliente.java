@@ -5,14 +5,20 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 
 @Entity
-@Table(name = "clientes")
+@Table(name = "clientes", uniqueConstraints = {
+    @UniqueConstraint(name = Cliente.UK_CPF, columnNames = "cpf"),
+    @UniqueConstraint(name = Cliente.UK_RG, columnNames = "rg")
+})
 @DiscriminatorValue("CLIENTE")
 @PrimaryKeyJoinColumn(name = "usuario_id")
 public class Cliente extends Usuario {
 
+    public static final String UK_CPF = "uk_cliente_cpf";
+    public static final String UK_RG = "uk_cliente_rg";
+
     @NotBlank(message = "CPF é obrigatório")
     @Pattern(regexp = "\\d{3}\\.\\d{3}\\.\\d{3}-\\d{2}", message = "CPF deve estar no formato 000.000.000-00")
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String cpf;
 
     @NotBlank(message = "RG é obrigatório")
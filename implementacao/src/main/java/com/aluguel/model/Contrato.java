@@ -1,18 +1,33 @@
 package com.aluguel.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.List;
 
 @Entity
-@Table(name = "contratos")
+@Table(name = "contratos", indexes = {
+    @Index(name = "idx_contrato_automovel_status_periodo", columnList = "automovel_id, status, data_inicio, data_fim"),
+    @Index(name = "idx_contrato_status_analise", columnList = "status, analise_expira_em"),
+    @Index(name = "idx_contrato_status_data_fim", columnList = "status, data_fim")
+})
 public class Contrato {
 
+    public static final List<StatusContrato> STATUS_QUE_RESERVAM =
+            List.of(StatusContrato.PENDENTE, StatusContrato.APROVADO, StatusContrato.ATIVO);
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seq_contratos")
+    @SequenceGenerator(name = "seq_contratos", sequenceName = "seq_contratos", allocationSize = 50)
     private Long id;
 
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long versao;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "automovel_id", nullable = false)
     @NotNull(message = "Automóvel é obrigatório")
@@ -38,6 +53,12 @@ public class Contrato {
     @Column(nullable = false)
     private StatusContrato status = StatusContrato.PENDENTE;
 
+    /** Status de onde veio a última transição, gravado no mesmo UPDATE que a faz. */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status_anterior")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private StatusContrato statusAnterior;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private TipoContrato tipoContrato = TipoContrato.ALUGUEL;
@@ -49,8 +70,22 @@ public class Contrato {
     @Column(name = "parecer_financeiro", columnDefinition = "TEXT")
     private String parecerFinanceiro;
 
+    @Column(name = "analise_expira_em")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant analiseExpiraEm;
+
     public enum StatusContrato {
-        PENDENTE, APROVADO, REJEITADO, ATIVO, FINALIZADO, CANCELADO
+        PENDENTE, APROVADO, REJEITADO, ATIVO, FINALIZADO, CANCELADO;
+
+        public List<StatusContrato> origensPermitidas() {
+            return switch (this) {
+                case PENDENTE -> List.of();
+                case APROVADO, REJEITADO -> List.of(PENDENTE);
+                case ATIVO -> List.of(APROVADO);
+                case FINALIZADO -> List.of(ATIVO);
+                case CANCELADO -> List.of(PENDENTE, APROVADO, ATIVO);
+            };
+        }
     }
 
     public enum TipoContrato {
@@ -77,6 +112,14 @@ public class Contrato {
         this.id = id;
     }
 
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
     public Automovel getAutomovel() {
         return automovel;
     }
@@ -148,4 +191,20 @@ public class Contrato {
     public void setParecerFinanceiro(String parecerFinanceiro) {
         this.parecerFinanceiro = parecerFinanceiro;
     }
+
+    public Instant getAnaliseExpiraEm() {
+        return analiseExpiraEm;
+    }
+
+    public void setAnaliseExpiraEm(Instant analiseExpiraEm) {
+        this.analiseExpiraEm = analiseExpiraEm;
+    }
+
+    public StatusContrato getStatusAnterior() {
+        return statusAnterior;
+    }
+
+    public void setStatusAnterior(StatusContrato statusAnterior) {
+        this.statusAnterior = statusAnterior;
+    }
 }
@@ -0,0 +1,154 @@
+package com.aluguel.model;
+
+import com.aluguel.model.Contrato.StatusContrato;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Mudança de status de um contrato, gravada na mesma transação da mudança e entregue
+ * depois aos assinantes pelo despachante da instância de {@code origem}. Se algum assinante
+ * falhar, a linha fica com os nomes dos que faltam em {@code pendentes} até a próxima tentativa.
+ */
+@Entity
+@Table(name = "outbox_contrato", indexes = {
+    @Index(name = "idx_outbox_contrato_origem", columnList = "origem, id")
+})
+public class EventoContrato {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "contrato_id", nullable = false)
+    private Long contratoId;
+
+    @Column(name = "automovel_id", nullable = false)
+    private Long automovelId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status_anterior")
+    private StatusContrato statusAnterior;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StatusContrato status;
+
+    @Column(name = "ocorrido_em", nullable = false)
+    private Instant ocorridoEm;
+
+    @Column(nullable = false)
+    private String origem;
+
+    @Column(name = "adotado_em")
+    private Instant adotadoEm;
+
+    @Column(nullable = false)
+    private Integer tentativas = 0;
+
+    @Column(name = "proxima_tentativa")
+    private Instant proximaTentativa;
+
+    @Column(length = 1000)
+    private String pendentes;
+
+    public EventoContrato() {}
+
+    public EventoContrato(Long id, Long contratoId, Long automovelId, StatusContrato statusAnterior,
+                          StatusContrato status, Instant ocorridoEm) {
+        this.id = id;
+        this.contratoId = contratoId;
+        this.automovelId = automovelId;
+        this.statusAnterior = statusAnterior;
+        this.status = status;
+        this.ocorridoEm = ocorridoEm;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getContratoId() {
+        return contratoId;
+    }
+
+    public void setContratoId(Long contratoId) {
+        this.contratoId = contratoId;
+    }
+
+    public Long getAutomovelId() {
+        return automovelId;
+    }
+
+    public void setAutomovelId(Long automovelId) {
+        this.automovelId = automovelId;
+    }
+
+    public StatusContrato getStatusAnterior() {
+        return statusAnterior;
+    }
+
+    public void setStatusAnterior(StatusContrato statusAnterior) {
+        this.statusAnterior = statusAnterior;
+    }
+
+    public StatusContrato getStatus() {
+        return status;
+    }
+
+    public void setStatus(StatusContrato status) {
+        this.status = status;
+    }
+
+    public Instant getOcorridoEm() {
+        return ocorridoEm;
+    }
+
+    public void setOcorridoEm(Instant ocorridoEm) {
+        this.ocorridoEm = ocorridoEm;
+    }
+
+    public String getOrigem() {
+        return origem;
+    }
+
+    public void setOrigem(String origem) {
+        this.origem = origem;
+    }
+
+    public Instant getAdotadoEm() {
+        return adotadoEm;
+    }
+
+    public void setAdotadoEm(Instant adotadoEm) {
+        this.adotadoEm = adotadoEm;
+    }
+
+    public Integer getTentativas() {
+        return tentativas;
+    }
+
+    public void setTentativas(Integer tentativas) {
+        this.tentativas = tentativas;
+    }
+
+    public Instant getProximaTentativa() {
+        return proximaTentativa;
+    }
+
+    public void setProximaTentativa(Instant proximaTentativa) {
+        this.proximaTentativa = proximaTentativa;
+    }
+
+    public String getPendentes() {
+        return pendentes;
+    }
+
+    public void setPendentes(String pendentes) {
+        this.pendentes = pendentes;
+    }
+}
@@ -0,0 +1,55 @@
+package com.aluguel.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Presença de um despachante de eventos de contrato, renovada periodicamente pela instância dona.
+ * Eventos de uma origem cuja presença deixou de ser renovada podem ser adotados por outra instância.
+ * {@code versoes} traz os contadores de {@code VersoesColecoes} da instância, lidos pelas demais.
+ */
+@Entity
+@Table(name = "instancias_despacho")
+public class InstanciaDespacho {
+
+    @Id
+    private String origem;
+
+    @Column(name = "renovado_em", nullable = false)
+    private Instant renovadoEm;
+
+    @Column(length = 500)
+    private String versoes;
+
+    public InstanciaDespacho() {}
+
+    public InstanciaDespacho(String origem, Instant renovadoEm) {
+        this.origem = origem;
+        this.renovadoEm = renovadoEm;
+    }
+
+    public String getOrigem() {
+        return origem;
+    }
+
+    public void setOrigem(String origem) {
+        this.origem = origem;
+    }
+
+    public String getVersoes() {
+        return versoes;
+    }
+
+    public void setVersoes(String versoes) {
+        this.versoes = versoes;
+    }
+
+    public Instant getRenovadoEm() {
+        return renovadoEm;
+    }
+
+    public void setRenovadoEm(Instant renovadoEm) {
+        this.renovadoEm = renovadoEm;
+    }
+}
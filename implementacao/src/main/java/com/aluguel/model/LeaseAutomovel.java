@@ -0,0 +1,63 @@
+package com.aluguel.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "leases_automovel")
+public class LeaseAutomovel {
+
+    @Id
+    @Column(name = "automovel_id")
+    private Long automovelId;
+
+    @Column(nullable = false)
+    private String dono;
+
+    @Column(name = "expira_em", nullable = false)
+    private Instant expiraEm;
+
+    @Column(nullable = false)
+    private Long token;
+
+    public LeaseAutomovel() {}
+
+    public LeaseAutomovel(Long automovelId, String dono, Instant expiraEm, Long token) {
+        this.automovelId = automovelId;
+        this.dono = dono;
+        this.expiraEm = expiraEm;
+        this.token = token;
+    }
+    public Long getAutomovelId() {
+        return automovelId;
+    }
+
+    public void setAutomovelId(Long automovelId) {
+        this.automovelId = automovelId;
+    }
+
+    public String getDono() {
+        return dono;
+    }
+
+    public void setDono(String dono) {
+        this.dono = dono;
+    }
+
+    public Instant getExpiraEm() {
+        return expiraEm;
+    }
+
+    public void setExpiraEm(Instant expiraEm) {
+        this.expiraEm = expiraEm;
+    }
+
+    public Long getToken() {
+        return token;
+    }
+
+    public void setToken(Long token) {
+        this.token = token;
+    }
+}
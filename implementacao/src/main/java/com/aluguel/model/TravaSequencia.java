@@ -0,0 +1,39 @@
+package com.aluguel.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Uma linha por sequência de IDs, travada enquanto uma instância confere e adianta a sequência na
+ * subida, para que duas instâncias subindo juntas não a reiniciem por cima de IDs já entregues.
+ */
+@Entity
+@Table(name = "travas_sequencias")
+public class TravaSequencia {
+
+    @Id
+    @Column(length = 50)
+    private String sequencia;
+
+    @Column(name = "alinhada_em")
+    private LocalDateTime alinhadaEm;
+
+    public TravaSequencia() {}
+
+    public String getSequencia() {
+        return sequencia;
+    }
+
+    public void setSequencia(String sequencia) {
+        this.sequencia = sequencia;
+    }
+
+    public LocalDateTime getAlinhadaEm() {
+        return alinhadaEm;
+    }
+
+    public void setAlinhadaEm(LocalDateTime alinhadaEm) {
+        this.alinhadaEm = alinhadaEm;
+    }
+}
@@ -6,13 +6,16 @@ import jakarta.validation.constraints.NotBlank;
 
 
 @Entity
-@Table(name = "usuarios")
+@Table(name = "usuarios", uniqueConstraints = @UniqueConstraint(name = Usuario.UK_EMAIL, columnNames = "email"))
 @Inheritance(strategy = InheritanceType.JOINED)
 @DiscriminatorColumn(name = "tipo_usuario", discriminatorType = DiscriminatorType.STRING)
 public abstract class Usuario {
 
+    public static final String UK_EMAIL = "uk_usuario_email";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seq_usuarios")
+    @SequenceGenerator(name = "seq_usuarios", sequenceName = "seq_usuarios", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Nome é obrigatório")
@@ -21,7 +24,7 @@ public abstract class Usuario {
 
     @NotBlank(message = "Email é obrigatório")
     @Email(message = "Email deve ter um formato válido")
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
     @NotBlank(message = "Senha é obrigatória")
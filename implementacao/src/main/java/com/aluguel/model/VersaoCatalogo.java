@@ -0,0 +1,55 @@
+package com.aluguel.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Linha única com a versão atual do catálogo de automóveis e o ponto de compactação: clientes
+ * com versão anterior a {@code compactadoAte} podem ter perdido exclusões e precisam recarregar tudo.
+ */
+@Entity
+@Table(name = "versao_catalogo")
+public class VersaoCatalogo {
+
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long versao;
+
+    @Column(name = "compactado_ate", nullable = false)
+    private Long compactadoAte;
+
+    public VersaoCatalogo() {}
+
+    public VersaoCatalogo(Long id, Long versao, Long compactadoAte) {
+        this.id = id;
+        this.versao = versao;
+        this.compactadoAte = compactadoAte;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
+    public Long getCompactadoAte() {
+        return compactadoAte;
+    }
+
+    public void setCompactadoAte(Long compactadoAte) {
+        this.compactadoAte = compactadoAte;
+    }
+}
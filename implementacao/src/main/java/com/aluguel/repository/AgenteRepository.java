@@ -1,6 +1,7 @@
 package com.aluguel.repository;
 
 import com.aluguel.model.Agente;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,9 +15,13 @@ public interface AgenteRepository extends JpaRepository<Agente, Long> {
 
     Optional<Agente> findByCnpj(String cnpj);
 
-    List<Agente> findByCredenciadoTrue();
+    Optional<Agente> findByEmail(String email);
 
-    List<Agente> findByCredenciadoFalse();
+    List<Agente> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<Agente> findByCredenciadoTrueAndIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<Agente> findByCredenciadoFalseAndIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 
     @Query("SELECT COUNT(a) > 0 FROM Agente a WHERE a.cnpj = :cnpj AND a.id != :id")
     boolean existsByCnpjAndIdNot(@Param("cnpj") String cnpj, @Param("id") Long id);
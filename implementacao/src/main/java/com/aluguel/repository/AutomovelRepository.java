@@ -1,18 +1,45 @@
 package com.aluguel.repository;
 
 import com.aluguel.model.Automovel;
+import com.aluguel.model.Contrato.StatusContrato;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface AutomovelRepository extends JpaRepository<Automovel, Long> {
 
-    List<Automovel> findByDisponivelTrue();
+    List<Automovel> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 
+    List<Automovel> findByDisponivelTrueAndIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 
-    boolean existsByPlaca(String placa);
+    @Query("SELECT a.id FROM Automovel a WHERE a.id > :after ORDER BY a.id")
+    List<Long> findIds(@Param("after") Long after, Limit limit);
 
-    boolean existsByMatricula(String matricula);
+    @Query("SELECT a FROM Automovel a WHERE a.id > :after AND a.disponivel = TRUE AND NOT EXISTS (" +
+           "SELECT 1 FROM Contrato c WHERE c.automovel = a AND c.status IN :status " +
+           "AND c.dataInicio <= :fim AND c.dataFim >= :inicio) ORDER BY a.id")
+    List<Automovel> findLivresNoPeriodo(@Param("status") Collection<StatusContrato> status,
+                                        @Param("inicio") LocalDate inicio,
+                                        @Param("fim") LocalDate fim,
+                                        @Param("after") Long after,
+                                        Limit limit);
+
+    /** Altera a disponibilidade só se ela for diferente; devolve quantos automóveis mudaram. */
+    @Modifying
+    @Query("UPDATE Automovel a SET a.disponivel = :disponivel, a.versao = a.versao + 1 " +
+           "WHERE a.id = :id AND a.disponivel <> :disponivel")
+    int alterarDisponibilidade(@Param("id") Long id, @Param("disponivel") boolean disponivel);
+
+    @Modifying
+    @Query("UPDATE Automovel a SET a.disponivel = :disponivel, a.versao = a.versao + 1 " +
+           "WHERE a.id IN :ids AND a.disponivel <> :disponivel")
+    int alterarDisponibilidade(@Param("ids") Collection<Long> ids, @Param("disponivel") boolean disponivel);
 }
@@ -1,29 +1,28 @@
 package com.aluguel.repository;
 
 import com.aluguel.model.Cliente;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ClienteRepository extends JpaRepository<Cliente, Long> {
 
+    List<Cliente> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("SELECT c.id, c.rendimentos, c.empregadores FROM Cliente c WHERE c.id IN :ids")
+    List<Object[]> findDadosFinanceiros(@Param("ids") Collection<Long> ids);
+
     Optional<Cliente> findByCpf(String cpf);
 
     Optional<Cliente> findByRg(String rg);
 
     Optional<Cliente> findByEmail(String email);
 
-    @Query("SELECT COUNT(c) > 0 FROM Cliente c WHERE c.cpf = :cpf AND c.id != :id")
-    boolean existsByCpfAndIdNot(@Param("cpf") String cpf, @Param("id") Long id);
-
-    @Query("SELECT COUNT(c) > 0 FROM Cliente c WHERE c.rg = :rg AND c.id != :id")
-    boolean existsByRgAndIdNot(@Param("rg") String rg, @Param("id") Long id);
-
-    @Query("SELECT COUNT(c) > 0 FROM Cliente c WHERE c.email = :email AND c.id != :id")
-    boolean existsByEmailAndIdNot(@Param("email") String email, @Param("id") Long id);
-
 }
\ No newline at end of file
@@ -1,19 +1,100 @@
 package com.aluguel.repository;
 
+import com.aluguel.dto.ContratoResumo;
 import com.aluguel.model.Contrato;
 import com.aluguel.model.Contrato.StatusContrato;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ContratoRepository extends JpaRepository<Contrato, Long> {
 
-    List<Contrato> findByStatus(StatusContrato status);
+    String SELECT_RESUMO = "SELECT new com.aluguel.dto.ContratoResumo(c.id, c.versao, c.status, c.tipoContrato, " +
+            "c.dataInicio, c.dataFim, c.observacoes, c.parecerFinanceiro, a.id, a.placa, a.marca, a.modelo, " +
+            "u.id, u.nome, ag.id, ag.nome) " +
+            "FROM Contrato c JOIN c.automovel a JOIN c.usuario u LEFT JOIN c.agenteAnalisador ag ";
 
+    @Query(SELECT_RESUMO + "WHERE c.id > :after ORDER BY c.id")
+    List<ContratoResumo> findResumos(@Param("after") Long after, Limit limit);
 
-    @Query("SELECT c FROM Contrato c WHERE c.status = 'PENDENTE'")
-    List<Contrato> findPedidosPendentes();
+    @Query(SELECT_RESUMO + "WHERE c.status = :status AND c.id > :after ORDER BY c.id")
+    List<ContratoResumo> findResumosPorStatus(@Param("status") StatusContrato status,
+                                              @Param("after") Long after,
+                                              Limit limit);
+
+    @Query("SELECT c.id, cl.id, c.dataInicio, c.dataFim, a.valorDiaria FROM Contrato c JOIN c.automovel a, Cliente cl " +
+           "WHERE cl.id = c.usuario.id AND c.id = :id")
+    List<Object[]> findDadosAnalise(@Param("id") Long id);
+
+    @Query("SELECT c.id, cl.id, c.dataInicio, c.dataFim, a.valorDiaria FROM Contrato c JOIN c.automovel a, Cliente cl " +
+           "WHERE cl.id = c.usuario.id AND c.status = 'PENDENTE' AND c.id > :after ORDER BY c.id")
+    List<Object[]> findDadosAnalisePendentes(@Param("after") Long after, Limit limit);
+
+    @Query("SELECT c.id FROM Contrato c WHERE c.status = 'ATIVO' AND c.dataFim < :hoje AND c.id > :after ORDER BY c.id")
+    List<Long> findIdsAtivosVencidos(@Param("hoje") LocalDate hoje, @Param("after") Long after, Limit limit);
+
+    @Query(SELECT_RESUMO + "WHERE c.id IN :ids ORDER BY c.id")
+    List<ContratoResumo> findResumosPorIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT c.id FROM Contrato c WHERE c.status = 'PENDENTE' " +
+           "AND (c.analiseExpiraEm IS NULL OR c.analiseExpiraEm < :agora) ORDER BY c.id")
+    List<Long> findIdsPendentesLivres(@Param("agora") Instant agora, Limit limit);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(SELECT_RESUMO + "ORDER BY c.id")
+    Stream<ContratoResumo> streamResumos();
+
+    @Query("SELECT COUNT(c) > 0 FROM Contrato c WHERE c.automovel.id = :automovelId AND c.status IN :status " +
+           "AND c.dataInicio <= :fim AND c.dataFim >= :inicio")
+    boolean existsConflito(@Param("automovelId") Long automovelId,
+                           @Param("status") Collection<StatusContrato> status,
+                           @Param("inicio") LocalDate inicio,
+                           @Param("fim") LocalDate fim);
+
+    @Query("SELECT COUNT(c) > 0 FROM Contrato c WHERE c.automovel.id = :automovelId AND c.status IN :status " +
+           "AND c.id <> :contratoId AND c.dataInicio <= :fim AND c.dataFim >= :inicio")
+    boolean existsConflitoExceto(@Param("automovelId") Long automovelId,
+                                 @Param("status") Collection<StatusContrato> status,
+                                 @Param("inicio") LocalDate inicio,
+                                 @Param("fim") LocalDate fim,
+                                 @Param("contratoId") Long contratoId);
+
+    @Query("SELECT c.id, c.automovel.id, c.dataInicio, c.dataFim FROM Contrato c WHERE c.status IN :status")
+    List<Object[]> findPeriodosReservados(@Param("status") Collection<StatusContrato> status);
+
+    @Query("SELECT c.automovel.id FROM Contrato c WHERE c.id = :id")
+    Optional<Long> findAutomovelIdById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Contrato c SET c.statusAnterior = c.status, c.status = :destino, c.versao = c.versao + 1 " +
+           "WHERE c.id = :id AND c.status IN :origens")
+    int transitar(@Param("id") Long id, @Param("destino") StatusContrato destino,
+                  @Param("origens") Collection<StatusContrato> origens);
+
+    /** Decide um pedido pendente, desde que reivindicado pelo agente informado. */
+    @Modifying
+    @Query("UPDATE Contrato c SET c.statusAnterior = c.status, c.status = :destino, c.versao = c.versao + 1 " +
+           "WHERE c.id = :id AND c.status = 'PENDENTE' AND c.agenteAnalisador.id = :agenteId")
+    int decidir(@Param("id") Long id, @Param("destino") StatusContrato destino, @Param("agenteId") Long agenteId);
+
+    @Query("SELECT c.id FROM Contrato c WHERE c.id IN :ids")
+    List<Long> findIdsExistentes(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,41 @@
+package com.aluguel.repository;
+
+import com.aluguel.model.LeaseAutomovel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface LeaseAutomovelRepository extends JpaRepository<LeaseAutomovel, Long> {
+
+    @Modifying
+    @Query("UPDATE LeaseAutomovel l SET l.dono = :dono, l.expiraEm = :expiraEm, l.token = l.token + 1 " +
+           "WHERE l.automovelId = :automovelId AND l.expiraEm < :agora")
+    int tomar(@Param("automovelId") Long automovelId, @Param("dono") String dono,
+              @Param("agora") Instant agora, @Param("expiraEm") Instant expiraEm);
+
+    /** INSERT puro do primeiro lease do automóvel: se outra instância criou a linha antes, falha por chave duplicada. */
+    @Modifying
+    @Query("INSERT INTO LeaseAutomovel (automovelId, dono, expiraEm, token) VALUES (:automovelId, :dono, :expiraEm, 1)")
+    int criar(@Param("automovelId") Long automovelId, @Param("dono") String dono, @Param("expiraEm") Instant expiraEm);
+
+    @Modifying
+    @Query("UPDATE LeaseAutomovel l SET l.expiraEm = :expiraEm " +
+           "WHERE l.automovelId = :automovelId AND l.dono = :dono AND l.token = :token AND l.expiraEm >= :agora")
+    int renovar(@Param("automovelId") Long automovelId, @Param("dono") String dono, @Param("token") Long token,
+                @Param("agora") Instant agora, @Param("expiraEm") Instant expiraEm);
+
+    @Modifying
+    @Query("UPDATE LeaseAutomovel l SET l.expiraEm = :agora " +
+           "WHERE l.automovelId = :automovelId AND l.dono = :dono AND l.token = :token")
+    int liberar(@Param("automovelId") Long automovelId, @Param("dono") String dono, @Param("token") Long token,
+                @Param("agora") Instant agora);
+
+    @Query("SELECT l.token FROM LeaseAutomovel l WHERE l.automovelId = :automovelId AND l.dono = :dono")
+    Optional<Long> findTokenByAutomovelIdAndDono(@Param("automovelId") Long automovelId, @Param("dono") String dono);
+}
@@ -1,16 +1,20 @@
 package com.aluguel.repository;
 
 import com.aluguel.model.Usuario;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
+    List<Usuario> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
     Optional<Usuario> findByEmail(String email);
 
     @Query("SELECT COUNT(u) > 0 FROM Usuario u WHERE u.email = :email AND u.id != :id")
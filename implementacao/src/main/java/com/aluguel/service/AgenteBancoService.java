@@ -13,9 +13,11 @@ import java.util.Optional;
 public class AgenteBancoService {
 
     private final AgenteBancoRepository agenteBancoRepository;
+    private final VersoesColecoes versoesColecoes;
 
-    public AgenteBancoService(AgenteBancoRepository agenteBancoRepository) {
+    public AgenteBancoService(AgenteBancoRepository agenteBancoRepository, VersoesColecoes versoesColecoes) {
         this.agenteBancoRepository = agenteBancoRepository;
+        this.versoesColecoes = versoesColecoes;
     }
 
     public List<AgenteBanco> listarTodos() {
@@ -42,6 +44,7 @@ public class AgenteBancoService {
             }
         }
 
+        versoesColecoes.alterada(VersoesColecoes.USUARIOS);
         return agenteBancoRepository.save(agenteBanco);
     }
 
@@ -59,6 +62,7 @@ public class AgenteBancoService {
                     agenteBanco.setCnpj(agenteBancoAtualizado.getCnpj());
                     agenteBanco.setRazaoSocial(agenteBancoAtualizado.getRazaoSocial());
                     agenteBanco.setCodigoBanco(agenteBancoAtualizado.getCodigoBanco());
+                    versoesColecoes.alterada(VersoesColecoes.USUARIOS);
                     return agenteBancoRepository.save(agenteBanco);
                 })
                 .orElseThrow(() -> new RuntimeException("Agente Banco não encontrado com ID: " + id));
@@ -69,6 +73,7 @@ public class AgenteBancoService {
         if (!agenteBancoRepository.existsById(id)) {
             throw new RuntimeException("Agente Banco não encontrado com ID: " + id);
         }
+        versoesColecoes.alterada(VersoesColecoes.USUARIOS);
         agenteBancoRepository.deleteById(id);
     }
 }
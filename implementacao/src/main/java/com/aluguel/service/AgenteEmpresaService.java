@@ -13,9 +13,11 @@ import java.util.Optional;
 public class AgenteEmpresaService {
 
     private final AgenteEmpresaRepository agenteEmpresaRepository;
+    private final VersoesColecoes versoesColecoes;
 
-    public AgenteEmpresaService(AgenteEmpresaRepository agenteEmpresaRepository) {
+    public AgenteEmpresaService(AgenteEmpresaRepository agenteEmpresaRepository, VersoesColecoes versoesColecoes) {
         this.agenteEmpresaRepository = agenteEmpresaRepository;
+        this.versoesColecoes = versoesColecoes;
     }
 
     public List<AgenteEmpresa> listarTodos() {
@@ -31,6 +33,7 @@ public class AgenteEmpresaService {
     }
 
     public AgenteEmpresa salvar(AgenteEmpresa agenteEmpresa) {
+        versoesColecoes.alterada(VersoesColecoes.USUARIOS);
         return agenteEmpresaRepository.save(agenteEmpresa);
     }
 
@@ -43,6 +46,7 @@ public class AgenteEmpresaService {
                     agenteEmpresa.setCnpj(agenteEmpresaAtualizado.getCnpj());
                     agenteEmpresa.setRazaoSocial(agenteEmpresaAtualizado.getRazaoSocial());
                     agenteEmpresa.setSegmentoAtuacao(agenteEmpresaAtualizado.getSegmentoAtuacao());
+                    versoesColecoes.alterada(VersoesColecoes.USUARIOS);
                     return agenteEmpresaRepository.save(agenteEmpresa);
                 })
                 .orElseThrow(() -> new RuntimeException("Agente Empresa não encontrado com ID: " + id));
@@ -53,6 +57,7 @@ public class AgenteEmpresaService {
         if (!agenteEmpresaRepository.existsById(id)) {
             throw new RuntimeException("Agente Empresa não encontrado com ID: " + id);
         }
+        versoesColecoes.alterada(VersoesColecoes.USUARIOS);
         agenteEmpresaRepository.deleteById(id);
     }
 }
@@ -2,6 +2,7 @@ package com.aluguel.service;
 
 import com.aluguel.model.Agente;
 import com.aluguel.repository.AgenteRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,13 +14,15 @@ import java.util.Optional;
 public class AgenteService {
 
     private final AgenteRepository agenteRepository;
+    private final VersoesColecoes versoesColecoes;
 
-    public AgenteService(AgenteRepository agenteRepository) {
+    public AgenteService(AgenteRepository agenteRepository, VersoesColecoes versoesColecoes) {
         this.agenteRepository = agenteRepository;
+        this.versoesColecoes = versoesColecoes;
     }
 
-    public List<Agente> listarTodos() {
-        return agenteRepository.findAll();
+    public List<Agente> listarTodos(Long after, int limite) {
+        return agenteRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limite));
     }
 
     public Optional<Agente> buscarPorId(Long id) {
@@ -31,12 +34,12 @@ public class AgenteService {
     }
 
 
-    public List<Agente> listarCredenciados() {
-        return agenteRepository.findByCredenciadoTrue();
+    public List<Agente> listarCredenciados(Long after, int limite) {
+        return agenteRepository.findByCredenciadoTrueAndIdGreaterThanOrderByIdAsc(after, Limit.of(limite));
     }
 
-    public List<Agente> listarNaoCredenciados() {
-        return agenteRepository.findByCredenciadoFalse();
+    public List<Agente> listarNaoCredenciados(Long after, int limite) {
+        return agenteRepository.findByCredenciadoFalseAndIdGreaterThanOrderByIdAsc(after, Limit.of(limite));
     }
 
 
@@ -52,6 +55,7 @@ public class AgenteService {
         }
 
 
+        versoesColecoes.alterada(VersoesColecoes.USUARIOS);
         return agenteRepository.save(agente);
     }
 
@@ -68,6 +72,7 @@ public class AgenteService {
                     agente.setEndereco(agenteAtualizado.getEndereco());
                     agente.setCnpj(agenteAtualizado.getCnpj());
                     agente.setRazaoSocial(agenteAtualizado.getRazaoSocial());
+                    versoesColecoes.alterada(VersoesColecoes.USUARIOS);
                     return agenteRepository.save(agente);
                 })
                 .orElseThrow(() -> new RuntimeException("Agente não encontrado com ID: " + id));
@@ -78,6 +83,7 @@ public class AgenteService {
                 .ifPresentOrElse(
                         agente -> {
                             agente.setCredenciado(true);
+                            versoesColecoes.alterada(VersoesColecoes.USUARIOS);
                             agenteRepository.save(agente);
                         },
                         () -> {
@@ -91,6 +97,7 @@ public class AgenteService {
                 .ifPresentOrElse(
                         agente -> {
                             agente.setCredenciado(false);
+                            versoesColecoes.alterada(VersoesColecoes.USUARIOS);
                             agenteRepository.save(agente);
                         },
                         () -> {
@@ -104,6 +111,7 @@ public class AgenteService {
                 .ifPresentOrElse(
                         agente -> {
                             agente.setAtivo(true);
+                            versoesColecoes.alterada(VersoesColecoes.USUARIOS);
                             agenteRepository.save(agente);
                         },
                         () -> {
@@ -117,6 +125,7 @@ public class AgenteService {
                 .ifPresentOrElse(
                         agente -> {
                             agente.setAtivo(false);
+                            versoesColecoes.alterada(VersoesColecoes.USUARIOS);
                             agenteRepository.save(agente);
                         },
                         () -> {
@@ -129,6 +138,7 @@ public class AgenteService {
         if (!agenteRepository.existsById(id)) {
             throw new RuntimeException("Agente não encontrado com ID: " + id);
         }
+        versoesColecoes.alterada(VersoesColecoes.USUARIOS);
         agenteRepository.deleteById(id);
     }
 
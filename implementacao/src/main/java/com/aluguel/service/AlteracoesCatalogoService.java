@@ -0,0 +1,246 @@
+package com.aluguel.service;
+
+import com.aluguel.dto.AlteracoesCatalogo;
+import com.aluguel.model.Automovel;
+import com.aluguel.model.VersaoCatalogo;
+import com.aluguel.repository.AutomovelRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Feed de alterações do catálogo de automóveis para sincronização incremental. Cada inclusão,
+ * alteração, exclusão ou mudança de disponibilidade grava, na transação da escrita, a nova versão
+ * do automóvel em {@code alteracoes_automovel} (uma linha por automóvel, de modo que o feed cresce
+ * com o número de automóveis alterados, não com o de escritas). Durante a transação as linhas ficam
+ * sem versão; logo antes do commit as versões saem, numa faixa contínua, do contador de
+ * {@code versao_catalogo}. A linha do contador só fica travada do início dessa numeração até o
+ * commit, de modo que um lote longo não segura as demais escritas enquanto trabalha; ainda assim as
+ * versões ficam na ordem dos commits e quem leu até a versão N nunca perde uma N-1 confirmada
+ * depois. Exclusões mais antigas
+ * que {@code aluguel.catalogo.retencao-exclusoes-ms} são compactadas, e o ponto de compactação
+ * obriga clientes mais atrasados a recarregar o catálogo inteiro.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class AlteracoesCatalogoService {
+
+    private static final Logger log = LoggerFactory.getLogger(AlteracoesCatalogoService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AutomovelRepository automovelRepository;
+    private final Duration retencaoExclusoes;
+
+    public AlteracoesCatalogoService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                     AutomovelRepository automovelRepository,
+                                     @Value("${aluguel.catalogo.retencao-exclusoes-ms:604800000}") long retencaoExclusoesMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.automovelRepository = automovelRepository;
+        this.retencaoExclusoes = Duration.ofMillis(retencaoExclusoesMs);
+    }
+
+    /** Cria o contador e registra automóveis gravados antes do feed existir, para que {@code since=0} os traga. */
+    @PostConstruct
+    void inicializar() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Integer contadores = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM versao_catalogo WHERE id = ?", Integer.class, VersaoCatalogo.ID);
+            if (contadores == 0) {
+                jdbcTemplate.update("INSERT INTO versao_catalogo (id, versao, compactado_ate) VALUES (?, 0, 0)",
+                        VersaoCatalogo.ID);
+            }
+            List<Long> semRegistro = jdbcTemplate.queryForList(
+                    "SELECT id FROM automoveis a WHERE NOT EXISTS " +
+                    "(SELECT 1 FROM alteracoes_automovel x WHERE x.automovel_id = a.id) ORDER BY id", Long.class);
+            if (!semRegistro.isEmpty()) {
+                registrar(semRegistro);
+                log.info("{} automóvel(is) sem registro incluídos no feed do catálogo", semRegistro.size());
+            }
+        });
+    }
+
+    /**
+     * Registra inclusões ou alterações. Deve ser chamado dentro da transação da escrita e depois
+     * dela (com flush), para que as travas sejam sempre obtidas na ordem linha do automóvel, contador.
+     */
+    public void registrar(Collection<Long> automovelIds) {
+        gravar(automovelIds, false);
+    }
+
+    public void registrarExclusao(Long automovelId) {
+        gravar(List.of(automovelId), true);
+    }
+
+    /**
+     * Registra, num só comando, a alteração dos automóveis que atendem a {@code where} (cláusula
+     * sobre {@code automoveis}, como a de {@link FiltroAutomoveis}), sem trazer os IDs para a aplicação.
+     */
+    public void registrarFiltro(String where, List<Object> argumentos) {
+        String transacao = transacaoAtual();
+        Timestamp agora = Timestamp.from(Instant.now());
+        List<Object> parametros = new ArrayList<>(argumentos);
+        parametros.addAll(List.of(transacao, agora, transacao, agora));
+        jdbcTemplate.update(
+                "MERGE INTO alteracoes_automovel a USING (SELECT id AS automovel_id FROM automoveis" + where + ") n " +
+                "ON a.automovel_id = n.automovel_id " +
+                "WHEN MATCHED THEN UPDATE SET versao = NULL, transacao = ?, excluido = FALSE, alterado_em = ? " +
+                "WHEN NOT MATCHED THEN INSERT (automovel_id, versao, transacao, excluido, alterado_em) " +
+                "VALUES (n.automovel_id, NULL, ?, FALSE, ?)",
+                parametros.toArray());
+    }
+
+    private void gravar(Collection<Long> automovelIds, boolean excluido) {
+        if (automovelIds.isEmpty()) {
+            return;
+        }
+        String transacao = transacaoAtual();
+        List<Long> ids = new ArrayList<>(new TreeSet<>(automovelIds));
+        Timestamp agora = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(
+                "MERGE INTO alteracoes_automovel a USING (VALUES (?, ?, ?, ?)) AS n (automovel_id, transacao, excluido, alterado_em) " +
+                "ON a.automovel_id = n.automovel_id " +
+                "WHEN MATCHED THEN UPDATE SET versao = NULL, transacao = n.transacao, excluido = n.excluido, alterado_em = n.alterado_em " +
+                "WHEN NOT MATCHED THEN INSERT (automovel_id, versao, transacao, excluido, alterado_em) " +
+                "VALUES (n.automovel_id, NULL, n.transacao, n.excluido, n.alterado_em)",
+                ids, ids.size(), (ps, id) -> {
+                    ps.setLong(1, id);
+                    ps.setString(2, transacao);
+                    ps.setBoolean(3, excluido);
+                    ps.setTimestamp(4, agora);
+                });
+    }
+
+    /** Marca da transação atual nas linhas do feed; a primeira chamada agenda a numeração antes do commit. */
+    private String transacaoAtual() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Alterações do catálogo devem ser registradas na transação da escrita");
+        }
+        for (TransactionSynchronization sincronizacao : TransactionSynchronizationManager.getSynchronizations()) {
+            if (sincronizacao instanceof Numeracao numeracao && numeracao.dono() == this) {
+                return numeracao.transacao;
+            }
+        }
+        Numeracao numeracao = new Numeracao();
+        TransactionSynchronizationManager.registerSynchronization(numeracao);
+        return numeracao.transacao;
+    }
+
+    /**
+     * Atribui às linhas da transação versões contínuas, em ordem de ID. O contador é travado aqui e
+     * solto no commit, logo em seguida.
+     */
+    private void numerar(String transacao) {
+        Integer pendentes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM alteracoes_automovel WHERE transacao = ?", Integer.class, transacao);
+        if (pendentes == 0) {
+            return;
+        }
+        jdbcTemplate.update("UPDATE versao_catalogo SET versao = versao + ? WHERE id = ?", pendentes, VersaoCatalogo.ID);
+        long base = jdbcTemplate.queryForObject("SELECT versao FROM versao_catalogo WHERE id = ?",
+                Long.class, VersaoCatalogo.ID) - pendentes;
+        jdbcTemplate.update(
+                "MERGE INTO alteracoes_automovel a USING (SELECT automovel_id, " +
+                "ROW_NUMBER() OVER (ORDER BY automovel_id) AS ordem FROM alteracoes_automovel WHERE transacao = ?) n " +
+                "ON a.automovel_id = n.automovel_id " +
+                "WHEN MATCHED THEN UPDATE SET versao = ? + n.ordem, transacao = NULL",
+                transacao, base);
+    }
+
+    private class Numeracao implements TransactionSynchronization {
+
+        private final String transacao = UUID.randomUUID().toString();
+
+        AlteracoesCatalogoService dono() {
+            return AlteracoesCatalogoService.this;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            numerar(transacao);
+        }
+    }
+
+    /**
+     * Alterações com versão maior que {@code since}, em ordem de versão. A versão atual é lida antes
+     * das alterações, para que a versão devolvida nunca pule uma alteração que não veio na página.
+     */
+    public AlteracoesCatalogo buscar(long since, int limite) {
+        Map<String, Object> contador = jdbcTemplate.queryForMap(
+                "SELECT versao, compactado_ate FROM versao_catalogo WHERE id = ?", VersaoCatalogo.ID);
+        long atual = ((Number) contador.get("versao")).longValue();
+        long compactadoAte = ((Number) contador.get("compactado_ate")).longValue();
+        // Uma versão à frente da atual só pode vir de um banco anterior: também exige recarga.
+        if (since < compactadoAte || since > atual) {
+            return new AlteracoesCatalogo(atual, compactadoAte, true, List.of(), List.of());
+        }
+
+        Map<Long, Long> versoes = new HashMap<>();
+        List<Long> alterados = new ArrayList<>();
+        List<Long> excluidos = new ArrayList<>();
+        long[] ultima = {since};
+        jdbcTemplate.query(
+                "SELECT automovel_id, versao, excluido FROM alteracoes_automovel WHERE versao > ? ORDER BY versao LIMIT ?",
+                rs -> {
+                    long id = rs.getLong(1);
+                    ultima[0] = rs.getLong(2);
+                    versoes.put(id, ultima[0]);
+                    (rs.getBoolean(3) ? excluidos : alterados).add(id);
+                }, since, limite);
+        // Uma compactação concluída durante a leitura pode ter levado exclusões que o cliente não viu.
+        Long compactadoDepois = jdbcTemplate.queryForObject(
+                "SELECT compactado_ate FROM versao_catalogo WHERE id = ?", Long.class, VersaoCatalogo.ID);
+        if (since < compactadoDepois) {
+            return new AlteracoesCatalogo(atual, compactadoDepois, true, List.of(), List.of());
+        }
+
+        // Um automóvel excluído depois da leitura acima some daqui e chega como exclusão na próxima página.
+        List<Automovel> automoveis = automovelRepository.findAllById(alterados).stream()
+                .sorted(Comparator.comparing(automovel -> versoes.get(automovel.getId())))
+                .toList();
+        long proxima = versoes.size() < limite ? Math.max(atual, ultima[0]) : ultima[0];
+        return new AlteracoesCatalogo(proxima, compactadoAte, false, automoveis, excluidos);
+    }
+
+    /** Remove exclusões antigas e avança o ponto de compactação até a maior versão removida. */
+    @Scheduled(fixedDelayString = "${aluguel.catalogo.compactacao-ms:3600000}")
+    public void compactar() {
+        Timestamp limite = Timestamp.from(Instant.now().minus(retencaoExclusoes));
+        Integer removidas = transactionTemplate.execute(status -> {
+            Long ate = jdbcTemplate.queryForObject(
+                    "SELECT MAX(versao) FROM alteracoes_automovel WHERE excluido = TRUE AND alterado_em < ?",
+                    Long.class, limite);
+            if (ate == null) {
+                return 0;
+            }
+            jdbcTemplate.update("UPDATE versao_catalogo SET compactado_ate = GREATEST(compactado_ate, ?) WHERE id = ?",
+                    ate, VersaoCatalogo.ID);
+            return jdbcTemplate.update("DELETE FROM alteracoes_automovel WHERE excluido = TRUE AND versao <= ?", ate);
+        });
+        if (removidas != null && removidas > 0) {
+            log.info("{} exclusão(ões) compactada(s) do feed do catálogo", removidas);
+        }
+    }
+}
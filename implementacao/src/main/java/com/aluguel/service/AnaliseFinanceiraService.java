@@ -0,0 +1,213 @@
+package com.aluguel.service;
+
+import com.aluguel.dto.AnaliseFinanceira;
+import com.aluguel.dto.Rendimento;
+import com.aluguel.dto.ResumoAnaliseLote;
+import com.aluguel.repository.ClienteRepository;
+import com.aluguel.repository.ContratoRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Análise financeira automática dos pedidos de aluguel. Os rendimentos de cada cliente são
+ * interpretados uma única vez e guardados em memória até {@link #invalidar(Long)}; o score de
+ * cada contrato compara o custo mensal do aluguel com a renda identificada e gera um rascunho
+ * de parecer, gravado apenas em pedidos pendentes sem parecer manual.
+ */
+@Service
+public class AnaliseFinanceiraService {
+
+    public static final String PREFIXO_PARECER = "[Parecer automático]";
+
+    public static final String RISCO_BAIXO = "BAIXO";
+    public static final String RISCO_MEDIO = "MEDIO";
+    public static final String RISCO_ALTO = "ALTO";
+
+    private static final int DIAS_POR_MES = 30;
+    private static final double COMPROMETIMENTO_MAXIMO = 0.6;
+    private static final int BONUS_POR_FONTE_ADICIONAL = 50;
+    private static final int TAMANHO_PAGINA = 500;
+    private static final Locale PT_BR = Locale.forLanguageTag("pt-BR");
+
+    private final ContratoRepository contratoRepository;
+    private final ClienteRepository clienteRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final VersoesColecoes versoesColecoes;
+    private final BigDecimal diariaPadrao;
+    private final ForkJoinPool pool;
+    private final Map<Long, PerfilFinanceiro> perfis = new ConcurrentHashMap<>();
+
+    public AnaliseFinanceiraService(ContratoRepository contratoRepository, ClienteRepository clienteRepository,
+                                    JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                    VersoesColecoes versoesColecoes,
+                                    @Value("${aluguel.analise.diaria-padrao:150.00}") BigDecimal diariaPadrao,
+                                    @Value("${aluguel.analise.paralelismo:0}") int paralelismo) {
+        this.contratoRepository = contratoRepository;
+        this.clienteRepository = clienteRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.versoesColecoes = versoesColecoes;
+        this.diariaPadrao = diariaPadrao;
+        this.pool = new ForkJoinPool(paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    void encerrar() {
+        pool.shutdown();
+    }
+
+    public AnaliseFinanceira analisar(Long contratoId) {
+        List<Object[]> dados = contratoRepository.findDadosAnalise(contratoId);
+        if (dados.isEmpty()) {
+            if (!contratoRepository.existsById(contratoId)) {
+                throw new NaoEncontradoException("Contrato não encontrado com ID: " + contratoId);
+            }
+            throw new IllegalArgumentException("Contrato não pertence a um cliente: " + contratoId);
+        }
+        carregarPerfis(List.of((Long) dados.get(0)[1]));
+        AnaliseFinanceira analise = avaliar(dados.get(0));
+        registrarPareceres(List.of(analise));
+        return analise;
+    }
+
+    /** Analisa toda a fila de pendentes, página a página, avaliando cada página em paralelo. */
+    public ResumoAnaliseLote analisarPendentes() {
+        int baixo = 0;
+        int medio = 0;
+        int alto = 0;
+        List<Object[]> pagina = contratoRepository.findDadosAnalisePendentes(0L, Limit.of(TAMANHO_PAGINA));
+        while (!pagina.isEmpty()) {
+            carregarPerfis(pagina.stream().map(linha -> (Long) linha[1]).collect(Collectors.toSet()));
+            List<Object[]> atual = pagina;
+            List<AnaliseFinanceira> analises = pool.submit(() -> atual.parallelStream().map(this::avaliar).toList()).join();
+            registrarPareceres(analises);
+            for (AnaliseFinanceira analise : analises) {
+                switch (analise.getRisco()) {
+                    case RISCO_BAIXO -> baixo++;
+                    case RISCO_MEDIO -> medio++;
+                    default -> alto++;
+                }
+            }
+            if (pagina.size() < TAMANHO_PAGINA) {
+                break;
+            }
+            pagina = contratoRepository.findDadosAnalisePendentes(
+                    (Long) pagina.get(pagina.size() - 1)[0], Limit.of(TAMANHO_PAGINA));
+        }
+        return new ResumoAnaliseLote(baixo + medio + alto, baixo, medio, alto);
+    }
+
+    public void invalidar(Long clienteId) {
+        perfis.remove(clienteId);
+        AposCommit.executar(() -> perfis.remove(clienteId));
+    }
+
+    private void carregarPerfis(Collection<Long> clienteIds) {
+        List<Long> ausentes = clienteIds.stream().filter(id -> !perfis.containsKey(id)).toList();
+        if (ausentes.isEmpty()) {
+            return;
+        }
+        for (Object[] linha : clienteRepository.findDadosFinanceiros(ausentes)) {
+            perfis.putIfAbsent((Long) linha[0], PerfilFinanceiro.de((String) linha[1], (String) linha[2]));
+        }
+    }
+
+    /**
+     * Lê o perfil fora do mapa e só então o publica: a consulta não roda dentro de
+     * {@code computeIfAbsent}, que seguraria o compartimento do mapa e a thread do pool enquanto isso.
+     */
+    private PerfilFinanceiro carregarPerfil(Long clienteId) {
+        PerfilFinanceiro carregado = clienteRepository.findDadosFinanceiros(List.of(clienteId))
+                .stream()
+                .findFirst()
+                .map(dados -> PerfilFinanceiro.de((String) dados[1], (String) dados[2]))
+                .orElseGet(() -> PerfilFinanceiro.de(null, null));
+        PerfilFinanceiro existente = perfis.putIfAbsent(clienteId, carregado);
+        return existente != null ? existente : carregado;
+    }
+
+    private AnaliseFinanceira avaliar(Object[] linha) {
+        Long contratoId = (Long) linha[0];
+        Long clienteId = (Long) linha[1];
+        LocalDate inicio = (LocalDate) linha[2];
+        LocalDate fim = (LocalDate) linha[3];
+        BigDecimal diaria = linha[4] != null ? (BigDecimal) linha[4] : diariaPadrao;
+
+        // Uma invalidação concorrente pode ter removido o perfil depois de carregarPerfis.
+        PerfilFinanceiro perfil = perfis.get(clienteId);
+        if (perfil == null) {
+            perfil = carregarPerfil(clienteId);
+        }
+
+        long dias = ChronoUnit.DAYS.between(inicio, fim) + 1;
+        BigDecimal custo = diaria.multiply(BigDecimal.valueOf(dias));
+        BigDecimal custoMensal = dias <= DIAS_POR_MES ? custo : diaria.multiply(BigDecimal.valueOf(DIAS_POR_MES));
+        BigDecimal renda = perfil.rendaMensal();
+
+        BigDecimal comprometimento = null;
+        int score = 0;
+        if (renda.signum() > 0) {
+            comprometimento = custoMensal.divide(renda, 4, RoundingMode.HALF_UP);
+            score = (int) Math.round(1000 * (1 - comprometimento.doubleValue() / COMPROMETIMENTO_MAXIMO));
+            score = Math.max(0, Math.min(1000, score + BONUS_POR_FONTE_ADICIONAL * (perfil.rendimentos().size() - 1)));
+        }
+        String risco = score >= 700 ? RISCO_BAIXO : score >= 400 ? RISCO_MEDIO : RISCO_ALTO;
+
+        return new AnaliseFinanceira(contratoId, clienteId, perfil.rendimentos(), renda, custo, comprometimento,
+                score, risco, parecer(perfil, diaria, dias, custo, comprometimento, score, risco));
+    }
+
+    private static String parecer(PerfilFinanceiro perfil, BigDecimal diaria, long dias, BigDecimal custo,
+                                  BigDecimal comprometimento, int score, String risco) {
+        if (comprometimento == null) {
+            return PREFIXO_PARECER + " Nenhum rendimento identificado no cadastro do cliente. Score 0/1000, risco "
+                    + risco + ". Sugestão: solicitar comprovação de renda antes de decidir.";
+        }
+        String fontes = perfil.rendimentos().stream().map(Rendimento::getFonte).collect(Collectors.joining(", "));
+        String sugestao = switch (risco) {
+            case RISCO_BAIXO -> "aprovar";
+            case RISCO_MEDIO -> "aprovar com ressalvas";
+            default -> "rejeitar ou solicitar garantias";
+        };
+        return String.format(PT_BR, "%s Renda mensal identificada: R$ %,.2f em %d fonte(s) (%s). "
+                        + "Custo do aluguel: R$ %,.2f por %d dia(s) a R$ %,.2f/dia; comprometimento mensal estimado "
+                        + "de %.1f%% da renda. Score %d/1000, risco %s. Sugestão: %s.",
+                PREFIXO_PARECER, perfil.rendaMensal(), perfil.rendimentos().size(), fontes,
+                custo, dias, diaria, comprometimento.doubleValue() * 100, score, risco, sugestao);
+    }
+
+    /** Grava os rascunhos que mudaram; a versão da coleção só avança se algum foi gravado. */
+    private void registrarPareceres(List<AnaliseFinanceira> analises) {
+        int[][] alterados = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(
+                "UPDATE contratos SET parecer_financeiro = ?, versao = versao + 1 WHERE id = ? AND status = 'PENDENTE' " +
+                "AND (parecer_financeiro IS NULL OR (parecer_financeiro LIKE ? AND parecer_financeiro <> ?))",
+                analises, analises.size(), (ps, analise) -> {
+                    ps.setString(1, analise.getParecer());
+                    ps.setLong(2, analise.getContratoId());
+                    ps.setString(3, PREFIXO_PARECER + "%");
+                    ps.setString(4, analise.getParecer());
+                }));
+        if (Arrays.stream(alterados).flatMapToInt(Arrays::stream).anyMatch(linhas -> linhas != 0)) {
+            versoesColecoes.alterada(VersoesColecoes.CONTRATOS);
+        }
+    }
+}
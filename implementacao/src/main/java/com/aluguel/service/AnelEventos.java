@@ -0,0 +1,54 @@
+package com.aluguel.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffer circular sem locks para um único produtor e um único consumidor. O produtor só avança
+ * a cauda depois de escrever a posição e o consumidor só avança a cabeça depois de limpá-la,
+ * então nenhum dos dois precisa de exclusão mútua.
+ */
+final class AnelEventos<T> {
+
+    private final Object[] posicoes;
+    private final int mascara;
+    private final AtomicLong cabeca = new AtomicLong();
+    private final AtomicLong cauda = new AtomicLong();
+
+    AnelEventos(int capacidade) {
+        if (capacidade <= 0 || Integer.bitCount(capacidade) != 1) {
+            throw new IllegalArgumentException("Capacidade deve ser uma potência de 2: " + capacidade);
+        }
+        this.posicoes = new Object[capacidade];
+        this.mascara = capacidade - 1;
+    }
+
+    /** Chamado apenas pelo produtor; retorna {@code false} se o anel estiver cheio. */
+    boolean oferecer(T item) {
+        long posicao = cauda.get();
+        if (posicao - cabeca.get() == posicoes.length) {
+            return false;
+        }
+        posicoes[(int) (posicao & mascara)] = item;
+        cauda.lazySet(posicao + 1);
+        return true;
+    }
+
+    /** Chamado apenas pelo consumidor; move até {@code maximo} itens para {@code destino}. */
+    @SuppressWarnings("unchecked")
+    int drenar(List<T> destino, int maximo) {
+        long inicio = cabeca.get();
+        int quantidade = (int) Math.min(cauda.get() - inicio, maximo);
+        for (int i = 0; i < quantidade; i++) {
+            int indice = (int) ((inicio + i) & mascara);
+            destino.add((T) posicoes[indice]);
+            posicoes[indice] = null;
+        }
+        cabeca.lazySet(inicio + quantidade);
+        return quantidade;
+    }
+
+    boolean vazio() {
+        return cabeca.get() == cauda.get();
+    }
+}
@@ -0,0 +1,17 @@
+package com.aluguel.service;
+
+import com.aluguel.model.EventoContrato;
+
+import java.util.List;
+
+/**
+ * Consumidor das mudanças de status de contrato. Recebe os eventos em lotes, na ordem em que
+ * foram gravados, numa thread do despachante e fora de qualquer transação da requisição.
+ * Um mesmo evento pode ser entregue mais de uma vez, e um evento cuja entrega falhou volta mais
+ * tarde, depois de eventos mais novos; o tratamento deve ser idempotente e não depender da ordem.
+ * Uma exceção faz o lote voltar só para este assinante.
+ */
+public interface AssinanteEventosContrato {
+
+    void receber(List<EventoContrato> eventos);
+}
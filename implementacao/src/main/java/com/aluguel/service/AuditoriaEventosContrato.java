@@ -0,0 +1,24 @@
+package com.aluguel.service;
+
+import com.aluguel.model.EventoContrato;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/** Registra cada mudança de status no log {@code auditoria.contratos}. */
+@Component
+public class AuditoriaEventosContrato implements AssinanteEventosContrato {
+
+    private static final Logger auditoria = LoggerFactory.getLogger("auditoria.contratos");
+
+    @Override
+    public void receber(List<EventoContrato> eventos) {
+        for (EventoContrato evento : eventos) {
+            auditoria.info("contrato={} automovel={} {} -> {} em {}", evento.getContratoId(), evento.getAutomovelId(),
+                    evento.getStatusAnterior() == null ? "NOVO" : evento.getStatusAnterior(), evento.getStatus(),
+                    evento.getOcorridoEm());
+        }
+    }
+}
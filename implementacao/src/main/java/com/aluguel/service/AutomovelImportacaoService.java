@@ -0,0 +1,322 @@
+package com.aluguel.service;
+
+import com.aluguel.dto.ErroImportacao;
+import com.aluguel.dto.ResultadoImportacao;
+import com.aluguel.model.Automovel;
+import com.aluguel.model.Automovel.TipoProprietario;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Importação da frota de um parceiro em CSV ou NDJSON. O corpo é lido linha a linha; cada linha é
+ * validada com as mesmas regras da entidade e conferida contra as placas e matrículas já cadastradas,
+ * carregadas uma única vez no início. As linhas aceitas são gravadas em lotes JDBC de
+ * {@code aluguel.importacao.lote}, cada lote na sua transação: um erro não desfaz os lotes anteriores,
+ * e as linhas rejeitadas voltam no relatório com o número da linha e o campo.
+ */
+@Service
+public class AutomovelImportacaoService {
+
+    private static final String INSERT = "INSERT INTO automoveis " +
+            "(id, versao, matricula, ano, marca, modelo, placa, disponivel, proprietario, valor_diaria) " +
+            "VALUES (?, 0, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final List<String> COLUNAS_OBRIGATORIAS = List.of("matricula", "ano", "marca", "modelo", "placa");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectReader jsonReader;
+    private final CacheAutomoveis cacheAutomoveis;
+    private final IndicePlacas indicePlacas;
+    private final SequenciasIds sequenciasIds;
+    private final VersoesColecoes versoesColecoes;
+    private final AlteracoesCatalogoService alteracoesCatalogoService;
+    private final int tamanhoLote;
+    private final int maximoErros;
+
+    public AutomovelImportacaoService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                      Validator validator, ObjectMapper objectMapper, CacheAutomoveis cacheAutomoveis,
+                                      IndicePlacas indicePlacas, SequenciasIds sequenciasIds,
+                                      VersoesColecoes versoesColecoes, AlteracoesCatalogoService alteracoesCatalogoService,
+                                      @Value("${aluguel.importacao.lote:1000}") int tamanhoLote,
+                                      @Value("${aluguel.importacao.maximo-erros:1000}") int maximoErros) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.jsonReader = objectMapper.readerFor(Automovel.class);
+        this.cacheAutomoveis = cacheAutomoveis;
+        this.indicePlacas = indicePlacas;
+        this.sequenciasIds = sequenciasIds;
+        this.versoesColecoes = versoesColecoes;
+        this.alteracoesCatalogoService = alteracoesCatalogoService;
+        this.tamanhoLote = tamanhoLote;
+        this.maximoErros = maximoErros;
+    }
+
+    public ResultadoImportacao importarNdjson(InputStream entrada) throws IOException {
+        try (BufferedReader leitor = leitor(entrada)) {
+            Importacao importacao = new Importacao();
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                importacao.linha++;
+                if (linha.isBlank()) {
+                    continue;
+                }
+                Automovel automovel;
+                try {
+                    automovel = jsonReader.readValue(linha);
+                } catch (JsonProcessingException e) {
+                    importacao.rejeitar(null, "JSON inválido: " + e.getOriginalMessage());
+                    continue;
+                }
+                importacao.aceitar(automovel);
+            }
+            return importacao.concluir();
+        }
+    }
+
+    /**
+     * CSV com cabeçalho; as colunas {@code matricula}, {@code ano}, {@code marca}, {@code modelo} e
+     * {@code placa} são obrigatórias, e {@code proprietario}, {@code disponivel} e {@code valorDiaria},
+     * opcionais. Campos entre aspas seguem a mesma regra da exportação de contratos.
+     */
+    public ResultadoImportacao importarCsv(InputStream entrada) throws IOException {
+        try (BufferedReader leitor = leitor(entrada)) {
+            String cabecalho = leitor.readLine();
+            if (cabecalho == null) {
+                throw new IllegalArgumentException("Arquivo CSV vazio");
+            }
+            Map<String, Integer> colunas = new HashMap<>();
+            List<String> nomes = campos(cabecalho.replace("\uFEFF", ""));
+            for (int i = 0; i < nomes.size(); i++) {
+                colunas.put(nomes.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+            }
+            for (String obrigatoria : COLUNAS_OBRIGATORIAS) {
+                if (!colunas.containsKey(obrigatoria)) {
+                    throw new IllegalArgumentException("Coluna obrigatória ausente no cabeçalho: " + obrigatoria);
+                }
+            }
+
+            Importacao importacao = new Importacao();
+            importacao.linha = 1;
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                importacao.linha++;
+                if (linha.isBlank()) {
+                    continue;
+                }
+                List<String> valores = campos(linha);
+                Automovel automovel = new Automovel();
+                String coluna = null;
+                try {
+                    automovel.setMatricula(valor(valores, colunas, coluna = "matricula"));
+                    String ano = valor(valores, colunas, coluna = "ano");
+                    automovel.setAno(ano == null ? null : Integer.valueOf(ano.trim()));
+                    automovel.setMarca(valor(valores, colunas, coluna = "marca"));
+                    automovel.setModelo(valor(valores, colunas, coluna = "modelo"));
+                    automovel.setPlaca(valor(valores, colunas, coluna = "placa"));
+                    String proprietario = valor(valores, colunas, coluna = "proprietario");
+                    if (proprietario != null) {
+                        automovel.setProprietario(TipoProprietario.valueOf(proprietario.trim().toUpperCase(Locale.ROOT)));
+                    }
+                    String disponivel = valor(valores, colunas, coluna = "disponivel");
+                    if (disponivel != null) {
+                        automovel.setDisponivel(Boolean.parseBoolean(disponivel.trim()));
+                    }
+                    String valorDiaria = valor(valores, colunas, coluna = "valorDiaria");
+                    automovel.setValorDiaria(valorDiaria == null ? null : new BigDecimal(valorDiaria.trim()));
+                } catch (IllegalArgumentException e) {
+                    importacao.rejeitar(coluna, "Valor inválido para " + coluna);
+                    continue;
+                }
+                importacao.aceitar(automovel);
+            }
+            return importacao.concluir();
+        }
+    }
+
+    private static BufferedReader leitor(InputStream entrada) {
+        return new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+    }
+
+    private static String valor(List<String> valores, Map<String, Integer> colunas, String coluna) {
+        Integer indice = colunas.get(coluna.toLowerCase(Locale.ROOT));
+        if (indice == null || indice >= valores.size() || valores.get(indice).isEmpty()) {
+            return null;
+        }
+        return valores.get(indice);
+    }
+
+    private static List<String> campos(String linha) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        campos.add(atual.toString());
+        return campos;
+    }
+
+    /** Estado de uma importação em andamento. */
+    private final class Importacao {
+
+        private final Set<String> placas = new HashSet<>(jdbcTemplate.queryForList("SELECT placa FROM automoveis", String.class));
+        private final Set<String> matriculas = new HashSet<>(jdbcTemplate.queryForList("SELECT matricula FROM automoveis", String.class));
+        private final List<Automovel> lote = new ArrayList<>(tamanhoLote);
+        private final List<Long> linhasDoLote = new ArrayList<>(tamanhoLote);
+        private final List<ErroImportacao> erros = new ArrayList<>();
+        private long linha;
+        private long importados;
+        private long rejeitados;
+
+        void aceitar(Automovel automovel) {
+            Set<ConstraintViolation<Automovel>> violacoes = validator.validate(automovel);
+            if (!violacoes.isEmpty()) {
+                ConstraintViolation<Automovel> violacao = violacoes.iterator().next();
+                rejeitar(violacao.getPropertyPath().toString(), violacao.getMessage());
+                return;
+            }
+            if (placas.contains(automovel.getPlaca())) {
+                rejeitar("placa", "Placa já cadastrada: " + automovel.getPlaca());
+                return;
+            }
+            if (matriculas.contains(automovel.getMatricula())) {
+                rejeitar("matricula", "Matrícula já cadastrada: " + automovel.getMatricula());
+                return;
+            }
+            placas.add(automovel.getPlaca());
+            matriculas.add(automovel.getMatricula());
+            lote.add(automovel);
+            linhasDoLote.add(linha);
+            if (lote.size() == tamanhoLote) {
+                gravarLote();
+            }
+        }
+
+        void rejeitar(String campo, String mensagem) {
+            rejeitar(linha, campo, mensagem);
+        }
+
+        private void rejeitar(long linha, String campo, String mensagem) {
+            rejeitados++;
+            if (erros.size() < maximoErros) {
+                erros.add(new ErroImportacao(linha, campo, mensagem));
+            }
+        }
+
+        ResultadoImportacao concluir() {
+            if (!lote.isEmpty()) {
+                gravarLote();
+            }
+            return new ResultadoImportacao(linha, importados, rejeitados, erros);
+        }
+
+        /**
+         * Grava o lote numa transação. Se outra requisição cadastrou uma das placas ou matrículas
+         * depois da carga inicial, o lote inteiro é desfeito e refeito linha a linha, para que só
+         * as linhas em conflito sejam rejeitadas.
+         */
+        private void gravarLote() {
+            List<Long> ids = sequenciasIds.reservar(SequenciasIds.AUTOMOVEIS, lote.size());
+            for (int i = 0; i < lote.size(); i++) {
+                lote.get(i).setId(ids.get(i));
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(INSERT, lote, lote.size(), AutomovelImportacaoService::preencher);
+                    alteracoesCatalogoService.registrar(lote.stream().map(Automovel::getId).toList());
+                });
+                importados += lote.size();
+                lote.forEach(automovel -> indicePlacas.registrar(automovel.getId(), automovel.getPlaca()));
+            } catch (DataIntegrityViolationException e) {
+                for (int i = 0; i < lote.size(); i++) {
+                    Automovel automovel = lote.get(i);
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> {
+                            jdbcTemplate.update(INSERT, ps -> preencher(ps, automovel));
+                            alteracoesCatalogoService.registrar(List.of(automovel.getId()));
+                        });
+                        importados++;
+                        indicePlacas.registrar(automovel.getId(), automovel.getPlaca());
+                    } catch (DataIntegrityViolationException violacao) {
+                        String constraint = ValorDuplicadoException.constraintViolada(violacao,
+                                Automovel.UK_PLACA, Automovel.UK_MATRICULA);
+                        if (Automovel.UK_PLACA.equals(constraint)) {
+                            rejeitar(linhasDoLote.get(i), "placa", "Placa já cadastrada: " + automovel.getPlaca());
+                        } else if (Automovel.UK_MATRICULA.equals(constraint)) {
+                            rejeitar(linhasDoLote.get(i), "matricula", "Matrícula já cadastrada: " + automovel.getMatricula());
+                        } else {
+                            rejeitar(linhasDoLote.get(i), null, violacao.getMostSpecificCause().getMessage());
+                        }
+                    }
+                }
+            } finally {
+                lote.clear();
+                linhasDoLote.clear();
+                cacheAutomoveis.invalidarDisponiveis();
+                versoesColecoes.alterada(VersoesColecoes.AUTOMOVEIS);
+            }
+        }
+    }
+
+    private static void preencher(PreparedStatement ps, Automovel automovel) throws SQLException {
+        ps.setLong(1, automovel.getId());
+        ps.setString(2, automovel.getMatricula());
+        ps.setInt(3, automovel.getAno());
+        ps.setString(4, automovel.getMarca());
+        ps.setString(5, automovel.getModelo());
+        ps.setString(6, automovel.getPlaca());
+        ps.setBoolean(7, !Boolean.FALSE.equals(automovel.getDisponivel()));
+        ps.setString(8, (automovel.getProprietario() != null ? automovel.getProprietario() : TipoProprietario.EMPRESA).name());
+        if (automovel.getValorDiaria() != null) {
+            ps.setBigDecimal(9, automovel.getValorDiaria());
+        } else {
+            ps.setNull(9, Types.DECIMAL);
+        }
+    }
+}
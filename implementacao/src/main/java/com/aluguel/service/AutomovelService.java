@@ -1,10 +1,19 @@
 package com.aluguel.service;
 
+import com.aluguel.dto.DisponibilidadeLoteRequest;
 import com.aluguel.model.Automovel;
+import com.aluguel.model.Contrato;
 import com.aluguel.repository.AutomovelRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,49 +22,74 @@ import java.util.Optional;
 public class AutomovelService {
 
     private final AutomovelRepository automovelRepository;
-
-    public AutomovelService(AutomovelRepository automovelRepository) {
+    private final CacheAutomoveis cacheAutomoveis;
+    private final IndicePlacas indicePlacas;
+    private final JdbcTemplate jdbcTemplate;
+    private final VersoesColecoes versoesColecoes;
+    private final AlteracoesCatalogoService alteracoesCatalogoService;
+
+    public AutomovelService(AutomovelRepository automovelRepository, CacheAutomoveis cacheAutomoveis,
+                            IndicePlacas indicePlacas, JdbcTemplate jdbcTemplate,
+                            VersoesColecoes versoesColecoes, AlteracoesCatalogoService alteracoesCatalogoService) {
         this.automovelRepository = automovelRepository;
+        this.cacheAutomoveis = cacheAutomoveis;
+        this.indicePlacas = indicePlacas;
+        this.jdbcTemplate = jdbcTemplate;
+        this.versoesColecoes = versoesColecoes;
+        this.alteracoesCatalogoService = alteracoesCatalogoService;
     }
 
-    public List<Automovel> listarTodos() {
-        return automovelRepository.findAll();
+    public List<Automovel> listarTodos(Long after, int limite) {
+        return automovelRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limite));
     }
 
+    /** Servido pelo {@link CacheAutomoveis}; sem transação própria para não ocupar uma conexão num acerto. */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<Automovel> buscarPorId(Long id) {
-        return automovelRepository.findById(id);
+        return cacheAutomoveis.buscar(id, automovelRepository::findById);
     }
 
-    public List<Automovel> listarDisponiveis() {
-        return automovelRepository.findByDisponivelTrue();
+    /**
+     * Lê o automóvel do banco, sem passar pelo cache, para decisões de escrita: o cache pode estar
+     * atrasado em relação a escritas de outras réplicas.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<Automovel> buscarParaEscrita(Long id) {
+        return automovelRepository.findById(id);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Automovel> listarDisponiveis(Long after, int limite) {
+        return cacheAutomoveis.disponiveis(() -> automovelRepository.findByDisponivelTrueAndIdGreaterThanOrderByIdAsc(
+                        0L, Limit.of(cacheAutomoveis.maximoDisponiveis() + 1)))
+                .map(snapshot -> {
+                    int inicio = CacheAutomoveis.primeiroApos(snapshot, after);
+                    return snapshot.subList(inicio, Math.min(snapshot.size(), inicio + limite));
+                })
+                .orElseGet(() -> automovelRepository.findByDisponivelTrueAndIdGreaterThanOrderByIdAsc(after, Limit.of(limite)));
+    }
 
-    public Automovel salvar(Automovel automovel) {
-        if (automovelRepository.existsByPlaca(automovel.getPlaca())) {
-            throw new RuntimeException("Placa já cadastrada: " + automovel.getPlaca());
+    public List<Automovel> listarDisponiveisNoPeriodo(LocalDate inicio, LocalDate fim, Long after, int limite) {
+        if (fim.isBefore(inicio)) {
+            throw new RuntimeException("Data de fim deve ser igual ou posterior à data de início");
         }
+        return automovelRepository.findLivresNoPeriodo(Contrato.STATUS_QUE_RESERVAM, inicio, fim, after, Limit.of(limite));
+    }
 
-        if (automovelRepository.existsByMatricula(automovel.getMatricula())) {
-            throw new RuntimeException("Matrícula já cadastrada: " + automovel.getMatricula());
-        }
 
-        return automovelRepository.save(automovel);
+    public Automovel salvar(Automovel automovel) {
+        Automovel automovelSalvo = gravar(automovel);
+        cacheAutomoveis.invalidar(automovelSalvo.getId(), Boolean.TRUE.equals(automovelSalvo.getDisponivel()));
+        indicePlacas.registrar(automovelSalvo.getId(), automovelSalvo.getPlaca());
+        versoesColecoes.alterada(VersoesColecoes.AUTOMOVEIS);
+        alteracoesCatalogoService.registrar(List.of(automovelSalvo.getId()));
+        return automovelSalvo;
     }
 
     public Automovel atualizar(Long id, Automovel automovelAtualizado) {
         return automovelRepository.findById(id)
                 .map(automovel -> {
-                    if (!automovel.getPlaca().equals(automovelAtualizado.getPlaca()) &&
-                        automovelRepository.existsByPlaca(automovelAtualizado.getPlaca())) {
-                        throw new RuntimeException("Placa já cadastrada: " + automovelAtualizado.getPlaca());
-                    }
-
-                    if (!automovel.getMatricula().equals(automovelAtualizado.getMatricula()) &&
-                        automovelRepository.existsByMatricula(automovelAtualizado.getMatricula())) {
-                        throw new RuntimeException("Matrícula já cadastrada: " + automovelAtualizado.getMatricula());
-                    }
-
+                    boolean estavaDisponivel = Boolean.TRUE.equals(automovel.getDisponivel());
                     automovel.setMatricula(automovelAtualizado.getMatricula());
                     automovel.setAno(automovelAtualizado.getAno());
                     automovel.setMarca(automovelAtualizado.getMarca());
@@ -63,41 +97,114 @@ public class AutomovelService {
                     automovel.setPlaca(automovelAtualizado.getPlaca());
                     automovel.setDisponivel(automovelAtualizado.getDisponivel());
                     automovel.setProprietario(automovelAtualizado.getProprietario());
-                    return automovelRepository.save(automovel);
+                    automovel.setValorDiaria(automovelAtualizado.getValorDiaria());
+                    cacheAutomoveis.invalidar(id, estavaDisponivel || Boolean.TRUE.equals(automovel.getDisponivel()));
+                    Automovel gravado = gravar(automovel);
+                    indicePlacas.registrar(id, gravado.getPlaca());
+                    versoesColecoes.alterada(VersoesColecoes.AUTOMOVEIS);
+                    alteracoesCatalogoService.registrar(List.of(id));
+                    return gravado;
                 })
-                .orElseThrow(() -> new RuntimeException("Automóvel não encontrado com ID: " + id));
+                .orElseThrow(() -> new NaoEncontradoException("Automóvel não encontrado com ID: " + id));
+    }
+
+    /** Grava com flush imediato para que uma placa ou matrícula repetida falhe aqui, já traduzida. */
+    private Automovel gravar(Automovel automovel) {
+        try {
+            return automovelRepository.saveAndFlush(automovel);
+        } catch (DataIntegrityViolationException e) {
+            String constraint = ValorDuplicadoException.constraintViolada(e, Automovel.UK_PLACA, Automovel.UK_MATRICULA);
+            if (Automovel.UK_PLACA.equals(constraint)) {
+                throw new ValorDuplicadoException("placa", "Placa já cadastrada: " + automovel.getPlaca());
+            }
+            if (Automovel.UK_MATRICULA.equals(constraint)) {
+                throw new ValorDuplicadoException("matricula", "Matrícula já cadastrada: " + automovel.getMatricula());
+            }
+            throw e;
+        }
     }
 
     public void excluir(Long id) {
         if (!automovelRepository.existsById(id)) {
-            throw new RuntimeException("Automóvel não encontrado com ID: " + id);
+            throw new NaoEncontradoException("Automóvel não encontrado com ID: " + id);
         }
         automovelRepository.deleteById(id);
+        automovelRepository.flush();
+        cacheAutomoveis.invalidar(id, false);
+        indicePlacas.excluir(id);
+        versoesColecoes.alterada(VersoesColecoes.AUTOMOVEIS);
+        alteracoesCatalogoService.registrarExclusao(id);
+    }
+
+    /** Devolve 1 se o automóvel estava disponível, 0 se já estava indisponível. */
+    public int marcarComoIndisponivel(Long id) {
+        return alterarDisponibilidade(id, false);
     }
 
-    public void marcarComoIndisponivel(Long id) {
-        automovelRepository.findById(id)
-                .ifPresentOrElse(
-                        automovel -> {
-                            automovel.setDisponivel(false);
-                            automovelRepository.save(automovel);
-                        },
-                        () -> {
-                            throw new RuntimeException("Automóvel não encontrado com ID: " + id);
-                        }
-                );
+    /** Devolve 1 se o automóvel estava indisponível, 0 se já estava disponível. */
+    public int marcarComoDisponivel(Long id) {
+        return alterarDisponibilidade(id, true);
     }
 
-    public void marcarComoDisponivel(Long id) {
-        automovelRepository.findById(id)
-                .ifPresentOrElse(
-                        automovel -> {
-                            automovel.setDisponivel(true);
-                            automovelRepository.save(automovel);
-                        },
-                        () -> {
-                            throw new RuntimeException("Automóvel não encontrado com ID: " + id);
-                        }
-                );
+    /** Um UPDATE só, sem carregar a entidade; a consulta de existência só ocorre quando nada mudou. */
+    private int alterarDisponibilidade(Long id, boolean disponivel) {
+        int alterados = automovelRepository.alterarDisponibilidade(id, disponivel);
+        if (alterados == 0) {
+            if (!automovelRepository.existsById(id)) {
+                throw new NaoEncontradoException("Automóvel não encontrado com ID: " + id);
+            }
+            return 0;
+        }
+        cacheAutomoveis.invalidar(id, disponivel);
+        versoesColecoes.alterada(VersoesColecoes.AUTOMOVEIS);
+        alteracoesCatalogoService.registrar(List.of(id));
+        return alterados;
+    }
+
+    /**
+     * Altera a disponibilidade dos automóveis listados ou, sem IDs, de todos os que atendem aos
+     * filtros, num único UPDATE (o filtro não é trazido para a aplicação como lista de IDs). O feed do catálogo registra, com o
+     * mesmo filtro, os que ficaram no estado pedido (inclusive os que já estavam nele, que os clientes
+     * apenas recebem de novo). Devolve quantos de fato mudaram.
+     */
+    public int alterarDisponibilidade(DisponibilidadeLoteRequest request) {
+        boolean disponivel = request.getDisponivel();
+        List<Long> ids = request.getIds();
+        boolean porIds = ids != null && !ids.isEmpty();
+        List<Object> argumentos = new ArrayList<>();
+        String where;
+        if (porIds) {
+            where = " WHERE id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+            argumentos.addAll(ids);
+        } else {
+            FiltroAutomoveis filtro = new FiltroAutomoveis(request.getMarca(), request.getModelo(),
+                    request.getAnoMin(), request.getAnoMax(), request.getProprietario(), null);
+            if (filtro.vazio()) {
+                throw new IllegalArgumentException("Informe os IDs ou ao menos um filtro");
+            }
+            where = filtro.where(null, argumentos);
+        }
+        int alterados;
+        if (porIds) {
+            alterados = automovelRepository.alterarDisponibilidade(ids, disponivel);
+        } else {
+            List<Object> parametros = new ArrayList<>(List.of(disponivel));
+            parametros.addAll(argumentos);
+            parametros.add(disponivel);
+            alterados = jdbcTemplate.update("UPDATE automoveis SET disponivel = ?, versao = versao + 1" + where +
+                    " AND disponivel <> ?", parametros.toArray());
+        }
+        if (alterados == 0) {
+            return 0;
+        }
+        if (porIds) {
+            ids.forEach(id -> cacheAutomoveis.invalidar(id, disponivel));
+        } else {
+            cacheAutomoveis.invalidarTodos();
+        }
+        versoesColecoes.alterada(VersoesColecoes.AUTOMOVEIS);
+        argumentos.add(disponivel);
+        alteracoesCatalogoService.registrarFiltro(where + " AND disponivel = ?", argumentos);
+        return alterados;
     }
 }
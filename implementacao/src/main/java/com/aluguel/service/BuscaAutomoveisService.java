@@ -0,0 +1,78 @@
+package com.aluguel.service;
+
+import com.aluguel.dto.BuscaAutomoveis;
+import com.aluguel.model.Automovel;
+import com.aluguel.model.Automovel.TipoProprietario;
+import com.aluguel.repository.AutomovelRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Busca facetada no catálogo de automóveis. Os filtros informados viram condições de um único
+ * WHERE, servido pelos índices compostos de {@code automoveis}; cada faceta é contada com todos
+ * os filtros exceto o da própria faceta, para mostrar quantos automóveis cada alternativa traria.
+ */
+@Service
+public class BuscaAutomoveisService {
+
+    public static final String FACETA_MARCA = "marca";
+    public static final String FACETA_MODELO = "modelo";
+    public static final String FACETA_ANO = "ano";
+    public static final String FACETA_PROPRIETARIO = "proprietario";
+
+    private static final int MAXIMO_VALORES_POR_FACETA = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AutomovelRepository automovelRepository;
+
+    public BuscaAutomoveisService(JdbcTemplate jdbcTemplate, AutomovelRepository automovelRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.automovelRepository = automovelRepository;
+    }
+
+    public BuscaAutomoveis buscar(String marca, String modelo, Integer anoMin, Integer anoMax,
+                                  TipoProprietario proprietario, Boolean disponivel, Long after, int limite) {
+        FiltroAutomoveis filtro = new FiltroAutomoveis(marca, modelo, anoMin, anoMax, proprietario, disponivel);
+
+        Map<String, Map<String, Long>> facetas = new LinkedHashMap<>();
+        facetas.put(FACETA_MARCA, contar(filtro, FACETA_MARCA, "ORDER BY COUNT(*) DESC, marca"));
+        facetas.put(FACETA_MODELO, contar(filtro, FACETA_MODELO, "ORDER BY COUNT(*) DESC, modelo"));
+        facetas.put(FACETA_ANO, contar(filtro, FACETA_ANO, "ORDER BY ano DESC"));
+        Map<String, Long> proprietarios = contar(filtro, FACETA_PROPRIETARIO, "ORDER BY proprietario");
+        facetas.put(FACETA_PROPRIETARIO, proprietarios);
+
+        // A faceta de proprietário tem no máximo três valores e nunca é truncada: o total sai dela.
+        long total = proprietario != null
+                ? proprietarios.getOrDefault(proprietario.name(), 0L)
+                : proprietarios.values().stream().mapToLong(Long::longValue).sum();
+
+        List<Object> argumentos = new ArrayList<>();
+        String sql = "SELECT id FROM automoveis" + filtro.where(null, argumentos)
+                + (filtro.vazio() ? " WHERE" : " AND") + " id > ? ORDER BY id LIMIT ?";
+        argumentos.add(after);
+        argumentos.add(limite);
+        List<Long> ids = jdbcTemplate.queryForList(sql, Long.class, argumentos.toArray());
+        List<Automovel> automoveis = automovelRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(Automovel::getId))
+                .toList();
+
+        return new BuscaAutomoveis(total, automoveis, facetas);
+    }
+
+    private Map<String, Long> contar(FiltroAutomoveis filtro, String faceta, String ordem) {
+        List<Object> argumentos = new ArrayList<>();
+        String sql = "SELECT " + faceta + ", COUNT(*) FROM automoveis" + filtro.where(faceta, argumentos)
+                + " GROUP BY " + faceta + " " + ordem + " LIMIT " + MAXIMO_VALORES_POR_FACETA;
+        Map<String, Long> contagem = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            contagem.put(rs.getString(1), rs.getLong(2));
+        }, argumentos.toArray());
+        return contagem;
+    }
+}
@@ -0,0 +1,223 @@
+package com.aluguel.service;
+
+import com.aluguel.model.Automovel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache de leitura da frota: automóveis por ID (LRU limitado a {@code aluguel.cache.automoveis.maximo})
+ * e um snapshot imutável, ordenado por ID, dos automóveis disponíveis. Toda escrita chama
+ * {@link #invalidar(Long, boolean)}; enquanto a transação da escrita não termina, e até uma leitura
+ * iniciada antes dela terminar, nada do que é lido do banco entra no cache, de modo que um valor não
+ * confirmado ou já superado nunca fica guardado.
+ * <p>
+ * A invalidação só alcança esta instância; escritas feitas em outras réplicas são vistas aqui quando
+ * a entrada vence ({@code aluguel.cache.automoveis.ttl-ms}). Por isso o cache serve apenas leituras:
+ * decisões de escrita usam {@link AutomovelService#buscarParaEscrita(Long)}, que lê a linha do banco.
+ */
+@Component
+public class CacheAutomoveis {
+
+    private final Object trava = new Object();
+    private final Map<Long, Entrada<Automovel>> porId;
+    private final int maximoDisponiveis;
+    private final long validadeNanos;
+    private final Counter acertosPorId;
+    private final Counter faltasPorId;
+    private final Counter acertosDisponiveis;
+    private final Counter faltasDisponiveis;
+
+    private volatile Entrada<List<Automovel>> disponiveis;
+    private long geracao;
+    private int escritasPendentes;
+    private long geracaoExcedida = -1;
+
+    public CacheAutomoveis(MeterRegistry meterRegistry,
+                           @Value("${aluguel.cache.automoveis.maximo:10000}") int maximo,
+                           @Value("${aluguel.cache.automoveis.disponiveis-maximo:10000}") int maximoDisponiveis,
+                           @Value("${aluguel.cache.automoveis.ttl-ms:30000}") long validadeMs) {
+        this.porId = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entrada<Automovel>> maisAntigo) {
+                return size() > maximo;
+            }
+        });
+        this.maximoDisponiveis = maximoDisponiveis;
+        this.validadeNanos = TimeUnit.MILLISECONDS.toNanos(validadeMs);
+        this.acertosPorId = contador(meterRegistry, "id", "acerto");
+        this.faltasPorId = contador(meterRegistry, "id", "falta");
+        this.acertosDisponiveis = contador(meterRegistry, "disponiveis", "acerto");
+        this.faltasDisponiveis = contador(meterRegistry, "disponiveis", "falta");
+        Gauge.builder("aluguel.cache.automoveis.tamanho", porId, Map::size)
+                .description("Automóveis guardados no cache por ID")
+                .register(meterRegistry);
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String cache, String resultado) {
+        return Counter.builder("aluguel.cache.automoveis")
+                .description("Consultas ao cache da frota")
+                .tag("cache", cache)
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    public Optional<Automovel> buscar(Long id, Function<Long, Optional<Automovel>> carregar) {
+        Entrada<Automovel> entrada = porId.get(id);
+        if (entrada != null && entrada.valida()) {
+            acertosPorId.increment();
+            return Optional.of(entrada.valor());
+        }
+        faltasPorId.increment();
+        long inicio = geracaoAtual();
+        Optional<Automovel> carregado = carregar.apply(id);
+        carregado.ifPresent(valor -> {
+            synchronized (trava) {
+                if (podeGuardar(inicio)) {
+                    porId.put(id, new Entrada<>(valor, System.nanoTime() + validadeNanos));
+                }
+            }
+        });
+        return carregado;
+    }
+
+    /** Devolve o snapshot dos disponíveis, ou vazio se o conjunto passar do limite configurado. */
+    public Optional<List<Automovel>> disponiveis(Supplier<List<Automovel>> carregar) {
+        Entrada<List<Automovel>> atual = disponiveis;
+        if (atual != null && atual.valida()) {
+            acertosDisponiveis.increment();
+            return Optional.of(atual.valor());
+        }
+        faltasDisponiveis.increment();
+        long inicio;
+        synchronized (trava) {
+            if (geracaoExcedida == geracao) {
+                return Optional.empty();
+            }
+            inicio = geracao;
+        }
+        List<Automovel> carregados = carregar.get();
+        synchronized (trava) {
+            if (carregados.size() > maximoDisponiveis) {
+                if (podeGuardar(inicio)) {
+                    geracaoExcedida = inicio;
+                }
+                return Optional.empty();
+            }
+            List<Automovel> snapshot = List.copyOf(carregados);
+            if (podeGuardar(inicio)) {
+                disponiveis = new Entrada<>(snapshot, System.nanoTime() + validadeNanos);
+            }
+            return Optional.of(snapshot);
+        }
+    }
+
+    public int maximoDisponiveis() {
+        return maximoDisponiveis;
+    }
+
+    /**
+     * Remove o automóvel do cache e, se ele está no snapshot ou passa a estar disponível, descarta
+     * o snapshot. Dentro de uma transação o cache fica sem novas entradas até o commit ou rollback.
+     */
+    public void invalidar(Long id, boolean disponivel) {
+        synchronized (trava) {
+            geracao++;
+            porId.remove(id);
+            Entrada<List<Automovel>> atual = disponiveis;
+            if (atual != null && (disponivel || contem(atual.valor(), id))) {
+                disponiveis = null;
+            }
+            aguardarTransacao();
+        }
+    }
+
+    /** Esvazia o cache inteiro, para escritas em massa cujos IDs não são conhecidos. */
+    public void invalidarTodos() {
+        synchronized (trava) {
+            geracao++;
+            porId.clear();
+            disponiveis = null;
+            aguardarTransacao();
+        }
+    }
+
+    /**
+     * Dentro de uma transação, bloqueia novas entradas até o commit ou rollback. Chamado com a trava
+     * já obtida, junto com a invalidação, para que nenhuma leitura guarde algo entre as duas.
+     */
+    private void aguardarTransacao() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        escritasPendentes++;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (trava) {
+                    escritasPendentes--;
+                    geracao++;
+                }
+            }
+        });
+    }
+
+    /** Descarta o snapshot dos disponíveis após inclusões em lote, cujos IDs não são conhecidos. */
+    public void invalidarDisponiveis() {
+        synchronized (trava) {
+            geracao++;
+            disponiveis = null;
+        }
+    }
+
+    /** Valor guardado e o instante ({@link System#nanoTime()}) em que deixa de ser servido. */
+    private record Entrada<T>(T valor, long venceEm) {
+
+        boolean valida() {
+            return System.nanoTime() - venceEm < 0;
+        }
+    }
+
+    private long geracaoAtual() {
+        synchronized (trava) {
+            return geracao;
+        }
+    }
+
+    private boolean podeGuardar(long inicio) {
+        return escritasPendentes == 0 && geracao == inicio;
+    }
+
+    /** Posição do primeiro automóvel do snapshot com ID maior que {@code after}. */
+    static int primeiroApos(List<Automovel> snapshot, long after) {
+        int baixo = 0;
+        int alto = snapshot.size();
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (snapshot.get(meio).getId() <= after) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    private static boolean contem(List<Automovel> snapshot, Long id) {
+        int posicao = primeiroApos(snapshot, id - 1);
+        return posicao < snapshot.size() && snapshot.get(posicao).getId().equals(id);
+    }
+}
@@ -0,0 +1,239 @@
+package com.aluguel.service;
+
+import com.aluguel.dto.JanelaLivre;
+import com.aluguel.dto.OcupacaoAutomovel;
+import com.aluguel.dto.OcupacaoFrota;
+import com.aluguel.model.Contrato;
+import com.aluguel.repository.AutomovelRepository;
+import com.aluguel.repository.ContratoRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calendário de ocupação da frota em memória. O mapa de um automóvel é sempre reconstruído a partir
+ * dos contratos que ainda o reservam, de modo que liberar um contrato não apaga dias cobertos por
+ * outro. As gravações desta instância chegam após o commit; o calendário inteiro é recarregado do
+ * banco a cada {@code aluguel.calendario.recarga-ms} para incorporar reservas de outras instâncias.
+ */
+@Service
+public class CalendarioOcupacaoService {
+
+    private static final int MAXIMO_DIAS_CONSULTA = 1096;
+
+    /** Anos aceitos nas consultas de ocupação: datas ISO de quatro dígitos, bem antes de qualquer contrato. */
+    public static final int ANO_MINIMO = 1900;
+    public static final int ANO_MAXIMO = 9999;
+
+    private final ContratoRepository contratoRepository;
+    private final AutomovelRepository automovelRepository;
+    private final Object trava = new Object();
+
+    private volatile Map<Long, MapaOcupacao> mapas = new ConcurrentHashMap<>();
+    private Map<Long, PeriodoReservado> reservas = new HashMap<>();
+    private Map<Long, Map<Long, PeriodoReservado>> reservasPorAutomovel = new HashMap<>();
+    private List<Runnable> alteracoesDuranteRecarga;
+
+    public CalendarioOcupacaoService(ContratoRepository contratoRepository, AutomovelRepository automovelRepository) {
+        this.contratoRepository = contratoRepository;
+        this.automovelRepository = automovelRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${aluguel.calendario.recarga-ms:60000}", initialDelayString = "${aluguel.calendario.recarga-ms:60000}")
+    public void recarregar() {
+        synchronized (trava) {
+            alteracoesDuranteRecarga = new ArrayList<>();
+        }
+
+        Map<Long, PeriodoReservado> novasReservas = new HashMap<>();
+        Map<Long, Map<Long, PeriodoReservado>> novasPorAutomovel = new HashMap<>();
+        Map<Long, MapaOcupacao> novosMapas = new ConcurrentHashMap<>();
+        boolean carregou = false;
+        try {
+            for (Object[] linha : contratoRepository.findPeriodosReservados(Contrato.STATUS_QUE_RESERVAM)) {
+                PeriodoReservado periodo = new PeriodoReservado((Long) linha[1], (LocalDate) linha[2], (LocalDate) linha[3]);
+                novasReservas.put((Long) linha[0], periodo);
+                novasPorAutomovel.computeIfAbsent(periodo.automovelId, id -> new HashMap<>()).put((Long) linha[0], periodo);
+                novosMapas.computeIfAbsent(periodo.automovelId, id -> new MapaOcupacao()).marcar(periodo.inicio, periodo.fim);
+            }
+            carregou = true;
+        } finally {
+            synchronized (trava) {
+                // Reservas confirmadas durante a leitura podem não estar nela: são reaplicadas no calendário novo.
+                if (carregou) {
+                    reservas = novasReservas;
+                    reservasPorAutomovel = novasPorAutomovel;
+                    mapas = novosMapas;
+                    alteracoesDuranteRecarga.forEach(Runnable::run);
+                }
+                alteracoesDuranteRecarga = null;
+            }
+        }
+    }
+
+    public void reservar(Long contratoId, Long automovelId, LocalDate inicio, LocalDate fim) {
+        PeriodoReservado periodo = new PeriodoReservado(automovelId, inicio, fim);
+        AposCommit.executar(() -> alterar(() -> {
+            PeriodoReservado anterior = removerReserva(contratoId);
+            if (anterior != null && !anterior.automovelId.equals(automovelId)) {
+                reconstruir(anterior.automovelId);
+            }
+            reservas.put(contratoId, periodo);
+            reservasPorAutomovel.computeIfAbsent(automovelId, id -> new HashMap<>()).put(contratoId, periodo);
+            reconstruir(automovelId);
+        }));
+    }
+
+    public void liberar(Long contratoId) {
+        AposCommit.executar(() -> alterar(() -> {
+            PeriodoReservado periodo = removerReserva(contratoId);
+            if (periodo != null) {
+                reconstruir(periodo.automovelId);
+            }
+        }));
+    }
+
+    public OcupacaoAutomovel ocupacaoDoAutomovel(Long automovelId, int ano) {
+        validarAno(ano);
+        MapaOcupacao mapa = mapas.get(automovelId);
+        long[] bits = mapa == null ? new long[MapaOcupacao.PALAVRAS_POR_ANO] : mapa.ano(ano);
+        int diasNoAno = LocalDate.of(ano, 1, 1).lengthOfYear();
+        StringBuilder dias = new StringBuilder(diasNoAno);
+        int ocupados = 0;
+        for (int i = 0; i < diasNoAno; i++) {
+            boolean ocupado = MapaOcupacao.ligado(bits, i);
+            dias.append(ocupado ? '1' : '0');
+            if (ocupado) {
+                ocupados++;
+            }
+        }
+        return new OcupacaoAutomovel(automovelId, ano, ocupados, dias.toString());
+    }
+
+    public OcupacaoFrota ocupacaoDaFrota(int ano, Integer mes) {
+        validarAno(ano);
+        LocalDate inicio = mes == null ? LocalDate.of(ano, 1, 1) : LocalDate.of(ano, mes, 1);
+        LocalDate fim = mes == null ? LocalDate.of(ano, 12, 31) : inicio.withDayOfMonth(inicio.lengthOfMonth());
+        int tamanho = (int) ChronoUnit.DAYS.between(inicio, fim) + 1;
+        int[] contagem = new int[tamanho];
+        for (MapaOcupacao mapa : mapas.values()) {
+            long[] bits = mapa.janela(inicio, fim);
+            for (int palavra = 0; palavra < bits.length; palavra++) {
+                long restante = bits[palavra];
+                while (restante != 0) {
+                    contagem[(palavra << 6) + Long.numberOfTrailingZeros(restante)]++;
+                    restante &= restante - 1;
+                }
+            }
+        }
+        List<Integer> ocupadosPorDia = new ArrayList<>(tamanho);
+        for (int valor : contagem) {
+            ocupadosPorDia.add(valor);
+        }
+        return new OcupacaoFrota(inicio, fim, automovelRepository.count(), ocupadosPorDia);
+    }
+
+    private static void validarAno(int ano) {
+        if (ano < ANO_MINIMO || ano > ANO_MAXIMO) {
+            throw new IllegalArgumentException("Ano deve estar entre " + ANO_MINIMO + " e " + ANO_MAXIMO);
+        }
+    }
+
+    /**
+     * Percorre a frota em ordem de ID a partir de {@code after} até reunir {@code limite} janelas
+     * ou esgotar os automóveis; o ID do último automóvel devolvido serve de cursor.
+     */
+    public List<JanelaLivre> buscarJanelasLivres(LocalDate inicio, LocalDate fim, int dias, Long after, int limite) {
+        if (fim.isBefore(inicio)) {
+            throw new RuntimeException("Data de fim deve ser igual ou posterior à data de início");
+        }
+        int tamanho = (int) ChronoUnit.DAYS.between(inicio, fim) + 1;
+        if (tamanho > MAXIMO_DIAS_CONSULTA) {
+            throw new RuntimeException("Período máximo de consulta é de " + MAXIMO_DIAS_CONSULTA + " dias");
+        }
+        if (dias <= 0 || dias > tamanho) {
+            throw new RuntimeException("Quantidade de dias deve estar entre 1 e " + tamanho);
+        }
+        List<JanelaLivre> janelas = new ArrayList<>();
+        List<Long> ids = automovelRepository.findIds(after, Limit.of(limite));
+        while (!ids.isEmpty()) {
+            for (Long automovelId : ids) {
+                MapaOcupacao mapa = mapas.get(automovelId);
+                int deslocamento = mapa == null
+                        ? 0
+                        : MapaOcupacao.primeiraSequenciaLivre(mapa.janela(inicio, fim), tamanho, dias);
+                if (deslocamento >= 0) {
+                    LocalDate primeiroDia = inicio.plusDays(deslocamento);
+                    janelas.add(new JanelaLivre(automovelId, primeiroDia, primeiroDia.plusDays(dias - 1L)));
+                    if (janelas.size() == limite) {
+                        return janelas;
+                    }
+                }
+            }
+            if (ids.size() < limite) {
+                break;
+            }
+            ids = automovelRepository.findIds(ids.get(ids.size() - 1), Limit.of(limite));
+        }
+        return janelas;
+    }
+
+    private void alterar(Runnable alteracao) {
+        synchronized (trava) {
+            alteracao.run();
+            if (alteracoesDuranteRecarga != null) {
+                alteracoesDuranteRecarga.add(alteracao);
+            }
+        }
+    }
+
+    private PeriodoReservado removerReserva(Long contratoId) {
+        PeriodoReservado periodo = reservas.remove(contratoId);
+        if (periodo != null) {
+            Map<Long, PeriodoReservado> doAutomovel = reservasPorAutomovel.get(periodo.automovelId);
+            doAutomovel.remove(contratoId);
+            if (doAutomovel.isEmpty()) {
+                reservasPorAutomovel.remove(periodo.automovelId);
+            }
+        }
+        return periodo;
+    }
+
+    /** Troca o mapa do automóvel por um novo, marcado só com os contratos que ainda o reservam. */
+    private void reconstruir(Long automovelId) {
+        Map<Long, PeriodoReservado> doAutomovel = reservasPorAutomovel.get(automovelId);
+        if (doAutomovel == null) {
+            mapas.remove(automovelId);
+            return;
+        }
+        MapaOcupacao mapa = new MapaOcupacao();
+        for (PeriodoReservado periodo : doAutomovel.values()) {
+            mapa.marcar(periodo.inicio, periodo.fim);
+        }
+        mapas.put(automovelId, mapa);
+    }
+
+    private static final class PeriodoReservado {
+
+        private final Long automovelId;
+        private final LocalDate inicio;
+        private final LocalDate fim;
+
+        private PeriodoReservado(Long automovelId, LocalDate inicio, LocalDate fim) {
+            this.automovelId = automovelId;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.aluguel.service;
 
 import com.aluguel.model.Cliente;
+import com.aluguel.model.Usuario;
 import com.aluguel.repository.ClienteRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,13 +16,18 @@ import java.util.Optional;
 public class ClienteService {
 
     private final ClienteRepository clienteRepository;
+    private final AnaliseFinanceiraService analiseFinanceiraService;
+    private final VersoesColecoes versoesColecoes;
 
-    public ClienteService(ClienteRepository clienteRepository) {
+    public ClienteService(ClienteRepository clienteRepository, AnaliseFinanceiraService analiseFinanceiraService,
+                          VersoesColecoes versoesColecoes) {
         this.clienteRepository = clienteRepository;
+        this.analiseFinanceiraService = analiseFinanceiraService;
+        this.versoesColecoes = versoesColecoes;
     }
 
-    public List<Cliente> listarTodos() {
-        return clienteRepository.findAll();
+    public List<Cliente> listarTodos(Long after, int limite) {
+        return clienteRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limite));
     }
 
     public Optional<Cliente> buscarPorId(Long id) {
@@ -40,58 +48,12 @@ public class ClienteService {
 
 
     public Cliente salvar(Cliente cliente) {
-        if (cliente.getId() == null) {
-            if (clienteRepository.findByCpf(cliente.getCpf()).isPresent()) {
-                throw new RuntimeException("CPF já cadastrado: " + cliente.getCpf());
-            }
-        } else {
-            if (clienteRepository.existsByCpfAndIdNot(cliente.getCpf(), cliente.getId())) {
-                throw new RuntimeException("CPF já cadastrado: " + cliente.getCpf());
-            }
-        }
-
-        if (cliente.getId() == null) {
-            if (clienteRepository.findByRg(cliente.getRg()).isPresent()) {
-                throw new RuntimeException("RG já cadastrado: " + cliente.getRg());
-            }
-        } else {
-            if (clienteRepository.existsByRgAndIdNot(cliente.getRg(), cliente.getId())) {
-                throw new RuntimeException("RG já cadastrado: " + cliente.getRg());
-            }
-        }
-
-        if (cliente.getId() == null) {
-            if (clienteRepository.findByEmail(cliente.getEmail()).isPresent()) {
-                throw new RuntimeException("Email já cadastrado: " + cliente.getEmail());
-            }
-        } else {
-            if (clienteRepository.existsByEmailAndIdNot(cliente.getEmail(), cliente.getId())) {
-                throw new RuntimeException("Email já cadastrado: " + cliente.getEmail());
-            }
-        }
-
-
-        return clienteRepository.save(cliente);
+        return gravar(cliente);
     }
 
     public Cliente atualizar(Long id, Cliente clienteAtualizado) {
         return clienteRepository.findById(id)
                 .map(cliente -> {
-                    if (!cliente.getCpf().equals(clienteAtualizado.getCpf()) &&
-                        clienteRepository.existsByCpfAndIdNot(clienteAtualizado.getCpf(), id)) {
-                        throw new RuntimeException("CPF já cadastrado: " + clienteAtualizado.getCpf());
-                    }
-
-                    if (!cliente.getEmail().equals(clienteAtualizado.getEmail()) &&
-                        clienteRepository.existsByEmailAndIdNot(clienteAtualizado.getEmail(), id)) {
-                        throw new RuntimeException("Email já cadastrado: " + clienteAtualizado.getEmail());
-                    }
-
-                    if (!cliente.getRg().equals(clienteAtualizado.getRg()) &&
-                        clienteRepository.existsByRgAndIdNot(clienteAtualizado.getRg(), id)) {
-                        throw new RuntimeException("RG já cadastrado: " + clienteAtualizado.getRg());
-                    }
-
                     cliente.setNome(clienteAtualizado.getNome());
                     cliente.setCpf(clienteAtualizado.getCpf());
                     cliente.setRg(clienteAtualizado.getRg());
@@ -100,15 +62,38 @@ public class ClienteService {
                     cliente.setProfissao(clienteAtualizado.getProfissao());
                     cliente.setEmpregadores(clienteAtualizado.getEmpregadores());
                     cliente.setRendimentos(clienteAtualizado.getRendimentos());
-                    return clienteRepository.save(cliente);
+                    analiseFinanceiraService.invalidar(id);
+                    return gravar(cliente);
                 })
-                .orElseThrow(() -> new RuntimeException("Cliente não encontrado com ID: " + id));
+                .orElseThrow(() -> new NaoEncontradoException("Cliente não encontrado com ID: " + id));
+    }
+
+    /** Grava com flush imediato para que CPF, RG ou email repetido falhe aqui, já traduzido. */
+    private Cliente gravar(Cliente cliente) {
+        try {
+            versoesColecoes.alterada(VersoesColecoes.USUARIOS);
+            return clienteRepository.saveAndFlush(cliente);
+        } catch (DataIntegrityViolationException e) {
+            String constraint = ValorDuplicadoException.constraintViolada(e, Cliente.UK_CPF, Cliente.UK_RG, Usuario.UK_EMAIL);
+            if (Cliente.UK_CPF.equals(constraint)) {
+                throw new ValorDuplicadoException("cpf", "CPF já cadastrado: " + cliente.getCpf());
+            }
+            if (Cliente.UK_RG.equals(constraint)) {
+                throw new ValorDuplicadoException("rg", "RG já cadastrado: " + cliente.getRg());
+            }
+            if (Usuario.UK_EMAIL.equals(constraint)) {
+                throw new ValorDuplicadoException("email", "Email já cadastrado: " + cliente.getEmail());
+            }
+            throw e;
+        }
     }
 
     public void excluir(Long id) {
         if (!clienteRepository.existsById(id)) {
-            throw new RuntimeException("Cliente não encontrado com ID: " + id);
+            throw new NaoEncontradoException("Cliente não encontrado com ID: " + id);
         }
+        versoesColecoes.alterada(VersoesColecoes.USUARIOS);
         clienteRepository.deleteById(id);
+        analiseFinanceiraService.invalidar(id);
     }
 }
\ No newline at end of file
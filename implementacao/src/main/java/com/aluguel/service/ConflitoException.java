@@ -0,0 +1,12 @@
+package com.aluguel.service;
+
+/**
+ * Operação incompatível com o estado atual do recurso (transição de status não permitida, automóvel
+ * travado por outra requisição ou instância); respondida com 409 por {@code com.aluguel.controller.TratamentoErros}.
+ */
+public class ConflitoException extends RuntimeException {
+
+    public ConflitoException(String mensagem) {
+        super(mensagem);
+    }
+}
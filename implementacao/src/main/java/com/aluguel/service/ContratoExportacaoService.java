@@ -0,0 +1,107 @@
+package com.aluguel.service;
+
+import com.aluguel.dto.ContratoResumo;
+import com.aluguel.repository.ContratoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+/**
+ * Exportação completa dos contratos. As linhas vêm de um cursor somente-leitura e são
+ * escritas na saída à medida que chegam, sem acumular a tabela em memória.
+ */
+@Service
+public class ContratoExportacaoService {
+
+    private static final String CABECALHO_CSV = "id,versao,status,tipoContrato,dataInicio,dataFim,observacoes," +
+            "parecerFinanceiro,automovelId,automovelPlaca,automovelMarca,automovelModelo," +
+            "usuarioId,usuarioNome,agenteAnalisadorId,agenteAnalisadorNome";
+
+    private final ContratoRepository contratoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectWriter jsonWriter;
+
+    public ContratoExportacaoService(ContratoRepository contratoRepository, PlatformTransactionManager transactionManager,
+                                     ObjectMapper objectMapper) {
+        this.contratoRepository = contratoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.jsonWriter = objectMapper.writerFor(ContratoResumo.class);
+    }
+
+    public void exportarNdjson(OutputStream saida) throws IOException {
+        exportar(saida, null, (writer, contrato) -> {
+            writer.write(jsonWriter.writeValueAsString(contrato));
+            writer.write('\n');
+        });
+    }
+
+    public void exportarCsv(OutputStream saida) throws IOException {
+        exportar(saida, CABECALHO_CSV, (writer, c) -> {
+            writer.write(csv(c.getId(), c.getVersao(), c.getStatus(), c.getTipoContrato(), c.getDataInicio(),
+                    c.getDataFim(), c.getObservacoes(), c.getParecerFinanceiro(), c.getAutomovelId(),
+                    c.getAutomovelPlaca(), c.getAutomovelMarca(), c.getAutomovelModelo(), c.getUsuarioId(),
+                    c.getUsuarioNome(), c.getAgenteAnalisadorId(), c.getAgenteAnalisadorNome()));
+            writer.write('\n');
+        });
+    }
+
+    private void exportar(OutputStream saida, String cabecalho, Linha linha) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        if (cabecalho != null) {
+            writer.write(cabecalho);
+            writer.write('\n');
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<ContratoResumo> contratos = contratoRepository.streamResumos()) {
+                    contratos.forEach(contrato -> {
+                        try {
+                            linha.escrever(writer, contrato);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static String csv(Object... valores) {
+        StringBuilder linha = new StringBuilder();
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                linha.append(',');
+            }
+            if (valores[i] == null) {
+                continue;
+            }
+            String valor = valores[i].toString();
+            if (valor.indexOf(',') >= 0 || valor.indexOf('"') >= 0 || valor.indexOf('\n') >= 0 || valor.indexOf('\r') >= 0) {
+                linha.append('"').append(valor.replace("\"", "\"\"")).append('"');
+            } else {
+                linha.append(valor);
+            }
+        }
+        return linha.toString();
+    }
+
+    @FunctionalInterface
+    private interface Linha {
+        void escrever(Writer writer, ContratoResumo contrato) throws IOException;
+    }
+}
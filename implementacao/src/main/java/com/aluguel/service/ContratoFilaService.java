@@ -0,0 +1,111 @@
+package com.aluguel.service;
+
+import com.aluguel.dto.ContratoResumo;
+import com.aluguel.model.Agente;
+import com.aluguel.repository.AgenteRepository;
+import com.aluguel.repository.ContratoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Fila de análise dos pedidos pendentes. Cada agente reivindica um lote de pedidos, que fica
+ * reservado para ele até {@code aluguel.fila.lease-ms}; pedidos não decididos nesse prazo voltam
+ * para a fila. A reivindicação é um UPDATE condicional por pedido, então dois agentes nunca
+ * recebem o mesmo contrato; a aprovação ou rejeição só vale para o agente gravado como analisador.
+ */
+@Service
+public class ContratoFilaService {
+
+    public static final int MAXIMO_POR_REIVINDICACAO = 100;
+    private static final int FATOR_JANELA = 4;
+    private static final int MAXIMO_RODADAS = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ContratoRepository contratoRepository;
+    private final AgenteRepository agenteRepository;
+    private final VersoesColecoes versoesColecoes;
+    private final Duration lease;
+
+    public ContratoFilaService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               ContratoRepository contratoRepository, AgenteRepository agenteRepository,
+                               VersoesColecoes versoesColecoes,
+                               @Value("${aluguel.fila.lease-ms:900000}") long leaseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.contratoRepository = contratoRepository;
+        this.agenteRepository = agenteRepository;
+        this.versoesColecoes = versoesColecoes;
+        this.lease = Duration.ofMillis(leaseMs);
+    }
+
+    public List<ContratoResumo> reivindicar(String emailAgente, int quantidade) {
+        if (quantidade <= 0 || quantidade > MAXIMO_POR_REIVINDICACAO) {
+            throw new IllegalArgumentException("Quantidade deve estar entre 1 e " + MAXIMO_POR_REIVINDICACAO);
+        }
+        Agente agente = analista(emailAgente)
+                .orElseThrow(() -> new RuntimeException("Apenas agentes ativos e credenciados podem analisar pedidos"));
+
+        List<Long> reivindicados = new ArrayList<>(quantidade);
+        for (int rodada = 0; rodada < MAXIMO_RODADAS && reivindicados.size() < quantidade; rodada++) {
+            Instant agora = Instant.now();
+            // Cada agente embaralha uma janela maior que o pedido, para que agentes concorrentes
+            // tentem contratos diferentes em vez de disputarem sempre o início da fila.
+            List<Long> candidatos = new ArrayList<>(contratoRepository.findIdsPendentesLivres(
+                    agora, Limit.of((quantidade - reivindicados.size()) * FATOR_JANELA)));
+            if (candidatos.isEmpty()) {
+                break;
+            }
+            Collections.shuffle(candidatos);
+            for (int inicio = 0; inicio < candidatos.size() && reivindicados.size() < quantidade; ) {
+                int fim = Math.min(candidatos.size(), inicio + quantidade - reivindicados.size());
+                reivindicados.addAll(reivindicarPedaco(candidatos.subList(inicio, fim), agente.getId(), agora));
+                inicio = fim;
+            }
+        }
+        return reivindicados.isEmpty() ? List.of() : contratoRepository.findResumosPorIds(reivindicados);
+    }
+
+    /** Agente ativo e credenciado com o email informado, o único que pode reivindicar e decidir pedidos. */
+    public Optional<Agente> analista(String email) {
+        return agenteRepository.findByEmail(email)
+                .filter(a -> Boolean.TRUE.equals(a.getAtivo()) && Boolean.TRUE.equals(a.getCredenciado()));
+    }
+
+    private List<Long> reivindicarPedaco(List<Long> ids, Long agenteId, Instant agora) {
+        Timestamp expiraEm = Timestamp.from(agora.plus(lease));
+        Timestamp limite = Timestamp.from(agora);
+        int[] alterados = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(
+                "UPDATE contratos SET agente_analisador_id = ?, analise_expira_em = ?, versao = versao + 1 " +
+                "WHERE id = ? AND status = 'PENDENTE' AND (analise_expira_em IS NULL OR analise_expira_em < ?)",
+                ids, ids.size(), (ps, id) -> {
+                    ps.setLong(1, agenteId);
+                    ps.setTimestamp(2, expiraEm);
+                    ps.setLong(3, id);
+                    ps.setTimestamp(4, limite);
+                })[0]);
+
+        List<Long> reivindicados = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (alterados[i] > 0) {
+                reivindicados.add(ids.get(i));
+            }
+        }
+        if (!reivindicados.isEmpty()) {
+            versoesColecoes.alterada(VersoesColecoes.CONTRATOS);
+        }
+        return reivindicados;
+    }
+}
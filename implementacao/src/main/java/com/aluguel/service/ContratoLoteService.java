@@ -0,0 +1,128 @@
+package com.aluguel.service;
+
+import com.aluguel.dto.ResultadoTransicao;
+import com.aluguel.model.Contrato;
+import com.aluguel.model.Contrato.StatusContrato;
+import com.aluguel.repository.ContratoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Transições de status em massa. Cada pedaço de até {@code aluguel.lote.tamanho} contratos
+ * roda numa transação própria, com os UPDATEs condicionais enviados em lote pelo JDBC. IDs
+ * repetidos são considerados uma vez só, com um resultado por ID na ordem da primeira ocorrência.
+ */
+@Service
+public class ContratoLoteService {
+
+    private static final Set<StatusContrato> DESTINOS_EM_LOTE =
+            EnumSet.of(StatusContrato.APROVADO, StatusContrato.REJEITADO, StatusContrato.FINALIZADO);
+
+    /** Destinos que decidem um pedido: só valem para o agente que o reivindicou. */
+    private static final Set<StatusContrato> DECISOES = EnumSet.of(StatusContrato.APROVADO, StatusContrato.REJEITADO);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ContratoRepository contratoRepository;
+    private final CalendarioOcupacaoService calendarioOcupacaoService;
+    private final OutboxContrato outboxContrato;
+    private final VersoesColecoes versoesColecoes;
+    private final int tamanhoLote;
+
+    public ContratoLoteService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               ContratoRepository contratoRepository, CalendarioOcupacaoService calendarioOcupacaoService,
+                               OutboxContrato outboxContrato, VersoesColecoes versoesColecoes,
+                               @Value("${aluguel.lote.tamanho:500}") int tamanhoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.contratoRepository = contratoRepository;
+        this.calendarioOcupacaoService = calendarioOcupacaoService;
+        this.outboxContrato = outboxContrato;
+        this.versoesColecoes = versoesColecoes;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    public List<ResultadoTransicao> transitar(List<Long> ids, StatusContrato destino) {
+        return transitar(ids, destino, null);
+    }
+
+    /**
+     * Como {@link #transitar(List, StatusContrato)}; aprovações e rejeições exigem o agente, e só
+     * alteram os pedidos reivindicados por ele.
+     */
+    public List<ResultadoTransicao> transitar(List<Long> ids, StatusContrato destino, Long agenteId) {
+        if (!DESTINOS_EM_LOTE.contains(destino)) {
+            throw new RuntimeException("Status de destino não suportado em lote: " + destino);
+        }
+        if (DECISOES.contains(destino) && agenteId == null) {
+            throw new RuntimeException("Aprovação e rejeição em lote exigem o agente analisador");
+        }
+
+        List<Long> distintos = List.copyOf(new LinkedHashSet<>(ids));
+        List<ResultadoTransicao> resultados = new ArrayList<>(distintos.size());
+        for (int inicio = 0; inicio < distintos.size(); inicio += tamanhoLote) {
+            List<Long> pedaco = distintos.subList(inicio, Math.min(distintos.size(), inicio + tamanhoLote));
+            resultados.addAll(transactionTemplate.execute(status -> transitarPedaco(pedaco, destino, agenteId)));
+        }
+        return resultados;
+    }
+
+    private List<ResultadoTransicao> transitarPedaco(List<Long> ids, StatusContrato destino, Long agenteId) {
+        String origens = destino.origensPermitidas().stream()
+                .map(origem -> "'" + origem.name() + "'")
+                .collect(Collectors.joining(", "));
+        boolean decisao = DECISOES.contains(destino);
+        int[] alterados = jdbcTemplate.batchUpdate(
+                "UPDATE contratos SET status_anterior = status, status = ?, versao = versao + 1 WHERE id = ? AND status IN (" + origens + ")" +
+                (decisao ? " AND agente_analisador_id = ?" : ""),
+                ids, ids.size(), (ps, id) -> {
+                    ps.setString(1, destino.name());
+                    ps.setLong(2, id);
+                    if (decisao) {
+                        ps.setLong(3, agenteId);
+                    }
+                })[0];
+
+        List<Long> transitados = new ArrayList<>();
+        List<Long> recusados = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            (alterados[i] > 0 ? transitados : recusados).add(ids.get(i));
+        }
+
+        // Todos os destinos aceitos em lote têm uma única origem permitida.
+        outboxContrato.registrar(transitados, destino.origensPermitidas().get(0), destino);
+        if (!transitados.isEmpty()) {
+            versoesColecoes.alterada(VersoesColecoes.CONTRATOS);
+        }
+        if (!Contrato.STATUS_QUE_RESERVAM.contains(destino)) {
+            transitados.forEach(calendarioOcupacaoService::liberar);
+        }
+
+        Set<Long> existentes = recusados.isEmpty()
+                ? Set.of()
+                : new HashSet<>(contratoRepository.findIdsExistentes(recusados));
+        List<ResultadoTransicao> resultados = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (alterados[i] > 0) {
+                resultados.add(new ResultadoTransicao(id, 200, "Contrato alterado para " + destino));
+            } else if (existentes.contains(id)) {
+                resultados.add(new ResultadoTransicao(id, 409, "Transição inválida: contrato " + id + " não pode passar para " + destino));
+            } else {
+                resultados.add(new ResultadoTransicao(id, 404, "Contrato não encontrado com ID: " + id));
+            }
+        }
+        return resultados;
+    }
+}
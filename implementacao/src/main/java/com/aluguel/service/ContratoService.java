@@ -1,15 +1,19 @@
 package com.aluguel.service;
 
+import com.aluguel.dto.ContratoResumo;
+import com.aluguel.dto.ResultadoTransicao;
 import com.aluguel.model.Contrato;
 import com.aluguel.model.Contrato.StatusContrato;
 import com.aluguel.model.Contrato.TipoContrato;
 import com.aluguel.model.Automovel;
 import com.aluguel.model.Usuario;
 import com.aluguel.repository.ContratoRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,34 +24,84 @@ public class ContratoService {
     private final ContratoRepository contratoRepository;
     private final AutomovelService automovelService;
     private final UsuarioService usuarioService;
-
-    public ContratoService(ContratoRepository contratoRepository, AutomovelService automovelService, UsuarioService usuarioService) {
+    private final CalendarioOcupacaoService calendarioOcupacaoService;
+    private final TravaAutomovel travaAutomovel;
+    private final OutboxContrato outboxContrato;
+    private final VersoesColecoes versoesColecoes;
+
+    public ContratoService(ContratoRepository contratoRepository, AutomovelService automovelService, UsuarioService usuarioService,
+                           CalendarioOcupacaoService calendarioOcupacaoService, TravaAutomovel travaAutomovel,
+                           OutboxContrato outboxContrato, VersoesColecoes versoesColecoes) {
         this.contratoRepository = contratoRepository;
         this.automovelService = automovelService;
         this.usuarioService = usuarioService;
+        this.calendarioOcupacaoService = calendarioOcupacaoService;
+        this.travaAutomovel = travaAutomovel;
+        this.outboxContrato = outboxContrato;
+        this.versoesColecoes = versoesColecoes;
     }
 
-    public List<Contrato> listarTodos() {
-        return contratoRepository.findAll();
+    public List<ContratoResumo> listarTodos(Long after, int limite) {
+        return contratoRepository.findResumos(after, Limit.of(limite));
     }
 
     public Optional<Contrato> buscarPorId(Long id) {
         return contratoRepository.findById(id);
     }
 
-    public List<Contrato> listarPorStatus(StatusContrato status) {
-        return contratoRepository.findByStatus(status);
+    public List<ContratoResumo> listarPorStatus(StatusContrato status, Long after, int limite) {
+        return contratoRepository.findResumosPorStatus(status, after, Limit.of(limite));
     }
 
 
-    public List<Contrato> listarPedidosPendentes() {
-        return contratoRepository.findPedidosPendentes();
+    public List<ContratoResumo> listarPedidosPendentes(Long after, int limite) {
+        return listarPorStatus(StatusContrato.PENDENTE, after, limite);
     }
 
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Contrato criarPedidoAluguel(Contrato contrato) {
-        Automovel automovel = automovelService.buscarPorId(contrato.getAutomovel().getId())
-                .orElseThrow(() -> new RuntimeException("Automóvel não encontrado com ID: " + contrato.getAutomovel().getId()));
+        return travaAutomovel.executar(contrato.getAutomovel().getId(), () -> registrarPedido(contrato));
+    }
+
+    /**
+     * Registra vários pedidos numa única transação (group commit), com todos os automóveis envolvidos
+     * travados. A recusa de um pedido não afeta os demais; se a transação do grupo falhar como um todo,
+     * cada pedido é refeito isoladamente por {@link #criarPedidoAluguel(Contrato)}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ResultadoTransicao> criarPedidosEmGrupo(List<Contrato> contratos) {
+        List<Long> automovelIds = contratos.stream().map(contrato -> contrato.getAutomovel().getId()).toList();
+        try {
+            return travaAutomovel.executar(automovelIds, () -> {
+                List<ResultadoTransicao> resultados = new ArrayList<>(contratos.size());
+                for (Contrato contrato : contratos) {
+                    try {
+                        resultados.add(new ResultadoTransicao(registrarPedido(contrato).getId(), 201, "Pedido criado"));
+                    } catch (RuntimeException e) {
+                        resultados.add(new ResultadoTransicao(null, 400, e.getMessage()));
+                    }
+                }
+                return resultados;
+            });
+        } catch (RuntimeException falhaDoGrupo) {
+            List<ResultadoTransicao> resultados = new ArrayList<>(contratos.size());
+            for (Contrato contrato : contratos) {
+                contrato.setId(null);
+                contrato.setVersao(null);
+                try {
+                    resultados.add(new ResultadoTransicao(criarPedidoAluguel(contrato).getId(), 201, "Pedido criado"));
+                } catch (RuntimeException e) {
+                    resultados.add(new ResultadoTransicao(null, 400, e.getMessage()));
+                }
+            }
+            return resultados;
+        }
+    }
+
+    private Contrato registrarPedido(Contrato contrato) {
+        Automovel automovel = automovelService.buscarParaEscrita(contrato.getAutomovel().getId())
+                .orElseThrow(() -> new NaoEncontradoException("Automóvel não encontrado com ID: " + contrato.getAutomovel().getId()));
 
         Usuario usuario = usuarioService.buscarPorId(contrato.getUsuario().getId())
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado com ID: " + contrato.getUsuario().getId()));
@@ -56,13 +110,9 @@ public class ContratoService {
             throw new RuntimeException("Automóvel não está disponível para locação");
         }
 
-        List<Contrato> contratosAtivos = contratoRepository.findByStatus(StatusContrato.ATIVO);
-        for (Contrato contratoAtivo : contratosAtivos) {
-            if (contratoAtivo.getAutomovel().getId().equals(automovel.getId()) &&
-                datasConflitantes(contrato.getDataInicio(), contrato.getDataFim(),
-                    contratoAtivo.getDataInicio(), contratoAtivo.getDataFim())) {
-                throw new RuntimeException("Já existe um contrato ativo para este automóvel no período especificado");
-            }
+        if (contratoRepository.existsConflito(automovel.getId(), Contrato.STATUS_QUE_RESERVAM,
+                contrato.getDataInicio(), contrato.getDataFim())) {
+            throw new RuntimeException("Já existe um contrato para este automóvel no período especificado");
         }
 
         contrato.setAutomovel(automovel);
@@ -70,101 +120,119 @@ public class ContratoService {
         contrato.setStatus(StatusContrato.PENDENTE);
         contrato.setTipoContrato(TipoContrato.ALUGUEL);
 
-        return contratoRepository.save(contrato);
+        // O outbox copia o automóvel do contrato por SQL: o INSERT do contrato precisa ir antes.
+        Contrato contratoSalvo = contratoRepository.saveAndFlush(contrato);
+        outboxContrato.registrar(contratoSalvo.getId(), null, StatusContrato.PENDENTE);
+        versoesColecoes.alterada(VersoesColecoes.CONTRATOS);
+        calendarioOcupacaoService.reservar(contratoSalvo.getId(), automovel.getId(),
+                contratoSalvo.getDataInicio(), contratoSalvo.getDataFim());
+        return contratoSalvo;
     }
 
+    /**
+     * Atualiza datas, observações e tipo. O status só muda por {@link #transitar}, que respeita as
+     * origens permitidas e registra o evento; um status diferente do atual é recusado. Roda com o
+     * automóvel travado, como a criação do pedido, para que novas datas não caiam sobre outra reserva.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Contrato atualizarContrato(Long id, Contrato contratoAtualizado) {
-        return contratoRepository.findById(id)
-                .map(contrato -> {
-                    contrato.setDataInicio(contratoAtualizado.getDataInicio());
-                    contrato.setDataFim(contratoAtualizado.getDataFim());
-                    contrato.setObservacoes(contratoAtualizado.getObservacoes());
-                    contrato.setStatus(contratoAtualizado.getStatus());
-                    contrato.setTipoContrato(contratoAtualizado.getTipoContrato());
-                    return contratoRepository.save(contrato);
-                })
-                .orElseThrow(() -> new RuntimeException("Contrato não encontrado com ID: " + id));
-    }
-
-    public void aprovarPedido(Long id) {
-        contratoRepository.findById(id)
-                .ifPresentOrElse(
-                        contrato -> {
-                            contrato.setStatus(StatusContrato.APROVADO);
-                            contratoRepository.save(contrato);
-                        },
-                        () -> {
-                            throw new RuntimeException("Contrato não encontrado com ID: " + id);
-                        }
-                );
-    }
-
-    public void rejeitarPedido(Long id) {
-        contratoRepository.findById(id)
-                .ifPresentOrElse(
-                        contrato -> {
-                            contrato.setStatus(StatusContrato.REJEITADO);
-                            contratoRepository.save(contrato);
-                        },
-                        () -> {
-                            throw new RuntimeException("Contrato não encontrado com ID: " + id);
-                        }
-                );
+        Long automovelId = contratoRepository.findAutomovelIdById(id)
+                .orElseThrow(() -> new NaoEncontradoException("Contrato não encontrado com ID: " + id));
+
+        return travaAutomovel.executar(automovelId, () -> aplicarAtualizacao(id, contratoAtualizado));
+    }
+
+    private Contrato aplicarAtualizacao(Long id, Contrato contratoAtualizado) {
+        Contrato contrato = contratoRepository.findById(id)
+                .orElseThrow(() -> new NaoEncontradoException("Contrato não encontrado com ID: " + id));
+        if (contratoAtualizado.getStatus() != contrato.getStatus()) {
+            throw new ConflitoException("Status do contrato " + id + " só pode ser alterado pelos endpoints de transição");
+        }
+        boolean reserva = Contrato.STATUS_QUE_RESERVAM.contains(contrato.getStatus());
+        if (reserva && contratoRepository.existsConflitoExceto(contrato.getAutomovel().getId(), Contrato.STATUS_QUE_RESERVAM,
+                contratoAtualizado.getDataInicio(), contratoAtualizado.getDataFim(), id)) {
+            throw new ConflitoException("Já existe um contrato para este automóvel no período especificado");
+        }
+        contrato.setDataInicio(contratoAtualizado.getDataInicio());
+        contrato.setDataFim(contratoAtualizado.getDataFim());
+        contrato.setObservacoes(contratoAtualizado.getObservacoes());
+        contrato.setTipoContrato(contratoAtualizado.getTipoContrato());
+        Contrato contratoSalvo = contratoRepository.save(contrato);
+        versoesColecoes.alterada(VersoesColecoes.CONTRATOS);
+
+        if (reserva) {
+            calendarioOcupacaoService.reservar(id, contratoSalvo.getAutomovel().getId(),
+                    contratoSalvo.getDataInicio(), contratoSalvo.getDataFim());
+        } else {
+            calendarioOcupacaoService.liberar(id);
+        }
+        return contratoSalvo;
     }
 
+    /** Aprova um pedido reivindicado pelo agente; pedidos de outro agente ou não reivindicados são recusados. */
+    public void aprovarPedido(Long id, Long agenteId) {
+        decidir(id, StatusContrato.APROVADO, agenteId);
+    }
+
+    /** Rejeita um pedido reivindicado pelo agente; pedidos de outro agente ou não reivindicados são recusados. */
+    public void rejeitarPedido(Long id, Long agenteId) {
+        decidir(id, StatusContrato.REJEITADO, agenteId);
+        calendarioOcupacaoService.liberar(id);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void ativarContrato(Long id) {
-        contratoRepository.findById(id)
-                .ifPresentOrElse(
-                        contrato -> {
-                            contrato.setStatus(StatusContrato.ATIVO);
-                            contratoRepository.save(contrato);
-                            
-                            automovelService.marcarComoIndisponivel(contrato.getAutomovel().getId());
-                        },
-                        () -> {
-                            throw new RuntimeException("Contrato não encontrado com ID: " + id);
-                        }
-                );
+        Long automovelId = contratoRepository.findAutomovelIdById(id)
+                .orElseThrow(() -> new NaoEncontradoException("Contrato não encontrado com ID: " + id));
+
+        travaAutomovel.executar(automovelId, () -> transitar(id, StatusContrato.ATIVO));
     }
 
     public void finalizarContrato(Long id) {
-        contratoRepository.findById(id)
-                .ifPresentOrElse(
-                        contrato -> {
-                            contrato.setStatus(StatusContrato.FINALIZADO);
-                            contratoRepository.save(contrato);
-                            
-                            automovelService.marcarComoDisponivel(contrato.getAutomovel().getId());
-                        },
-                        () -> {
-                            throw new RuntimeException("Contrato não encontrado com ID: " + id);
-                        }
-                );
+        transitar(id, StatusContrato.FINALIZADO);
+        calendarioOcupacaoService.liberar(id);
     }
 
     public void cancelarContrato(Long id) {
-        contratoRepository.findById(id)
-                .ifPresentOrElse(
-                        contrato -> {
-                            contrato.setStatus(StatusContrato.CANCELADO);
-                            contratoRepository.save(contrato);
-                            
-                            automovelService.marcarComoDisponivel(contrato.getAutomovel().getId());
-                        },
-                        () -> {
-                            throw new RuntimeException("Contrato não encontrado com ID: " + id);
-                        }
-                );
+        transitar(id, StatusContrato.CANCELADO);
+        calendarioOcupacaoService.liberar(id);
     }
 
     public void excluirContrato(Long id) {
         if (!contratoRepository.existsById(id)) {
-            throw new RuntimeException("Contrato não encontrado com ID: " + id);
+            throw new NaoEncontradoException("Contrato não encontrado com ID: " + id);
         }
         contratoRepository.deleteById(id);
+        versoesColecoes.alterada(VersoesColecoes.CONTRATOS);
+        calendarioOcupacaoService.liberar(id);
     }
 
-    private boolean datasConflitantes(LocalDate inicio1, LocalDate fim1, LocalDate inicio2, LocalDate fim2) {
-        return !(fim1.isBefore(inicio2) || inicio1.isAfter(fim2));
+    /**
+     * Um único UPDATE condicional a todas as origens permitidas; o status de onde o contrato saiu
+     * fica gravado no próprio contrato e o evento o copia de lá. Os efeitos colaterais ficam a cargo
+     * dos assinantes do outbox.
+     */
+    private void transitar(Long id, StatusContrato destino) {
+        if (contratoRepository.transitar(id, destino, destino.origensPermitidas()) == 1) {
+            outboxContrato.registrarTransicao(id);
+            versoesColecoes.alterada(VersoesColecoes.CONTRATOS);
+            return;
+        }
+        if (!contratoRepository.existsById(id)) {
+            throw new NaoEncontradoException("Contrato não encontrado com ID: " + id);
+        }
+        throw new ConflitoException("Transição inválida: contrato " + id + " não pode passar para " + destino);
+    }
+
+    private void decidir(Long id, StatusContrato destino, Long agenteId) {
+        if (contratoRepository.decidir(id, destino, agenteId) == 1) {
+            outboxContrato.registrarTransicao(id);
+            versoesColecoes.alterada(VersoesColecoes.CONTRATOS);
+            return;
+        }
+        if (!contratoRepository.existsById(id)) {
+            throw new NaoEncontradoException("Contrato não encontrado com ID: " + id);
+        }
+        throw new ConflitoException("Contrato " + id + " não está pendente e reivindicado pelo agente " + agenteId);
     }
 }
@@ -0,0 +1,292 @@
+package com.aluguel.service;
+
+import com.aluguel.model.Contrato.StatusContrato;
+import com.aluguel.model.EventoContrato;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Entrega os eventos do outbox aos {@link AssinanteEventosContrato}. Uma thread de relay lê as
+ * linhas gravadas por esta instância e as coloca num {@link AnelEventos}; a thread de despacho
+ * drena o anel em lotes e entrega cada lote a todos os assinantes. Só as linhas que todos
+ * receberam são apagadas; as demais guardam os assinantes que faltam e voltam com espera
+ * exponencial, sem limite de tentativas.
+ * <p>
+ * O relay também renova a presença da instância em {@code instancias_despacho}. Linhas de uma
+ * origem cuja presença não é renovada há {@code aluguel.eventos.orfaos-ms} são adotadas por outra
+ * instância; uma instância viva, ainda que lenta, nunca tem as suas adotadas. A cada renovação,
+ * feita a cada {@code aluguel.eventos.presenca-ms}, a presença leva também os contadores de
+ * {@link VersoesColecoes}, e os das demais instâncias vivas são trazidos de volta.
+ */
+@Component
+public class DespachanteEventosContrato {
+
+    private static final Logger log = LoggerFactory.getLogger(DespachanteEventosContrato.class);
+
+    private static final int TENTATIVAS_POR_ASSINANTE = 3;
+
+    private static final RowMapper<EventoContrato> MAPEADOR = (rs, linha) -> {
+        String anterior = rs.getString("status_anterior");
+        EventoContrato evento = new EventoContrato(rs.getLong("id"), rs.getLong("contrato_id"), rs.getLong("automovel_id"),
+                anterior == null ? null : StatusContrato.valueOf(anterior),
+                StatusContrato.valueOf(rs.getString("status")),
+                rs.getTimestamp("ocorrido_em").toInstant());
+        evento.setTentativas(rs.getInt("tentativas"));
+        evento.setPendentes(rs.getString("pendentes"));
+        return evento;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<AssinanteEventosContrato> assinantes;
+    private final VersoesColecoes versoesColecoes;
+    private final AnelEventos<EventoContrato> anel;
+    private final Set<Long> emTransito = ConcurrentHashMap.newKeySet();
+    private final String origem;
+    private final int tamanhoLote;
+    private final long intervaloNanos;
+    private final Duration prazoOrfaos;
+    private final long presencaNanos;
+    private final Duration esperaMaxima;
+
+    private volatile boolean ativo;
+    private Thread relay;
+    private Thread despacho;
+
+    public DespachanteEventosContrato(JdbcTemplate jdbcTemplate, List<AssinanteEventosContrato> assinantes,
+                                      VersoesColecoes versoesColecoes,
+                                      @Value("${spring.application.name:aluguel}") String nomeAplicacao,
+                                      @Value("${aluguel.eventos.capacidade:1024}") int capacidade,
+                                      @Value("${aluguel.eventos.lote:256}") int tamanhoLote,
+                                      @Value("${aluguel.eventos.intervalo-ms:1000}") long intervaloMs,
+                                      @Value("${aluguel.eventos.orfaos-ms:60000}") long orfaosMs,
+                                      @Value("${aluguel.eventos.presenca-ms:5000}") long presencaMs,
+                                      @Value("${aluguel.eventos.espera-maxima-ms:300000}") long esperaMaximaMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.assinantes = assinantes;
+        this.versoesColecoes = versoesColecoes;
+        this.anel = new AnelEventos<>(capacidade);
+        this.origem = nomeAplicacao + "-" + UUID.randomUUID();
+        this.tamanhoLote = tamanhoLote;
+        this.intervaloNanos = TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+        this.prazoOrfaos = Duration.ofMillis(orfaosMs);
+        this.presencaNanos = TimeUnit.MILLISECONDS.toNanos(Math.min(presencaMs, orfaosMs / 4));
+        this.esperaMaxima = Duration.ofMillis(esperaMaximaMs);
+    }
+
+    String origem() {
+        return origem;
+    }
+
+    /** Avisa o relay de que há eventos novos, sem esperar o próximo ciclo de leitura. */
+    void acordar() {
+        Thread alvo = relay;
+        if (alvo != null) {
+            LockSupport.unpark(alvo);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        renovarPresenca();
+        ativo = true;
+        despacho = new Thread(this::despachar, "eventos-contrato-despacho");
+        relay = new Thread(this::transmitir, "eventos-contrato-relay");
+        despacho.setDaemon(true);
+        relay.setDaemon(true);
+        despacho.start();
+        relay.start();
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        ativo = false;
+        for (Thread thread : new Thread[] {relay, despacho}) {
+            if (thread != null) {
+                LockSupport.unpark(thread);
+                thread.join(TimeUnit.NANOSECONDS.toMillis(intervaloNanos) * 5);
+            }
+        }
+        try {
+            // Sem a presença, o que sobrou desta instância pode ser adotado assim que ficar velho.
+            jdbcTemplate.update("DELETE FROM instancias_despacho WHERE origem = ?", origem);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao remover a presença do despachante {}; ela expirará sozinha: {}", origem, e.getMessage());
+        }
+    }
+
+    private void transmitir() {
+        long proximaPresenca = System.nanoTime();
+        long proximaAdocao = System.nanoTime();
+        while (ativo) {
+            try {
+                if (System.nanoTime() - proximaPresenca >= 0) {
+                    renovarPresenca();
+                    proximaPresenca = System.nanoTime() + presencaNanos;
+                }
+                if (System.nanoTime() - proximaAdocao >= 0) {
+                    adotarOrfaos();
+                    proximaAdocao = System.nanoTime() + prazoOrfaos.toNanos() / 4;
+                }
+                if (enfileirarPendentes() == 0) {
+                    LockSupport.parkNanos(this, Math.min(intervaloNanos, presencaNanos));
+                }
+            } catch (RuntimeException e) {
+                log.error("Falha ao ler o outbox de contratos", e);
+                LockSupport.parkNanos(this, intervaloNanos);
+            }
+        }
+    }
+
+    private int enfileirarPendentes() {
+        List<EventoContrato> pendentes = jdbcTemplate.query(
+                "SELECT id, contrato_id, automovel_id, status_anterior, status, ocorrido_em, tentativas, pendentes " +
+                "FROM outbox_contrato WHERE origem = ? AND (proxima_tentativa IS NULL OR proxima_tentativa <= ?) " +
+                "ORDER BY id LIMIT ?",
+                MAPEADOR, origem, Timestamp.from(Instant.now()), tamanhoLote + emTransito.size());
+        int enfileirados = 0;
+        for (EventoContrato evento : pendentes) {
+            if (emTransito.contains(evento.getId())) {
+                continue;
+            }
+            emTransito.add(evento.getId());
+            if (!anel.oferecer(evento)) {
+                emTransito.remove(evento.getId());
+                break;
+            }
+            enfileirados++;
+        }
+        if (enfileirados > 0) {
+            LockSupport.unpark(despacho);
+        }
+        return enfileirados;
+    }
+
+    private void renovarPresenca() {
+        Instant agora = Instant.now();
+        String versoes = versoesColecoes.publicadas();
+        if (jdbcTemplate.update("UPDATE instancias_despacho SET renovado_em = ?, versoes = ? WHERE origem = ?",
+                Timestamp.from(agora), versoes, origem) == 0) {
+            jdbcTemplate.update("INSERT INTO instancias_despacho (origem, renovado_em, versoes) VALUES (?, ?, ?)",
+                    origem, Timestamp.from(agora), versoes);
+        }
+        versoesColecoes.incorporar(jdbcTemplate.queryForList(
+                "SELECT versoes FROM instancias_despacho WHERE origem <> ? AND renovado_em >= ? AND versoes IS NOT NULL",
+                String.class, origem, Timestamp.from(agora.minus(prazoOrfaos))));
+    }
+
+    private void adotarOrfaos() {
+        Instant agora = Instant.now();
+        Timestamp limite = Timestamp.from(agora.minus(prazoOrfaos));
+        int adotados = jdbcTemplate.update(
+                "UPDATE outbox_contrato SET origem = ?, adotado_em = ? " +
+                "WHERE origem <> ? AND COALESCE(adotado_em, ocorrido_em) < ? " +
+                "AND origem NOT IN (SELECT origem FROM instancias_despacho WHERE renovado_em >= ?)",
+                origem, Timestamp.from(agora), origem, limite, limite);
+        if (adotados > 0) {
+            log.warn("{} evento(s) de contrato adotados de instâncias inativas", adotados);
+        }
+        jdbcTemplate.update("DELETE FROM instancias_despacho i WHERE renovado_em < ? " +
+                "AND NOT EXISTS (SELECT 1 FROM outbox_contrato o WHERE o.origem = i.origem)", limite);
+    }
+
+    private void despachar() {
+        List<EventoContrato> lote = new ArrayList<>(tamanhoLote);
+        while (ativo || !anel.vazio()) {
+            lote.clear();
+            if (anel.drenar(lote, tamanhoLote) == 0) {
+                LockSupport.parkNanos(this, intervaloNanos);
+                continue;
+            }
+            Map<Long, Set<String>> falhas = new HashMap<>();
+            for (AssinanteEventosContrato assinante : assinantes) {
+                String nome = nome(assinante);
+                List<EventoContrato> destinados = lote.stream().filter(evento -> aguarda(evento, nome)).toList();
+                if (!destinados.isEmpty() && !entregar(assinante, nome, destinados)) {
+                    destinados.forEach(evento -> falhas.computeIfAbsent(evento.getId(), id -> new TreeSet<>()).add(nome));
+                }
+            }
+            concluir(lote, falhas);
+            lote.forEach(evento -> emTransito.remove(evento.getId()));
+        }
+    }
+
+    /** Apaga o que todos os assinantes receberam e reagenda o resto só para os assinantes que falharam. */
+    private void concluir(List<EventoContrato> lote, Map<Long, Set<String>> falhas) {
+        List<EventoContrato> entregues = lote.stream().filter(evento -> !falhas.containsKey(evento.getId())).toList();
+        List<EventoContrato> adiados = lote.stream().filter(evento -> falhas.containsKey(evento.getId())).toList();
+        try {
+            if (!entregues.isEmpty()) {
+                jdbcTemplate.batchUpdate("DELETE FROM outbox_contrato WHERE id = ?",
+                        entregues, entregues.size(), (ps, evento) -> ps.setLong(1, evento.getId()));
+            }
+            if (!adiados.isEmpty()) {
+                Instant agora = Instant.now();
+                jdbcTemplate.batchUpdate(
+                        "UPDATE outbox_contrato SET tentativas = ?, proxima_tentativa = ?, pendentes = ? WHERE id = ?",
+                        adiados, adiados.size(), (ps, evento) -> {
+                            int tentativas = evento.getTentativas() + 1;
+                            ps.setInt(1, tentativas);
+                            ps.setTimestamp(2, Timestamp.from(agora.plus(espera(tentativas))));
+                            ps.setString(3, String.join(",", falhas.get(evento.getId())));
+                            ps.setLong(4, evento.getId());
+                        });
+            }
+        } catch (RuntimeException e) {
+            log.error("Falha ao concluir {} evento(s) no outbox; serão entregues novamente", lote.size(), e);
+        }
+    }
+
+    /** Espera antes da próxima entrega: dobra a cada tentativa, a partir do intervalo do relay. */
+    private Duration espera(int tentativas) {
+        long intervaloMs = TimeUnit.NANOSECONDS.toMillis(intervaloNanos);
+        long esperaMs = intervaloMs << Math.min(tentativas - 1, 20);
+        return esperaMs > 0 && esperaMs < esperaMaxima.toMillis() ? Duration.ofMillis(esperaMs) : esperaMaxima;
+    }
+
+    private boolean entregar(AssinanteEventosContrato assinante, String nome, List<EventoContrato> eventos) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                assinante.receber(eventos);
+                return true;
+            } catch (RuntimeException e) {
+                if (tentativa == TENTATIVAS_POR_ASSINANTE) {
+                    log.error("{} falhou ao receber {} evento(s) após {} tentativas; nova entrega agendada",
+                            nome, eventos.size(), tentativa, e);
+                    return false;
+                }
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100L * tentativa));
+            }
+        }
+    }
+
+    private static String nome(AssinanteEventosContrato assinante) {
+        return ClassUtils.getUserClass(assinante).getSimpleName();
+    }
+
+    /** Eventos novos vão para todos os assinantes; reentregas, só para os que ainda não receberam. */
+    private static boolean aguarda(EventoContrato evento, String assinante) {
+        return evento.getPendentes() == null || List.of(evento.getPendentes().split(",")).contains(assinante);
+    }
+}
@@ -0,0 +1,79 @@
+package com.aluguel.service;
+
+import com.aluguel.model.Contrato.StatusContrato;
+import com.aluguel.model.EventoContrato;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Mantém {@code Automovel.disponivel} a partir dos eventos de contrato: quando um contrato é
+ * ativado ou deixa de estar ativo, o automóvel fica disponível se e só se não tiver nenhum contrato
+ * ativo. O valor vem do estado atual dos contratos, não do evento, então reentregas e eventos fora
+ * de ordem não desfazem uma mudança mais nova.
+ */
+@Component
+public class DisponibilidadeAutomoveis implements AssinanteEventosContrato {
+
+    private static final String SEM_CONTRATO_ATIVO =
+            "CASE WHEN EXISTS (SELECT 1 FROM contratos c WHERE c.automovel_id = a.id AND c.status = ?) THEN FALSE ELSE TRUE END";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheAutomoveis cacheAutomoveis;
+    private final VersoesColecoes versoesColecoes;
+    private final AlteracoesCatalogoService alteracoesCatalogoService;
+
+    public DisponibilidadeAutomoveis(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                     CacheAutomoveis cacheAutomoveis, VersoesColecoes versoesColecoes,
+                                     AlteracoesCatalogoService alteracoesCatalogoService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheAutomoveis = cacheAutomoveis;
+        this.versoesColecoes = versoesColecoes;
+        this.alteracoesCatalogoService = alteracoesCatalogoService;
+    }
+
+    @Override
+    public void receber(List<EventoContrato> eventos) {
+        Set<Long> afetados = new TreeSet<>();
+        for (EventoContrato evento : eventos) {
+            if (evento.getStatus() == StatusContrato.ATIVO || evento.getStatusAnterior() == StatusContrato.ATIVO) {
+                afetados.add(evento.getAutomovelId());
+            }
+        }
+        if (afetados.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(afetados);
+        transactionTemplate.executeWithoutResult(status -> {
+            int[] alterados = jdbcTemplate.batchUpdate(
+                    "UPDATE automoveis a SET disponivel = " + SEM_CONTRATO_ATIVO + ", versao = versao + 1 " +
+                    "WHERE a.id = ? AND a.disponivel <> " + SEM_CONTRATO_ATIVO,
+                    ids, ids.size(), (ps, id) -> {
+                        ps.setString(1, StatusContrato.ATIVO.name());
+                        ps.setLong(2, id);
+                        ps.setString(3, StatusContrato.ATIVO.name());
+                    })[0];
+            List<Long> mudaram = new ArrayList<>();
+            for (int i = 0; i < ids.size(); i++) {
+                if (alterados[i] > 0) {
+                    mudaram.add(ids.get(i));
+                }
+            }
+            if (mudaram.isEmpty()) {
+                return;
+            }
+            // O feed do catálogo só recebe o que mudou, na mesma transação do UPDATE.
+            alteracoesCatalogoService.registrar(mudaram);
+            mudaram.forEach(id -> cacheAutomoveis.invalidar(id, true));
+            versoesColecoes.alterada(VersoesColecoes.AUTOMOVEIS);
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package com.aluguel.service;
+
+import com.aluguel.model.Automovel.TipoProprietario;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filtros combináveis sobre {@code automoveis}, traduzidos em condições de WHERE com parâmetros.
+ * Cada condição guarda a faceta a que pertence, para que a busca facetada possa omiti-la.
+ */
+final class FiltroAutomoveis {
+
+    private final List<Condicao> condicoes = new ArrayList<>();
+
+    FiltroAutomoveis(String marca, String modelo, Integer anoMin, Integer anoMax,
+                     TipoProprietario proprietario, Boolean disponivel) {
+        if (anoMin != null && anoMax != null && anoMin > anoMax) {
+            throw new IllegalArgumentException("anoMin deve ser menor ou igual a anoMax");
+        }
+        if (marca != null) {
+            condicoes.add(new Condicao(BuscaAutomoveisService.FACETA_MARCA, "marca = ?", marca));
+        }
+        if (modelo != null) {
+            condicoes.add(new Condicao(BuscaAutomoveisService.FACETA_MODELO, "modelo = ?", modelo));
+        }
+        if (anoMin != null) {
+            condicoes.add(new Condicao(BuscaAutomoveisService.FACETA_ANO, "ano >= ?", anoMin));
+        }
+        if (anoMax != null) {
+            condicoes.add(new Condicao(BuscaAutomoveisService.FACETA_ANO, "ano <= ?", anoMax));
+        }
+        if (proprietario != null) {
+            condicoes.add(new Condicao(BuscaAutomoveisService.FACETA_PROPRIETARIO, "proprietario = ?", proprietario.name()));
+        }
+        if (disponivel != null) {
+            condicoes.add(new Condicao(null, "disponivel = ?", disponivel));
+        }
+    }
+
+    boolean vazio() {
+        return condicoes.isEmpty();
+    }
+
+    /** Cláusula WHERE (vazia se não houver filtros), sem as condições da faceta {@code ignorar}. */
+    String where(String ignorar, List<Object> argumentos) {
+        StringBuilder where = new StringBuilder();
+        for (Condicao condicao : condicoes) {
+            if (ignorar != null && ignorar.equals(condicao.faceta)) {
+                continue;
+            }
+            where.append(where.length() == 0 ? " WHERE " : " AND ").append(condicao.sql);
+            argumentos.add(condicao.valor);
+        }
+        return where.toString();
+    }
+
+    private static final class Condicao {
+
+        private final String faceta;
+        private final String sql;
+        private final Object valor;
+
+        private Condicao(String faceta, String sql, Object valor) {
+            this.faceta = faceta;
+            this.sql = sql;
+            this.valor = valor;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.aluguel.service;
+
+import com.aluguel.dto.ResultadoTransicao;
+import com.aluguel.model.Contrato.StatusContrato;
+import com.aluguel.repository.ContratoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Finaliza periodicamente os contratos ativos cuja data de fim já passou. Os contratos são
+ * lidos em páginas pelo índice (status, data_fim) e finalizados pelo {@link ContratoLoteService};
+ * como cada finalização é um UPDATE condicional, várias instâncias podem rodar o job ao mesmo
+ * tempo sem finalizar o mesmo contrato duas vezes. A liberação dos automóveis chega pelos
+ * eventos de contrato, em lote.
+ */
+@Service
+public class FinalizacaoAutomaticaService {
+
+    private static final Logger log = LoggerFactory.getLogger(FinalizacaoAutomaticaService.class);
+
+    private final ContratoRepository contratoRepository;
+    private final ContratoLoteService contratoLoteService;
+    private final int tamanhoPagina;
+    private final Timer duracao;
+    private final Counter finalizados;
+
+    public FinalizacaoAutomaticaService(ContratoRepository contratoRepository, ContratoLoteService contratoLoteService,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${aluguel.lote.tamanho:500}") int tamanhoPagina) {
+        this.contratoRepository = contratoRepository;
+        this.contratoLoteService = contratoLoteService;
+        this.tamanhoPagina = tamanhoPagina;
+        this.duracao = Timer.builder("aluguel.contratos.finalizacao.duracao")
+                .description("Duração de cada execução da finalização automática")
+                .register(meterRegistry);
+        this.finalizados = Counter.builder("aluguel.contratos.finalizacao.finalizados")
+                .description("Contratos finalizados automaticamente")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${aluguel.finalizacao.cron:0 0 * * * *}")
+    public void executar() {
+        int total = duracao.record(this::finalizarVencidos);
+        if (total > 0) {
+            log.info("Finalização automática: {} contrato(s) vencido(s) finalizado(s)", total);
+        }
+    }
+
+    public int finalizarVencidos() {
+        LocalDate hoje = LocalDate.now();
+        int total = 0;
+        long after = 0;
+        List<Long> ids = contratoRepository.findIdsAtivosVencidos(hoje, after, Limit.of(tamanhoPagina));
+        while (!ids.isEmpty()) {
+            int finalizadosNaPagina = 0;
+            for (ResultadoTransicao resultado : contratoLoteService.transitar(ids, StatusContrato.FINALIZADO)) {
+                if (resultado.getCodigo() == 200) {
+                    finalizadosNaPagina++;
+                }
+            }
+            finalizados.increment(finalizadosNaPagina);
+            total += finalizadosNaPagina;
+            if (ids.size() < tamanhoPagina) {
+                break;
+            }
+            after = ids.get(ids.size() - 1);
+            ids = contratoRepository.findIdsAtivosVencidos(hoje, after, Limit.of(tamanhoPagina));
+        }
+        return total;
+    }
+}
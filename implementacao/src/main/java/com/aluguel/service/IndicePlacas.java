@@ -0,0 +1,294 @@
+package com.aluguel.service;
+
+import com.aluguel.dto.SugestaoPlaca;
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trie em memória das placas da frota, para a busca por placa parcial do balcão. Atende prefixos
+ * e, a partir de {@link #MINIMO_PARA_APROXIMADA} caracteres, prefixos a uma edição de distância
+ * (letra trocada, faltando ou sobrando). Placas antigas e Mercosul são equivalentes na busca:
+ * "ABC1234" também encontra "ABC1C34". As escritas de {@link AutomovelService} e da importação
+ * chegam após o commit; a árvore inteira é recarregada do banco a cada
+ * {@code aluguel.placas.recarga-ms} para incorporar escritas de outras instâncias. Placas que só
+ * diferem na pontuação caem na mesma folha, que guarda todos os automóveis com ela.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IndicePlacas {
+
+    static final int MINIMO_PARA_APROXIMADA = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+
+    private No raiz = new No();
+    private Map<Long, String> placasPorId = new HashMap<>();
+    private List<Runnable> alteracoesDuranteRecarga;
+
+    public IndicePlacas(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${aluguel.placas.recarga-ms:300000}", initialDelayString = "${aluguel.placas.recarga-ms:300000}")
+    public void recarregar() {
+        trava.writeLock().lock();
+        try {
+            alteracoesDuranteRecarga = new ArrayList<>();
+        } finally {
+            trava.writeLock().unlock();
+        }
+
+        No novaRaiz = new No();
+        Map<Long, String> novasPlacas = new HashMap<>();
+        boolean carregou = false;
+        try {
+            jdbcTemplate.query("SELECT id, placa FROM automoveis", rs -> {
+                String placa = normalizar(rs.getString(2));
+                novaRaiz.inserir(placa, 0, rs.getLong(1));
+                novasPlacas.put(rs.getLong(1), placa);
+            });
+            carregou = true;
+        } finally {
+            trava.writeLock().lock();
+            try {
+                // Escritas confirmadas durante a leitura podem não estar nela: são reaplicadas na árvore nova.
+                if (carregou) {
+                    raiz = novaRaiz;
+                    placasPorId = novasPlacas;
+                    alteracoesDuranteRecarga.forEach(Runnable::run);
+                }
+                alteracoesDuranteRecarga = null;
+            } finally {
+                trava.writeLock().unlock();
+            }
+        }
+    }
+
+    /** Inclui ou atualiza a placa do automóvel quando a transação atual for confirmada. */
+    public void registrar(Long id, String placa) {
+        AposCommit.executar(() -> alterar(() -> {
+            remover(id);
+            String normalizada = normalizar(placa);
+            raiz.inserir(normalizada, 0, id);
+            placasPorId.put(id, normalizada);
+        }));
+    }
+
+    /** Retira o automóvel do índice quando a transação atual for confirmada. */
+    public void excluir(Long id) {
+        AposCommit.executar(() -> alterar(() -> remover(id)));
+    }
+
+    /** Placas que começam por {@code consulta}, seguidas das que começam por algo a uma edição dela. */
+    public List<SugestaoPlaca> buscar(String consulta, int limite) {
+        String normalizada = normalizar(consulta);
+        if (normalizada.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um caractere da placa");
+        }
+        List<String> variantes = new ArrayList<>(List.of(normalizada));
+        String equivalente = equivalenteMercosul(normalizada);
+        if (equivalente != null) {
+            variantes.add(equivalente);
+        }
+
+        Map<Long, SugestaoPlaca> encontradas = new LinkedHashMap<>();
+        trava.readLock().lock();
+        try {
+            for (String variante : variantes) {
+                No no = raiz.descer(variante);
+                if (no != null) {
+                    no.coletar(new StringBuilder(variante), 0, encontradas, limite);
+                }
+            }
+            if (normalizada.length() >= MINIMO_PARA_APROXIMADA) {
+                for (String variante : variantes) {
+                    int[] linha = new int[variante.length() + 1];
+                    for (int i = 0; i < linha.length; i++) {
+                        linha[i] = i;
+                    }
+                    raiz.aproximar(variante, linha, new StringBuilder(), encontradas, limite);
+                }
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
+        return new ArrayList<>(encontradas.values());
+    }
+
+    private void alterar(Runnable alteracao) {
+        trava.writeLock().lock();
+        try {
+            alteracao.run();
+            if (alteracoesDuranteRecarga != null) {
+                alteracoesDuranteRecarga.add(alteracao);
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    private void remover(Long id) {
+        String anterior = placasPorId.remove(id);
+        if (anterior != null) {
+            raiz.remover(anterior, 0, id);
+        }
+    }
+
+    static String normalizar(String placa) {
+        return placa == null ? "" : placa.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]", "");
+    }
+
+    /** Troca o quinto caractere entre o formato antigo (dígito) e o Mercosul (letra de A a J). */
+    private static String equivalenteMercosul(String placa) {
+        if (placa.length() < 5) {
+            return null;
+        }
+        char quinto = placa.charAt(4);
+        char trocado;
+        if (quinto >= '0' && quinto <= '9') {
+            trocado = (char) ('A' + (quinto - '0'));
+        } else if (quinto >= 'A' && quinto <= 'J') {
+            trocado = (char) ('0' + (quinto - 'A'));
+        } else {
+            return null;
+        }
+        return placa.substring(0, 4) + trocado + placa.substring(5);
+    }
+
+    private static final class No {
+
+        private char[] chaves = new char[0];
+        private No[] filhos = new No[0];
+        private long[] automovelIds = new long[0];
+
+        No descer(String placa) {
+            No atual = this;
+            for (int i = 0; i < placa.length() && atual != null; i++) {
+                atual = atual.filho(placa.charAt(i));
+            }
+            return atual;
+        }
+
+        No filho(char chave) {
+            int posicao = Arrays.binarySearch(chaves, chave);
+            return posicao >= 0 ? filhos[posicao] : null;
+        }
+
+        void inserir(String placa, int indice, Long id) {
+            if (indice == placa.length()) {
+                int posicao = Arrays.binarySearch(automovelIds, id);
+                if (posicao < 0) {
+                    posicao = -posicao - 1;
+                    long[] novos = new long[automovelIds.length + 1];
+                    System.arraycopy(automovelIds, 0, novos, 0, posicao);
+                    novos[posicao] = id;
+                    System.arraycopy(automovelIds, posicao, novos, posicao + 1, automovelIds.length - posicao);
+                    automovelIds = novos;
+                }
+                return;
+            }
+            char chave = placa.charAt(indice);
+            int posicao = Arrays.binarySearch(chaves, chave);
+            if (posicao < 0) {
+                posicao = -posicao - 1;
+                chaves = inserirEm(chaves, posicao, chave);
+                No[] novos = new No[filhos.length + 1];
+                System.arraycopy(filhos, 0, novos, 0, posicao);
+                System.arraycopy(filhos, posicao, novos, posicao + 1, filhos.length - posicao);
+                novos[posicao] = new No();
+                filhos = novos;
+            }
+            filhos[posicao].inserir(placa, indice + 1, id);
+        }
+
+        /** Remove a placa e devolve {@code true} se este nó ficou vazio. */
+        boolean remover(String placa, int indice, Long id) {
+            if (indice == placa.length()) {
+                int posicao = Arrays.binarySearch(automovelIds, id);
+                if (posicao >= 0) {
+                    long[] novos = new long[automovelIds.length - 1];
+                    System.arraycopy(automovelIds, 0, novos, 0, posicao);
+                    System.arraycopy(automovelIds, posicao + 1, novos, posicao, automovelIds.length - posicao - 1);
+                    automovelIds = novos;
+                }
+            } else {
+                int posicao = Arrays.binarySearch(chaves, placa.charAt(indice));
+                if (posicao >= 0 && filhos[posicao].remover(placa, indice + 1, id)) {
+                    char[] novasChaves = new char[chaves.length - 1];
+                    No[] novos = new No[filhos.length - 1];
+                    System.arraycopy(chaves, 0, novasChaves, 0, posicao);
+                    System.arraycopy(chaves, posicao + 1, novasChaves, posicao, chaves.length - posicao - 1);
+                    System.arraycopy(filhos, 0, novos, 0, posicao);
+                    System.arraycopy(filhos, posicao + 1, novos, posicao, filhos.length - posicao - 1);
+                    chaves = novasChaves;
+                    filhos = novos;
+                }
+            }
+            return automovelIds.length == 0 && chaves.length == 0;
+        }
+
+        void coletar(StringBuilder placa, int distancia, Map<Long, SugestaoPlaca> encontradas, int limite) {
+            if (encontradas.size() >= limite) {
+                return;
+            }
+            for (int i = 0; i < automovelIds.length && encontradas.size() < limite; i++) {
+                encontradas.putIfAbsent(automovelIds[i], new SugestaoPlaca(automovelIds[i], placa.toString(), distancia));
+            }
+            for (int i = 0; i < chaves.length && encontradas.size() < limite; i++) {
+                placa.append(chaves[i]);
+                filhos[i].coletar(placa, distancia, encontradas, limite);
+                placa.setLength(placa.length() - 1);
+            }
+        }
+
+        /**
+         * Percorre a árvore mantendo a linha de Levenshtein entre a consulta e o prefixo atual;
+         * quando a consulta inteira fica a uma edição do prefixo, toda a subárvore é aceita.
+         */
+        void aproximar(String consulta, int[] linha, StringBuilder prefixo,
+                       Map<Long, SugestaoPlaca> encontradas, int limite) {
+            for (int i = 0; i < chaves.length && encontradas.size() < limite; i++) {
+                int[] proxima = new int[linha.length];
+                proxima[0] = linha[0] + 1;
+                int menor = proxima[0];
+                for (int j = 1; j < linha.length; j++) {
+                    int substituicao = linha[j - 1] + (consulta.charAt(j - 1) == chaves[i] ? 0 : 1);
+                    proxima[j] = Math.min(substituicao, Math.min(linha[j] + 1, proxima[j - 1] + 1));
+                    menor = Math.min(menor, proxima[j]);
+                }
+                if (menor > 1) {
+                    continue;
+                }
+                prefixo.append(chaves[i]);
+                if (proxima[linha.length - 1] <= 1) {
+                    filhos[i].coletar(prefixo, 1, encontradas, limite);
+                } else {
+                    filhos[i].aproximar(consulta, proxima, prefixo, encontradas, limite);
+                }
+                prefixo.setLength(prefixo.length() - 1);
+            }
+        }
+
+        private static char[] inserirEm(char[] origem, int posicao, char valor) {
+            char[] destino = new char[origem.length + 1];
+            System.arraycopy(origem, 0, destino, 0, posicao);
+            destino[posicao] = valor;
+            System.arraycopy(origem, posicao, destino, posicao + 1, origem.length - posicao);
+            return destino;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.aluguel.service;
+
+import com.aluguel.repository.LeaseAutomovelRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Leases de automóvel gravados no banco, compartilhados entre as instâncias da aplicação.
+ * Cada aquisição incrementa o token do automóvel; a gravação protegida só é confirmada
+ * se o token ainda for o vigente (fencing), mesmo que o lease tenha expirado no meio do caminho.
+ */
+@Service
+public class LeaseAutomovelService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaseAutomovelService.class);
+
+    private final LeaseAutomovelRepository leaseAutomovelRepository;
+    private final TransactionTemplate novaTransacao;
+    private final String dono;
+    private final Duration duracao;
+
+    public LeaseAutomovelService(LeaseAutomovelRepository leaseAutomovelRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${spring.application.name:sistema-aluguel}") String nomeAplicacao,
+                                 @Value("${aluguel.lease.duracao-ms:10000}") long duracaoMs) {
+        this.leaseAutomovelRepository = leaseAutomovelRepository;
+        this.novaTransacao = new TransactionTemplate(transactionManager);
+        this.novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.dono = nomeAplicacao + "-" + UUID.randomUUID();
+        this.duracao = Duration.ofMillis(duracaoMs);
+    }
+
+    /** Tenta obter o lease até o prazo informado (em {@link System#nanoTime()}) e devolve o token de fencing. */
+    public long adquirir(Long automovelId, long prazoNanos) {
+        while (true) {
+            Long token;
+            try {
+                token = novaTransacao.execute(status -> tentarTomar(automovelId));
+            } catch (DataIntegrityViolationException e) {
+                token = null;
+            }
+            if (token != null) {
+                return token;
+            }
+            if (System.nanoTime() >= prazoNanos) {
+                throw new ConflitoException("Automóvel em processamento por outra instância: " + automovelId);
+            }
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextLong(5, 25));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Espera pelo lease do automóvel interrompida: " + automovelId);
+            }
+        }
+    }
+
+    /** Renova o lease na transação corrente; falha se outro dono já tiver assumido o automóvel. */
+    public void renovar(Long automovelId, long token) {
+        Instant agora = Instant.now();
+        if (leaseAutomovelRepository.renovar(automovelId, dono, token, agora, agora.plus(duracao)) == 0) {
+            throw new ConflitoException("Lease do automóvel expirou ou foi assumido por outra instância: " + automovelId);
+        }
+    }
+
+    public void liberar(Long automovelId, long token) {
+        try {
+            novaTransacao.executeWithoutResult(status ->
+                    leaseAutomovelRepository.liberar(automovelId, dono, token, Instant.now()));
+        } catch (RuntimeException e) {
+            log.warn("Falha ao liberar lease do automóvel {}; ele expirará sozinho: {}", automovelId, e.getMessage());
+        }
+    }
+
+    private Long tentarTomar(Long automovelId) {
+        Instant agora = Instant.now();
+        if (leaseAutomovelRepository.tomar(automovelId, dono, agora, agora.plus(duracao)) == 1) {
+            return leaseAutomovelRepository.findTokenByAutomovelIdAndDono(automovelId, dono).orElse(null);
+        }
+        if (leaseAutomovelRepository.existsById(automovelId)) {
+            return null;
+        }
+        // Não usa save(): com o ID atribuído ele vira merge, que sobrescreveria a linha criada por
+        // outra instância no meio tempo em vez de falhar, e as duas sairiam com o token 1.
+        leaseAutomovelRepository.criar(automovelId, dono, agora.plus(duracao));
+        return 1L;
+    }
+}
@@ -0,0 +1,143 @@
+package com.aluguel.service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dias reservados de um automóvel, um bit por dia (bit 0 = 1º de janeiro).
+ * Cada ano ocupa 6 longs (366 bits), cerca de 46 bytes por carro-ano.
+ */
+class MapaOcupacao {
+
+    static final int PALAVRAS_POR_ANO = 6;
+
+    private final Map<Integer, long[]> anos = new HashMap<>();
+
+    synchronized void marcar(LocalDate inicio, LocalDate fim) {
+        LocalDate dia = inicio;
+        while (!dia.isAfter(fim)) {
+            LocalDate fimDoAno = LocalDate.of(dia.getYear(), 12, 31);
+            LocalDate ate = fim.isBefore(fimDoAno) ? fim : fimDoAno;
+            long[] bits = anos.computeIfAbsent(dia.getYear(), ano -> new long[PALAVRAS_POR_ANO]);
+            preencher(bits, dia.getDayOfYear() - 1, ate.getDayOfYear());
+            dia = ate.plusDays(1);
+        }
+    }
+
+    synchronized long[] ano(int ano) {
+        long[] bits = anos.get(ano);
+        return bits == null ? new long[PALAVRAS_POR_ANO] : bits.clone();
+    }
+
+    /** Bits ocupados do período, reposicionados para começar no bit 0. */
+    synchronized long[] janela(LocalDate inicio, LocalDate fim) {
+        int tamanho = (int) ChronoUnit.DAYS.between(inicio, fim) + 1;
+        long[] destino = new long[palavras(tamanho)];
+        int posicao = 0;
+        LocalDate dia = inicio;
+        while (!dia.isAfter(fim)) {
+            LocalDate fimDoAno = LocalDate.of(dia.getYear(), 12, 31);
+            LocalDate ate = fim.isBefore(fimDoAno) ? fim : fimDoAno;
+            int quantidade = ate.getDayOfYear() - dia.getDayOfYear() + 1;
+            long[] bits = anos.get(dia.getYear());
+            if (bits != null) {
+                copiar(bits, dia.getDayOfYear() - 1, destino, posicao, quantidade);
+            }
+            posicao += quantidade;
+            dia = ate.plusDays(1);
+        }
+        return destino;
+    }
+
+    static int palavras(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    static boolean ligado(long[] bits, int indice) {
+        return (bits[indice >>> 6] & (1L << indice)) != 0;
+    }
+
+    /**
+     * Primeiro índice a partir do qual há {@code n} bits livres consecutivos, ou -1.
+     * Usa a técnica de duplicação: após cada passo, o bit i indica que os dias
+     * [i, i + k) estão todos livres, em O(log n) varreduras do vetor.
+     */
+    static int primeiraSequenciaLivre(long[] ocupados, int tamanho, int n) {
+        if (n <= 0 || n > tamanho) {
+            return -1;
+        }
+        long[] livres = new long[ocupados.length];
+        for (int i = 0; i < livres.length; i++) {
+            livres[i] = ~ocupados[i];
+        }
+        if ((tamanho & 63) != 0) {
+            livres[livres.length - 1] &= (1L << tamanho) - 1;
+        }
+        int k = 1;
+        while (k * 2 <= n) {
+            e(livres, deslocar(livres, k));
+            k *= 2;
+        }
+        if (k < n) {
+            e(livres, deslocar(livres, n - k));
+        }
+        for (int i = 0; i < livres.length; i++) {
+            if (livres[i] != 0) {
+                return (i << 6) + Long.numberOfTrailingZeros(livres[i]);
+            }
+        }
+        return -1;
+    }
+
+    private static void preencher(long[] bits, int de, int ate) {
+        for (int i = de; i < ate; ) {
+            int palavra = i >>> 6;
+            int fimPalavra = Math.min(ate, (palavra + 1) << 6);
+            int largura = fimPalavra - i;
+            long mascara = (largura == 64 ? -1L : ((1L << largura) - 1)) << (i & 63);
+            bits[palavra] |= mascara;
+            i = fimPalavra;
+        }
+    }
+
+    private static void copiar(long[] origem, int de, long[] destino, int para, int quantidade) {
+        for (int i = 0; i < quantidade; ) {
+            int largura = Math.min(64, quantidade - i);
+            long pedaco = ler(origem, de + i) & (largura == 64 ? -1L : (1L << largura) - 1);
+            int posicao = para + i;
+            int palavra = posicao >>> 6;
+            int deslocamento = posicao & 63;
+            destino[palavra] |= pedaco << deslocamento;
+            if (deslocamento != 0 && palavra + 1 < destino.length) {
+                destino[palavra + 1] |= pedaco >>> (64 - deslocamento);
+            }
+            i += largura;
+        }
+    }
+
+    private static long ler(long[] bits, int posicao) {
+        int palavra = posicao >>> 6;
+        int deslocamento = posicao & 63;
+        long valor = palavra < bits.length ? bits[palavra] >>> deslocamento : 0L;
+        if (deslocamento != 0 && palavra + 1 < bits.length) {
+            valor |= bits[palavra + 1] << (64 - deslocamento);
+        }
+        return valor;
+    }
+
+    private static long[] deslocar(long[] bits, int n) {
+        long[] resultado = new long[bits.length];
+        for (int i = 0; i < bits.length; i++) {
+            resultado[i] = ler(bits, (i << 6) + n);
+        }
+        return resultado;
+    }
+
+    private static void e(long[] alvo, long[] outro) {
+        for (int i = 0; i < alvo.length; i++) {
+            alvo[i] &= outro[i];
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.aluguel.service;
+
+import com.aluguel.model.EventoContrato;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/** Contadores de transições por status e atraso entre a gravação e a entrega dos eventos. */
+@Component
+public class MetricasEventosContrato implements AssinanteEventosContrato {
+
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary atraso;
+
+    public MetricasEventosContrato(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.atraso = DistributionSummary.builder("aluguel.contratos.eventos.atraso")
+                .baseUnit("milliseconds")
+                .description("Tempo entre a mudança de status e a entrega do evento")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void receber(List<EventoContrato> eventos) {
+        Instant agora = Instant.now();
+        for (EventoContrato evento : eventos) {
+            meterRegistry.counter("aluguel.contratos.transicoes", "status", evento.getStatus().name()).increment();
+            atraso.record(Duration.between(evento.getOcorridoEm(), agora).toMillis());
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.aluguel.service;
+
+/** Recurso inexistente; respondido com 404 por {@code com.aluguel.controller.TratamentoErros}. */
+public class NaoEncontradoException extends RuntimeException {
+
+    public NaoEncontradoException(String mensagem) {
+        super(mensagem);
+    }
+}
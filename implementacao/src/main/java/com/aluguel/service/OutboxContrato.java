@@ -0,0 +1,58 @@
+package com.aluguel.service;
+
+import com.aluguel.model.Contrato.StatusContrato;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Grava as mudanças de status de contrato no outbox, na transação corrente. O automóvel é
+ * copiado do próprio contrato para que os assinantes não precisem consultá-lo de novo.
+ */
+@Component
+public class OutboxContrato {
+
+    private static final String INSERIR =
+            "INSERT INTO outbox_contrato (contrato_id, automovel_id, status_anterior, status, ocorrido_em, origem, tentativas) " +
+            "SELECT id, automovel_id, ?, ?, ?, ?, 0 FROM contratos WHERE id = ?";
+
+    private static final String INSERIR_TRANSICAO =
+            "INSERT INTO outbox_contrato (contrato_id, automovel_id, status_anterior, status, ocorrido_em, origem, tentativas) " +
+            "SELECT id, automovel_id, status_anterior, status, ?, ?, 0 FROM contratos WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DespachanteEventosContrato despachante;
+
+    public OutboxContrato(JdbcTemplate jdbcTemplate, DespachanteEventosContrato despachante) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.despachante = despachante;
+    }
+
+    public void registrar(Long contratoId, StatusContrato anterior, StatusContrato status) {
+        registrar(List.of(contratoId), anterior, status);
+    }
+
+    /** Registra a transição que acabou de ser gravada no contrato, copiando dele o status anterior e o atual. */
+    public void registrarTransicao(Long contratoId) {
+        jdbcTemplate.update(INSERIR_TRANSICAO, Timestamp.from(Instant.now()), despachante.origem(), contratoId);
+        AposCommit.executar(despachante::acordar);
+    }
+
+    public void registrar(List<Long> contratoIds, StatusContrato anterior, StatusContrato status) {
+        if (contratoIds.isEmpty()) {
+            return;
+        }
+        Timestamp agora = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERIR, contratoIds, contratoIds.size(), (ps, contratoId) -> {
+            ps.setString(1, anterior == null ? null : anterior.name());
+            ps.setString(2, status.name());
+            ps.setTimestamp(3, agora);
+            ps.setString(4, despachante.origem());
+            ps.setLong(5, contratoId);
+        });
+        AposCommit.executar(despachante::acordar);
+    }
+}
@@ -0,0 +1,186 @@
+package com.aluguel.service;
+
+import com.aluguel.dto.ResultadoTransicao;
+import com.aluguel.dto.TicketPedido;
+import com.aluguel.dto.TicketPedido.StatusTicket;
+import com.aluguel.model.Contrato;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recebimento assíncrono de pedidos de aluguel. O pedido validado entra numa fila limitada e
+ * recebe um ticket; os workers drenam a fila em lotes e gravam cada lote numa única transação
+ * ({@link ContratoService#criarPedidosEmGrupo(List)}). Fila e tickets ficam só em memória:
+ * pedidos ainda na fila se perdem se a instância cair, e tickets concluídos expiram depois de
+ * {@code aluguel.pedidos.retencao-ms}.
+ */
+@Service
+public class PedidoAssincronoService {
+
+    private static final Logger log = LoggerFactory.getLogger(PedidoAssincronoService.class);
+
+    private static final long ESPERA_POR_PEDIDO_MS = 500;
+
+    private final ContratoService contratoService;
+    private final BlockingQueue<PedidoEnfileirado> fila;
+    private final Map<String, TicketPedido> tickets = new ConcurrentHashMap<>();
+    private final int quantidadeWorkers;
+    private final int tamanhoLote;
+    private final Duration retencao;
+    private final Counter recusadosFilaCheia;
+
+    private volatile boolean ativo;
+    private final List<Thread> workers = new ArrayList<>();
+
+    public PedidoAssincronoService(ContratoService contratoService, MeterRegistry meterRegistry,
+                                   @Value("${aluguel.pedidos.capacidade:1000}") int capacidade,
+                                   @Value("${aluguel.pedidos.workers:4}") int quantidadeWorkers,
+                                   @Value("${aluguel.pedidos.lote:20}") int tamanhoLote,
+                                   @Value("${aluguel.pedidos.retencao-ms:600000}") long retencaoMs) {
+        this.contratoService = contratoService;
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+        this.quantidadeWorkers = quantidadeWorkers;
+        this.tamanhoLote = tamanhoLote;
+        this.retencao = Duration.ofMillis(retencaoMs);
+        Gauge.builder("aluguel.pedidos.fila", fila, BlockingQueue::size)
+                .description("Pedidos assíncronos aguardando processamento")
+                .register(meterRegistry);
+        this.recusadosFilaCheia = Counter.builder("aluguel.pedidos.fila-cheia")
+                .description("Pedidos assíncronos recusados por fila cheia")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        ativo = true;
+        for (int i = 0; i < quantidadeWorkers; i++) {
+            Thread worker = new Thread(this::processar, "pedidos-worker-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        ativo = false;
+        for (Thread worker : workers) {
+            worker.join(ESPERA_POR_PEDIDO_MS * 10);
+        }
+        if (!fila.isEmpty()) {
+            log.warn("{} pedido(s) assíncrono(s) descartados no encerramento", fila.size());
+        }
+    }
+
+    /**
+     * Coloca o pedido na fila e devolve o ticket, ou vazio se a fila estiver cheia. Só a forma do
+     * pedido é conferida aqui; disponibilidade e conflitos de período são verificados pelos workers.
+     */
+    public Optional<TicketPedido> enfileirar(Contrato contrato) {
+        if (contrato.getAutomovel().getId() == null || contrato.getUsuario().getId() == null) {
+            throw new IllegalArgumentException("Automóvel e usuário devem ser informados pelo ID");
+        }
+        if (contrato.getDataFim().isBefore(contrato.getDataInicio())) {
+            throw new IllegalArgumentException("Data de fim anterior à data de início");
+        }
+
+        TicketPedido ticket = new TicketPedido(UUID.randomUUID().toString(), StatusTicket.RECEBIDO,
+                null, null, Instant.now(), null);
+        tickets.put(ticket.getId(), ticket);
+        if (!fila.offer(new PedidoEnfileirado(ticket, contrato))) {
+            tickets.remove(ticket.getId());
+            recusadosFilaCheia.increment();
+            return Optional.empty();
+        }
+        return Optional.of(ticket);
+    }
+
+    public Optional<TicketPedido> buscarTicket(String id) {
+        return Optional.ofNullable(tickets.get(id));
+    }
+
+    @Scheduled(fixedDelayString = "${aluguel.pedidos.retencao-ms:600000}")
+    public void removerTicketsExpirados() {
+        Instant limite = Instant.now().minus(retencao);
+        tickets.values().removeIf(ticket -> ticket.getConcluidoEm() != null && ticket.getConcluidoEm().isBefore(limite));
+    }
+
+    private void processar() {
+        List<PedidoEnfileirado> lote = new ArrayList<>(tamanhoLote);
+        while (ativo || !fila.isEmpty()) {
+            lote.clear();
+            try {
+                PedidoEnfileirado primeiro = fila.poll(ESPERA_POR_PEDIDO_MS, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                lote.add(primeiro);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            fila.drainTo(lote, tamanhoLote - 1);
+            processarLote(lote);
+        }
+    }
+
+    private void processarLote(List<PedidoEnfileirado> lote) {
+        List<Contrato> contratos = new ArrayList<>(lote.size());
+        for (PedidoEnfileirado pedido : lote) {
+            TicketPedido recebido = pedido.ticket;
+            tickets.put(recebido.getId(), new TicketPedido(recebido.getId(), StatusTicket.PROCESSANDO,
+                    null, null, recebido.getRecebidoEm(), null));
+            contratos.add(pedido.contrato);
+        }
+
+        List<ResultadoTransicao> resultados;
+        try {
+            resultados = contratoService.criarPedidosEmGrupo(contratos);
+        } catch (RuntimeException e) {
+            log.error("Falha ao processar lote de {} pedido(s) assíncrono(s)", lote.size(), e);
+            ResultadoTransicao falha = new ResultadoTransicao(null, 500, "Falha ao processar o pedido");
+            resultados = lote.stream().map(pedido -> falha).toList();
+        }
+
+        Instant agora = Instant.now();
+        for (int i = 0; i < lote.size(); i++) {
+            TicketPedido recebido = lote.get(i).ticket;
+            ResultadoTransicao resultado = resultados.get(i);
+            StatusTicket status = resultado.getId() != null ? StatusTicket.CONCLUIDO : StatusTicket.RECUSADO;
+            tickets.put(recebido.getId(), new TicketPedido(recebido.getId(), status, resultado.getId(),
+                    resultado.getMensagem(), recebido.getRecebidoEm(), agora));
+        }
+    }
+
+    private static final class PedidoEnfileirado {
+
+        private final TicketPedido ticket;
+        private final Contrato contrato;
+
+        private PedidoEnfileirado(TicketPedido ticket, Contrato contrato) {
+            this.ticket = ticket;
+            this.contrato = contrato;
+        }
+    }
+}
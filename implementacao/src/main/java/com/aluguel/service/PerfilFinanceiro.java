@@ -0,0 +1,98 @@
+package com.aluguel.service;
+
+import com.aluguel.dto.Rendimento;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rendimentos de um cliente extraídos do texto livre de {@code Cliente.rendimentos}, um por trecho
+ * separado por ";", "|" ou quebra de linha (ex.: "Salário: R$ 5.000,00; Freelance: R$ 800,00").
+ * Trechos sem rótulo recebem o empregador de mesma posição em {@code Cliente.empregadores}.
+ */
+final class PerfilFinanceiro {
+
+    static final int MAXIMO_RENDIMENTOS = 3;
+
+    private static final Pattern SEPARADOR = Pattern.compile("[;|\\n]");
+    private static final String NUMERO = "(\\d{1,3}(?:\\.\\d{3})+|\\d+)(?:,(\\d{1,2}))?";
+    private static final Pattern VALOR_EM_REAIS = Pattern.compile("(?i)r\\$\\s*" + NUMERO);
+    private static final Pattern VALOR = Pattern.compile(NUMERO);
+    private static final Pattern ROTULO_LIMPO = Pattern.compile("[\\s:=\\-–]+$");
+
+    private final List<Rendimento> rendimentos;
+    private final BigDecimal rendaMensal;
+
+    private PerfilFinanceiro(List<Rendimento> rendimentos) {
+        this.rendimentos = List.copyOf(rendimentos);
+        this.rendaMensal = rendimentos.stream()
+                .map(Rendimento::getValorMensal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    static PerfilFinanceiro de(String rendimentos, String empregadores) {
+        List<String> fontes = trechos(empregadores);
+        List<Rendimento> encontrados = new ArrayList<>(MAXIMO_RENDIMENTOS);
+        for (String trecho : trechos(rendimentos)) {
+            Matcher valor = localizarValor(trecho);
+            if (valor == null) {
+                continue;
+            }
+            String rotulo = ROTULO_LIMPO.matcher(trecho.substring(0, valor.start())).replaceFirst("").trim();
+            if (rotulo.isEmpty()) {
+                rotulo = encontrados.size() < fontes.size()
+                        ? fontes.get(encontrados.size())
+                        : "Fonte " + (encontrados.size() + 1);
+            }
+            encontrados.add(new Rendimento(rotulo, valor(valor)));
+            if (encontrados.size() == MAXIMO_RENDIMENTOS) {
+                break;
+            }
+        }
+        return new PerfilFinanceiro(encontrados);
+    }
+
+    List<Rendimento> rendimentos() {
+        return rendimentos;
+    }
+
+    BigDecimal rendaMensal() {
+        return rendaMensal;
+    }
+
+    private static List<String> trechos(String texto) {
+        List<String> trechos = new ArrayList<>();
+        if (texto == null) {
+            return trechos;
+        }
+        for (String trecho : SEPARADOR.split(texto)) {
+            if (!trecho.isBlank()) {
+                trechos.add(trecho.trim());
+            }
+        }
+        return trechos;
+    }
+
+    /** Prefere o valor precedido de "R$"; sem ele, usa o último número do trecho, já que o rótulo vem antes. */
+    private static Matcher localizarValor(String trecho) {
+        Matcher emReais = VALOR_EM_REAIS.matcher(trecho);
+        if (emReais.find()) {
+            return emReais;
+        }
+        Matcher numero = VALOR.matcher(trecho);
+        int inicio = -1;
+        while (numero.find()) {
+            inicio = numero.start();
+        }
+        return inicio >= 0 && numero.find(inicio) ? numero : null;
+    }
+
+    private static BigDecimal valor(Matcher valor) {
+        String inteiro = valor.group(1).replace(".", "");
+        String centavos = valor.group(2) == null ? "0" : valor.group(2);
+        return new BigDecimal(inteiro + "." + centavos).setScale(2);
+    }
+}
@@ -0,0 +1,114 @@
+package com.aluguel.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sequências de IDs de usuários, automóveis e contratos. O Hibernate reserva blocos de
+ * {@link #BLOCO} IDs por chamada (otimizador pooled-lo: o valor lido é o início do bloco), o que
+ * permite agrupar os INSERTs em lotes JDBC; gravações diretas por JDBC reservam blocos da mesma
+ * forma, por {@link #reservar(String, int)}. Na subida, cada sequência é adiantada para depois do
+ * maior ID já gravado, de modo que tabelas preenchidas antes da troca de IDENTITY mantêm seus IDs;
+ * a conferência roda com a linha da sequência em {@code travas_sequencias} travada, e a sequência só
+ * é reiniciada quando está atrás do maior ID. O SQL de leitura da sequência vem do dialeto do Hibernate; o ajuste usa
+ * {@code ALTER SEQUENCE ... RESTART WITH}, aceito por H2, PostgreSQL, Oracle 18+ e SQL Server.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SequenciasIds {
+
+    /** Igual ao {@code allocationSize} dos {@code @SequenceGenerator} das entidades. */
+    public static final int BLOCO = 50;
+
+    public static final String AUTOMOVEIS = "seq_automoveis";
+    public static final String CONTRATOS = "seq_contratos";
+    public static final String USUARIOS = "seq_usuarios";
+
+    private static final Logger log = LoggerFactory.getLogger(SequenciasIds.class);
+
+    private static final Map<String, String> TABELAS = Map.of(
+            AUTOMOVEIS, "automoveis",
+            CONTRATOS, "contratos",
+            USUARIOS, "usuarios");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SequenceSupport sequencias;
+
+    public SequenciasIds(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                         EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sequencias = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport();
+    }
+
+    /**
+     * Lê o próximo valor de cada sequência, o que descarta um bloco por subida, já que não há
+     * forma portável de consultá-lo sem consumi-lo. Cada sequência é conferida numa transação própria
+     * com sua trava: outra instância que suba ao mesmo tempo espera e, ao ler a sequência, já a
+     * encontra adiantada. O {@code ALTER SEQUENCE} é o último comando porque alguns bancos (H2,
+     * Oracle) confirmam a transação ao executá-lo.
+     */
+    @PostConstruct
+    void alinhar() {
+        TABELAS.forEach((sequencia, tabela) -> {
+            criarTrava(sequencia);
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("UPDATE travas_sequencias SET alinhada_em = ? WHERE sequencia = ?",
+                        LocalDateTime.now(), sequencia);
+                long maiorId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + tabela, Long.class);
+                long proximo = proximo(sequencia);
+                if (maiorId >= proximo) {
+                    jdbcTemplate.execute("ALTER SEQUENCE " + sequencia + " RESTART WITH " + (maiorId + 1));
+                    log.info("Sequência {} adiantada para {} (maior ID em {})", sequencia, maiorId + 1, tabela);
+                }
+            });
+        });
+    }
+
+    private void criarTrava(String sequencia) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Integer travas = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM travas_sequencias WHERE sequencia = ?", Integer.class, sequencia);
+                if (travas == 0) {
+                    jdbcTemplate.update("INSERT INTO travas_sequencias (sequencia) VALUES (?)", sequencia);
+                }
+            });
+        } catch (DuplicateKeyException e) {
+            // outra instância criou a mesma linha ao mesmo tempo
+        }
+    }
+
+    /** Reserva {@code quantidade} IDs da sequência, em blocos de {@link #BLOCO}. */
+    public List<Long> reservar(String sequencia, int quantidade) {
+        List<Long> ids = new ArrayList<>(quantidade);
+        while (ids.size() < quantidade) {
+            long inicio = proximo(sequencia);
+            for (long id = inicio; id < inicio + BLOCO && ids.size() < quantidade; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private long proximo(String sequencia) {
+        return jdbcTemplate.queryForObject(sequencias.getSequenceNextValString(sequencia), Long.class);
+    }
+}
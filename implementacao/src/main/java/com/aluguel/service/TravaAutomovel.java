@@ -0,0 +1,111 @@
+package com.aluguel.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializa as operações de reserva de um mesmo automóvel. Dentro da JVM usa travas em
+ * faixas, de modo que automóveis diferentes seguem em paralelo; entre instâncias usa o
+ * lease do banco ({@link LeaseAutomovelService}).
+ */
+@Component
+public class TravaAutomovel {
+
+    private final ReentrantLock[] faixas;
+    private final long esperaMaximaMs;
+    private final LeaseAutomovelService leaseAutomovelService;
+    private final TransactionTemplate transactionTemplate;
+
+    public TravaAutomovel(@Value("${aluguel.trava.faixas:64}") int quantidadeFaixas,
+                          @Value("${aluguel.trava.espera-ms:5000}") long esperaMaximaMs,
+                          LeaseAutomovelService leaseAutomovelService,
+                          PlatformTransactionManager transactionManager) {
+        this.faixas = new ReentrantLock[quantidadeFaixas];
+        for (int i = 0; i < quantidadeFaixas; i++) {
+            this.faixas[i] = new ReentrantLock();
+        }
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.leaseAutomovelService = leaseAutomovelService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Executa a ação numa transação própria com o automóvel travado. A trava e o lease são
+     * obtidos antes de a transação abrir, para não segurar uma conexão do pool enquanto se espera,
+     * e só são soltos depois do commit, quando a gravação já está visível às demais requisições.
+     */
+    public <T> T executar(Long automovelId, Supplier<T> acao) {
+        return executar(List.of(automovelId), acao);
+    }
+
+    /**
+     * Como {@link #executar(Long, Supplier)}, mas com vários automóveis travados na mesma transação.
+     * Faixas e leases são obtidos em ordem crescente, então execuções concorrentes com conjuntos
+     * sobrepostos não entram em deadlock.
+     */
+    public <T> T executar(Collection<Long> automovelIds, Supplier<T> acao) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("A trava de automóvel deve ser obtida fora de uma transação");
+        }
+
+        long prazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+        List<Long> ids = automovelIds.stream().distinct().sorted().toList();
+        String descricao = ids.size() == 1 ? String.valueOf(ids.get(0)) : ids.toString();
+        int[] indices = ids.stream()
+                .mapToInt(id -> Math.floorMod(Long.hashCode(id), faixas.length))
+                .distinct()
+                .sorted()
+                .toArray();
+
+        int travadas = 0;
+        try {
+            for (int indice : indices) {
+                try {
+                    if (!faixas[indice].tryLock(Math.max(0, prazo - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                        throw new ConflitoException("Automóvel em processamento por outra requisição: " + descricao);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Espera pela trava do automóvel interrompida: " + descricao);
+                }
+                travadas++;
+            }
+
+            Map<Long, Long> tokens = new LinkedHashMap<>();
+            try {
+                for (Long id : ids) {
+                    tokens.put(id, leaseAutomovelService.adquirir(id, prazo));
+                }
+                return transactionTemplate.execute(status -> {
+                    T resultado = acao.get();
+                    tokens.forEach(leaseAutomovelService::renovar);
+                    return resultado;
+                });
+            } finally {
+                tokens.forEach(leaseAutomovelService::liberar);
+            }
+        } finally {
+            for (int i = 0; i < travadas; i++) {
+                faixas[indices[i]].unlock();
+            }
+        }
+    }
+
+    public void executar(Long automovelId, Runnable acao) {
+        executar(automovelId, () -> {
+            acao.run();
+            return null;
+        });
+    }
+}
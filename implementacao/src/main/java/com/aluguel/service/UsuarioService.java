@@ -2,6 +2,7 @@ package com.aluguel.service;
 
 import com.aluguel.model.Usuario;
 import com.aluguel.repository.UsuarioRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -18,13 +19,15 @@ import java.util.Optional;
 public class UsuarioService implements UserDetailsService {
 
     private final UsuarioRepository usuarioRepository;
+    private final VersoesColecoes versoesColecoes;
 
-    public UsuarioService(UsuarioRepository usuarioRepository) {
+    public UsuarioService(UsuarioRepository usuarioRepository, VersoesColecoes versoesColecoes) {
         this.usuarioRepository = usuarioRepository;
+        this.versoesColecoes = versoesColecoes;
     }
 
-    public List<Usuario> listarTodos() {
-        return usuarioRepository.findAll();
+    public List<Usuario> listarTodos(Long after, int limite) {
+        return usuarioRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limite));
     }
 
     public Optional<Usuario> buscarPorId(Long id) {
@@ -48,6 +51,7 @@ public class UsuarioService implements UserDetailsService {
         }
 
 
+        versoesColecoes.alterada(VersoesColecoes.USUARIOS);
         return usuarioRepository.save(usuario);
     }
 
@@ -58,6 +62,7 @@ public class UsuarioService implements UserDetailsService {
                     usuario.setEmail(usuarioAtualizado.getEmail());
                     usuario.setSenha(usuarioAtualizado.getSenha());
                     usuario.setEndereco(usuarioAtualizado.getEndereco());
+                    versoesColecoes.alterada(VersoesColecoes.USUARIOS);
                     return usuarioRepository.save(usuario);
                 })
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado com ID: " + id));
@@ -68,6 +73,7 @@ public class UsuarioService implements UserDetailsService {
                 .ifPresentOrElse(
                         usuario -> {
                             usuario.setAtivo(true);
+                            versoesColecoes.alterada(VersoesColecoes.USUARIOS);
                             usuarioRepository.save(usuario);
                         },
                         () -> {
@@ -81,6 +87,7 @@ public class UsuarioService implements UserDetailsService {
                 .ifPresentOrElse(
                         usuario -> {
                             usuario.setAtivo(false);
+                            versoesColecoes.alterada(VersoesColecoes.USUARIOS);
                             usuarioRepository.save(usuario);
                         },
                         () -> {
@@ -93,6 +100,7 @@ public class UsuarioService implements UserDetailsService {
         if (!usuarioRepository.existsById(id)) {
             throw new RuntimeException("Usuário não encontrado com ID: " + id);
         }
+        versoesColecoes.alterada(VersoesColecoes.USUARIOS);
         usuarioRepository.deleteById(id);
     }
 
@@ -0,0 +1,41 @@
+package com.aluguel.service;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Valor já cadastrado num campo único. Os serviços não consultam o banco antes de gravar: deixam a
+ * constraint de unicidade rejeitar a linha e traduzem a violação, pelo nome da constraint, no campo
+ * correspondente.
+ */
+public class ValorDuplicadoException extends RuntimeException {
+
+    private final String campo;
+
+    public ValorDuplicadoException(String campo, String mensagem) {
+        super(mensagem);
+        this.campo = campo;
+    }
+
+    public String getCampo() {
+        return campo;
+    }
+
+    /** Qual das constraints informadas foi violada, ou {@code null} se a violação for de outra. */
+    static String constraintViolada(DataIntegrityViolationException e, String... constraints) {
+        String nome = null;
+        for (Throwable causa = e; causa != null && nome == null; causa = causa.getCause()) {
+            if (causa instanceof org.hibernate.exception.ConstraintViolationException violacao) {
+                nome = violacao.getConstraintName();
+            }
+        }
+        String detalhe = ((nome != null ? nome : "") + " " + e.getMostSpecificCause().getMessage()).toUpperCase(Locale.ROOT);
+        for (String constraint : constraints) {
+            if (detalhe.contains(constraint.toUpperCase(Locale.ROOT))) {
+                return constraint;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,110 @@
+package com.aluguel.service;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contadores de versão das coleções servidas por listagens consultadas com frequência, usados
+ * para montar ETags sem ir ao banco. Cada caminho de escrita chama {@link #alterada(String)}; o
+ * contador só avança depois do commit, e o ETag deve ser lido antes dos dados, para que uma
+ * resposta nunca combine dados antigos com uma versão nova.
+ * <p>
+ * Os contadores são desta instância, identificados por uma época sorteada na subida. O
+ * {@link DespachanteEventosContrato} publica-os na presença da instância e traz os das demais
+ * ({@link #publicadas()} e {@link #incorporar(Collection)}) a cada {@code aluguel.eventos.presenca-ms};
+ * o ETag combina todos, de modo que réplicas sincronizadas devolvem o mesmo ETag e uma escrita em
+ * outra réplica muda o ETag daqui em no máximo dois ciclos.
+ */
+@Component
+public class VersoesColecoes {
+
+    public static final String AUTOMOVEIS = "automoveis";
+    public static final String CONTRATOS = "contratos";
+    public static final String USUARIOS = "usuarios";
+
+    private final String epoca = UUID.randomUUID().toString();
+    private final Map<String, AtomicLong> versoes = new ConcurrentHashMap<>();
+    private volatile Map<String, Map<String, Long>> outras = Map.of();
+
+    /** Avança a versão da coleção quando a transação atual for confirmada. */
+    public void alterada(String colecao) {
+        AposCommit.executar(() -> contador(colecao).incrementAndGet());
+    }
+
+    /** ETag forte que muda sempre que alguma das coleções informadas muda, aqui ou em outra instância. */
+    public String etag(String... colecoes) {
+        Map<String, Map<String, Long>> instancias = new TreeMap<>(outras);
+        instancias.put(epoca, locais());
+        StringBuilder estado = new StringBuilder();
+        instancias.forEach((instancia, contadores) -> {
+            estado.append(instancia);
+            for (String colecao : colecoes) {
+                estado.append(',').append(contadores.getOrDefault(colecao, 0L));
+            }
+            estado.append(';');
+        });
+        return "\"" + resumo(estado.toString()) + "\"";
+    }
+
+    /** ETag de um registro: ID e versão do registro, iguais em todas as instâncias. */
+    public String etagRegistro(Long id, Long versao) {
+        return "\"" + id + "-" + versao + "\"";
+    }
+
+    /** Época e contadores desta instância, no formato {@code epoca|colecao=versao,...}. */
+    public String publicadas() {
+        StringBuilder publicadas = new StringBuilder(epoca).append('|');
+        locais().forEach((colecao, versao) -> publicadas.append(colecao).append('=').append(versao).append(','));
+        return publicadas.toString();
+    }
+
+    /** Substitui os contadores conhecidos das demais instâncias pelos publicados por elas. */
+    public void incorporar(Collection<String> publicadasPorOutras) {
+        Map<String, Map<String, Long>> novas = new HashMap<>();
+        for (String publicada : publicadasPorOutras) {
+            int separador = publicada.indexOf('|');
+            if (separador <= 0 || publicada.startsWith(epoca + "|")) {
+                continue;
+            }
+            Map<String, Long> contadores = new HashMap<>();
+            for (String par : publicada.substring(separador + 1).split(",")) {
+                int igual = par.indexOf('=');
+                if (igual > 0) {
+                    contadores.put(par.substring(0, igual), Long.parseLong(par.substring(igual + 1)));
+                }
+            }
+            novas.put(publicada.substring(0, separador), contadores);
+        }
+        outras = novas;
+    }
+
+    private Map<String, Long> locais() {
+        Map<String, Long> locais = new TreeMap<>();
+        versoes.forEach((colecao, versao) -> locais.put(colecao, versao.get()));
+        return locais;
+    }
+
+    private AtomicLong contador(String colecao) {
+        return versoes.computeIfAbsent(colecao, nome -> new AtomicLong());
+    }
+
+    private static String resumo(String estado) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(estado.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
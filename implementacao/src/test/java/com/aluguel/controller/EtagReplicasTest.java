@@ -0,0 +1,142 @@
+package com.aluguel.controller;
+
+import com.aluguel.SistemaAluguelApplication;
+import com.aluguel.model.Automovel;
+import com.aluguel.model.Automovel.TipoProprietario;
+import com.aluguel.service.AutomovelService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GET condicional com duas instâncias sobre o mesmo banco: o ETag sai da memória, réplicas
+ * sincronizadas devolvem o mesmo valor, e uma escrita numa delas invalida o ETag na outra.
+ */
+class EtagReplicasTest {
+
+    private static final String BANCO = "jdbc:h2:mem:etag-replicas;DB_CLOSE_DELAY=-1";
+    private static final Duration PRAZO = Duration.ofSeconds(15);
+
+    private static ConfigurableApplicationContext instanciaA;
+    private static ConfigurableApplicationContext instanciaB;
+    private static final HttpClient http = HttpClient.newHttpClient();
+    private static String token;
+
+    @BeforeAll
+    static void subirInstancias() throws Exception {
+        instanciaA = iniciar("create-drop");
+        instanciaB = iniciar("none");
+        enviar(HttpRequest.newBuilder(uri(instanciaA, "/api/clientes"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"nome\":\"Etag\",\"email\":\"etag@email.com\",\"senha\":\"123456\"," +
+                        "\"cpf\":\"123.456.789-10\",\"rg\":\"12.345.678-1\",\"endereco\":\"Rua A\",\"profissao\":\"Eng\"," +
+                        "\"empregadores\":\"Empresa\",\"rendimentos\":\"Salário\"}")));
+        HttpResponse<String> login = enviar(HttpRequest.newBuilder(uri(instanciaA, "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"etag@email.com\",\"senha\":\"123456\"}")));
+        Matcher matcher = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"").matcher(login.body());
+        assertThat(matcher.find()).isTrue();
+        token = matcher.group(1);
+    }
+
+    @AfterAll
+    static void derrubarInstancias() {
+        if (instanciaB != null) {
+            instanciaB.close();
+        }
+        if (instanciaA != null) {
+            instanciaA.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext iniciar(String ddl) {
+        return new SpringApplicationBuilder(SistemaAluguelApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + BANCO,
+                "--spring.jpa.hibernate.ddl-auto=" + ddl,
+                "--spring.jpa.show-sql=false",
+                "--aluguel.eventos.presenca-ms=200",
+                "--aluguel.finalizacao.cron=-");
+    }
+
+    @Test
+    void escritaNumaReplicaInvalidaOEtagDaOutra() throws Exception {
+        String etagA = aguardarEtagsIguais();
+        assertThat(get(instanciaA, "/api/automoveis/disponiveis", etagA).statusCode()).isEqualTo(304);
+        assertThat(get(instanciaB, "/api/automoveis/disponiveis", etagA).statusCode()).isEqualTo(304);
+
+        instanciaA.getBean(AutomovelService.class).salvar(
+                new Automovel("MAT-ETAG", 2022, "Fiat", "Argo", "ETA1234", TipoProprietario.EMPRESA));
+        assertThat(get(instanciaA, "/api/automoveis/disponiveis", etagA).statusCode()).isEqualTo(200);
+
+        long limite = System.nanoTime() + PRAZO.toNanos();
+        int status;
+        do {
+            Thread.sleep(100);
+            status = get(instanciaB, "/api/automoveis/disponiveis", etagA).statusCode();
+        } while (status == 304 && System.nanoTime() < limite);
+        assertThat(status).isEqualTo(200);
+        assertThat(aguardarEtagsIguais()).isNotEqualTo(etagA);
+    }
+
+    @Test
+    void etagDoRegistroLevaIdEVersaoEFicaExpostoViaCors() throws Exception {
+        Automovel automovel = instanciaA.getBean(AutomovelService.class).salvar(
+                new Automovel("MAT-ETAG-ID", 2021, "VW", "Gol", "ETA4321", TipoProprietario.EMPRESA));
+        String caminho = "/api/automoveis/" + automovel.getId();
+
+        HttpResponse<String> primeira = enviar(HttpRequest.newBuilder(uri(instanciaB, caminho))
+                .header("Authorization", "Bearer " + token)
+                .header("Origin", "http://cliente.example")
+                .GET());
+        String etag = primeira.headers().firstValue("ETag").orElseThrow();
+        assertThat(etag).isEqualTo("\"" + automovel.getId() + "-" + automovel.getVersao() + "\"");
+        assertThat(primeira.headers().firstValue("Access-Control-Expose-Headers").orElse("")).contains("ETag");
+        assertThat(get(instanciaA, caminho, etag).statusCode()).isEqualTo(304);
+    }
+
+    private static String aguardarEtagsIguais() throws Exception {
+        long limite = System.nanoTime() + PRAZO.toNanos();
+        while (true) {
+            String etagA = get(instanciaA, "/api/automoveis/disponiveis", null).headers().firstValue("ETag").orElseThrow();
+            String etagB = get(instanciaB, "/api/automoveis/disponiveis", null).headers().firstValue("ETag").orElseThrow();
+            if (etagA.equals(etagB)) {
+                return etagA;
+            }
+            assertThat(System.nanoTime()).as("ETags das réplicas não convergiram").isLessThan(limite);
+            Thread.sleep(100);
+        }
+    }
+
+    private static HttpResponse<String> get(ConfigurableApplicationContext instancia, String caminho, String etag) throws Exception {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(uri(instancia, caminho))
+                .header("Authorization", "Bearer " + token)
+                .GET();
+        if (etag != null) {
+            requisicao.header("If-None-Match", etag);
+        }
+        return enviar(requisicao);
+    }
+
+    private static HttpResponse<String> enviar(HttpRequest.Builder requisicao) throws Exception {
+        return http.send(requisicao.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static URI uri(ConfigurableApplicationContext instancia, String caminho) {
+        int porta = ((WebServerApplicationContext) instancia).getWebServer().getPort();
+        return URI.create("http://localhost:" + porta + caminho);
+    }
+}
@@ -0,0 +1,117 @@
+package com.aluguel.service;
+
+import com.aluguel.dto.AlteracoesCatalogo;
+import com.aluguel.dto.DisponibilidadeLoteRequest;
+import com.aluguel.model.Automovel;
+import com.aluguel.model.Automovel.TipoProprietario;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Feed de alterações do catálogo: uma transação longa não segura o contador de versões, as versões
+ * seguem a ordem dos commits, a alteração de disponibilidade por filtro entra no feed sem lista de IDs,
+ * e exclusões compactadas obrigam clientes atrasados a recarregar.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:alteracoes-catalogo",
+        "spring.jpa.show-sql=false",
+        "aluguel.catalogo.retencao-exclusoes-ms=0",
+        "aluguel.finalizacao.cron=-"
+})
+class AlteracoesCatalogoTest {
+
+    @Autowired
+    private AutomovelService automovelService;
+
+    @Autowired
+    private AlteracoesCatalogoService alteracoesCatalogoService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void transacaoLongaNaoBloqueiaOutrasEscritasEVersoesSeguemOCommit() throws Exception {
+        long inicio = alteracoesCatalogoService.buscar(0, 1000).getVersao();
+        Automovel lento = automovelService.salvar(
+                new Automovel("MAT-LENTO", 2020, "VW", "Gol", "LEN1234", TipoProprietario.EMPRESA));
+        long depoisDoLento = alteracoesCatalogoService.buscar(inicio, 1000).getVersao();
+
+        CountDownLatch registrado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<Void> longa = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    alteracoesCatalogoService.registrar(List.of(lento.getId()));
+                    registrado.countDown();
+                    aguardar(liberar);
+                }));
+        assertThat(registrado.await(30, TimeUnit.SECONDS)).isTrue();
+
+        // Com a transação longa aberta, outra escrita no catálogo termina sem esperar por ela.
+        Automovel rapido = CompletableFuture.supplyAsync(() -> automovelService.salvar(
+                        new Automovel("MAT-RAPIDO", 2021, "Fiat", "Uno", "RAP1234", TipoProprietario.EMPRESA)))
+                .get(10, TimeUnit.SECONDS);
+        liberar.countDown();
+        longa.get(30, TimeUnit.SECONDS);
+
+        AlteracoesCatalogo alteracoes = alteracoesCatalogoService.buscar(depoisDoLento, 1000);
+        assertThat(alteracoes.getResincronizar()).isFalse();
+        assertThat(alteracoes.getAlterados()).extracting(Automovel::getId)
+                .containsExactly(rapido.getId(), lento.getId());
+        assertThat(alteracoes.getVersao()).isEqualTo(depoisDoLento + 2);
+    }
+
+    @Test
+    void exclusaoCompactadaExigeRecarga() {
+        Automovel automovel = automovelService.salvar(
+                new Automovel("MAT-EXCLUIR", 2019, "GM", "Onix", "EXC1234", TipoProprietario.EMPRESA));
+        long antes = alteracoesCatalogoService.buscar(0, 1000).getVersao();
+        automovelService.excluir(automovel.getId());
+
+        AlteracoesCatalogo alteracoes = alteracoesCatalogoService.buscar(antes, 1000);
+        assertThat(alteracoes.getExcluidos()).containsExactly(automovel.getId());
+
+        alteracoesCatalogoService.compactar();
+        assertThat(alteracoesCatalogoService.buscar(antes, 1000).getResincronizar()).isTrue();
+        AlteracoesCatalogo atual = alteracoesCatalogoService.buscar(alteracoes.getVersao(), 1000);
+        assertThat(atual.getResincronizar()).isFalse();
+    }
+
+    @Test
+    void alteracaoDeDisponibilidadePorFiltroEntraNoFeed() {
+        Automovel primeiro = automovelService.salvar(
+                new Automovel("MAT-LOTE-1", 2018, "Renault", "Kwid", "LOT1234", TipoProprietario.EMPRESA));
+        Automovel segundo = automovelService.salvar(
+                new Automovel("MAT-LOTE-2", 2018, "Renault", "Sandero", "LOT1235", TipoProprietario.EMPRESA));
+        automovelService.marcarComoIndisponivel(segundo.getId());
+        long antes = alteracoesCatalogoService.buscar(0, 1000).getVersao();
+
+        DisponibilidadeLoteRequest request = new DisponibilidadeLoteRequest();
+        request.setDisponivel(false);
+        request.setMarca("Renault");
+        assertThat(automovelService.alterarDisponibilidade(request)).isEqualTo(1);
+
+        AlteracoesCatalogo alteracoes = alteracoesCatalogoService.buscar(antes, 1000);
+        assertThat(alteracoes.getAlterados()).extracting(Automovel::getId).contains(primeiro.getId());
+        assertThat(alteracoes.getAlterados()).allMatch(automovel -> !automovel.getDisponivel());
+        assertThat(automovelService.alterarDisponibilidade(request)).isZero();
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
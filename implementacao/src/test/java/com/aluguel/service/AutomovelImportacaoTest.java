@@ -0,0 +1,106 @@
+package com.aluguel.service;
+
+import com.aluguel.dto.ErroImportacao;
+import com.aluguel.dto.ResultadoImportacao;
+import com.aluguel.model.Automovel;
+import com.aluguel.model.Automovel.TipoProprietario;
+import com.aluguel.repository.AutomovelRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Importação de frota: duplicatas contra o cadastro e dentro do próprio arquivo são rejeitadas pela
+ * conferência inicial, e um lote que colide com cadastros feitos depois dela é refeito linha a linha,
+ * rejeitando só as linhas em conflito.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:importacao-automoveis",
+        "spring.jpa.show-sql=false",
+        "aluguel.importacao.lote=3",
+        "aluguel.finalizacao.cron=-"
+})
+class AutomovelImportacaoTest {
+
+    @Autowired
+    private AutomovelImportacaoService importacaoService;
+
+    @Autowired
+    private AutomovelRepository automovelRepository;
+
+    @Test
+    void duplicatasDoCadastroEDoArquivoSaoRejeitadasPorLinha() throws IOException {
+        automovelRepository.save(new Automovel("MAT-CAD-1", 2020, "Fiat", "Uno", "CAD0001", TipoProprietario.EMPRESA));
+        String csv = """
+                matricula,ano,marca,modelo,placa
+                MAT-CSV-1,2021,VW,Gol,CSV0001
+                MAT-CSV-2,2021,VW,Gol,CAD0001
+                MAT-CAD-1,2021,VW,Gol,CSV0002
+                MAT-CSV-3,2021,VW,Gol,CSV0001
+                MAT-CSV-1,2021,VW,Gol,CSV0003
+                MAT-CSV-4,ano,VW,Gol,CSV0004
+                MAT-CSV-5,2021,VW,Gol,CSV0005
+                """;
+
+        ResultadoImportacao resultado = importacaoService.importarCsv(entrada(csv));
+
+        assertThat(resultado.getLinhas()).isEqualTo(8);
+        assertThat(resultado.getImportados()).isEqualTo(2);
+        assertThat(resultado.getRejeitados()).isEqualTo(5);
+        assertThat(resultado.getErros()).extracting(ErroImportacao::getLinha, ErroImportacao::getCampo).containsExactly(
+                tuple(3L, "placa"), tuple(4L, "matricula"), tuple(5L, "placa"), tuple(6L, "matricula"), tuple(7L, "ano"));
+        assertThat(automovelRepository.findAll()).extracting(Automovel::getPlaca)
+                .contains("CSV0001", "CSV0005")
+                .doesNotContain("CSV0002", "CSV0003", "CSV0004")
+                .filteredOn("CSV0001"::equals).hasSize(1);
+    }
+
+    @Test
+    void loteEmConflitoComCadastroConcorrenteERefeitoLinhaALinha() throws IOException {
+        String ndjson = """
+                {"matricula":"MAT-NDJ-1","ano":2022,"marca":"Fiat","modelo":"Argo","placa":"NDJ0001"}
+                {"matricula":"MAT-NDJ-2","ano":2022,"marca":"Fiat","modelo":"Argo","placa":"NDJ0002"}
+                {"matricula":"MAT-NDJ-3","ano":2022,"marca":"Fiat","modelo":"Argo","placa":"NDJ0003"}
+                {"matricula":"MAT-NDJ-4","ano":2022,"marca":"Fiat","modelo":"Argo","placa":"NDJ0004"}
+                """;
+        // Cadastra os conflitos na primeira leitura do corpo, isto é, depois da carga das placas e matrículas.
+        InputStream entrada = new FilterInputStream(entrada(ndjson)) {
+            private boolean cadastrados;
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (!cadastrados) {
+                    cadastrados = true;
+                    automovelRepository.save(new Automovel("MAT-OUTRA-2", 2019, "Renault", "Kwid", "NDJ0002", TipoProprietario.EMPRESA));
+                    automovelRepository.save(new Automovel("MAT-NDJ-3", 2019, "Renault", "Kwid", "OUT0003", TipoProprietario.EMPRESA));
+                }
+                return super.read(b, off, len);
+            }
+        };
+
+        ResultadoImportacao resultado = importacaoService.importarNdjson(entrada);
+
+        assertThat(resultado.getImportados()).isEqualTo(2);
+        assertThat(resultado.getRejeitados()).isEqualTo(2);
+        assertThat(resultado.getErros()).extracting(ErroImportacao::getLinha, ErroImportacao::getCampo)
+                .containsExactly(tuple(2L, "placa"), tuple(3L, "matricula"));
+        assertThat(automovelRepository.findAll())
+                .filteredOn(automovel -> automovel.getPlaca().startsWith("NDJ") || automovel.getPlaca().equals("OUT0003"))
+                .extracting(Automovel::getPlaca, Automovel::getMarca)
+                .containsExactlyInAnyOrder(tuple("NDJ0001", "Fiat"), tuple("NDJ0002", "Renault"),
+                        tuple("OUT0003", "Renault"), tuple("NDJ0004", "Fiat"));
+    }
+
+    private static InputStream entrada(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,157 @@
+package com.aluguel.service;
+
+import com.aluguel.dto.ContratoResumo;
+import com.aluguel.dto.ResultadoTransicao;
+import com.aluguel.model.AgenteEmpresa;
+import com.aluguel.model.Automovel;
+import com.aluguel.model.Automovel.TipoProprietario;
+import com.aluguel.model.Cliente;
+import com.aluguel.model.Contrato;
+import com.aluguel.model.Contrato.StatusContrato;
+import com.aluguel.repository.AgenteRepository;
+import com.aluguel.repository.AutomovelRepository;
+import com.aluguel.repository.ClienteRepository;
+import com.aluguel.repository.ContratoRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Fila de análise: reivindicações de agentes diferentes não se sobrepõem, e só o agente gravado
+ * como analisador decide o pedido, inclusive depois que outro o reivindica de novo. Cada teste
+ * deixa seus pedidos fora de PENDENTE, para não entrarem nas reivindicações dos demais.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:contrato-fila",
+        "spring.jpa.show-sql=false",
+        "aluguel.fila.lease-ms=1500",
+        "aluguel.finalizacao.cron=-"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ContratoFilaTest {
+
+    private static final String AGENTE_A = "agente.a@email.com";
+    private static final String AGENTE_B = "agente.b@email.com";
+
+    @Autowired
+    private ContratoFilaService contratoFilaService;
+
+    @Autowired
+    private ContratoService contratoService;
+
+    @Autowired
+    private ContratoLoteService contratoLoteService;
+
+    @Autowired
+    private ContratoRepository contratoRepository;
+
+    @Autowired
+    private AutomovelRepository automovelRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private AgenteRepository agenteRepository;
+
+    private Automovel automovel;
+    private Cliente cliente;
+    private Long agenteA;
+    private Long agenteB;
+    private int pedidos;
+
+    @BeforeAll
+    void preparar() {
+        automovel = automovelRepository.save(
+                new Automovel("MAT-FILA", 2022, "Fiat", "Argo", "FIL1234", TipoProprietario.EMPRESA));
+        cliente = clienteRepository.save(new Cliente("Cliente Fila", "fila@email.com", "123456",
+                "Rua A", "111.222.333-77", "11.222.333-7", "Eng", "Empresa", "Salário"));
+        agenteA = agente("Agente A", AGENTE_A, "12.345.678/0001-71", true);
+        agenteB = agente("Agente B", AGENTE_B, "12.345.678/0001-72", true);
+        agente("Agente Pendente", "agente.pendente@email.com", "12.345.678/0001-73", false);
+    }
+
+    @Test
+    void soOAgenteQueReivindicouDecideOPedido() {
+        List<Long> ids = List.of(novoPedido(), novoPedido(), novoPedido());
+
+        List<Long> deA = idsDe(contratoFilaService.reivindicar(AGENTE_A, 2));
+        List<Long> deB = idsDe(contratoFilaService.reivindicar(AGENTE_B, ContratoFilaService.MAXIMO_POR_REIVINDICACAO));
+        assertThat(deA).hasSize(2);
+        assertThat(deB).hasSize(1);
+        Set<Long> todos = new HashSet<>(deA);
+        todos.addAll(deB);
+        assertThat(todos).containsExactlyInAnyOrderElementsOf(ids);
+
+        assertThatThrownBy(() -> contratoService.aprovarPedido(deA.get(0), agenteB)).isInstanceOf(ConflitoException.class);
+        assertThat(contratoLoteService.transitar(deA, StatusContrato.REJEITADO, agenteB))
+                .extracting(ResultadoTransicao::getCodigo).containsOnly(409);
+        assertThat(deA).allSatisfy(id -> assertThat(status(id)).isEqualTo(StatusContrato.PENDENTE));
+
+        contratoService.aprovarPedido(deA.get(0), agenteA);
+        assertThat(contratoLoteService.transitar(List.of(deA.get(1), deB.get(0)), StatusContrato.REJEITADO, agenteA))
+                .extracting(ResultadoTransicao::getCodigo).containsExactly(200, 409);
+        assertThat(status(deA.get(0))).isEqualTo(StatusContrato.APROVADO);
+        assertThat(status(deA.get(1))).isEqualTo(StatusContrato.REJEITADO);
+        assertThat(status(deB.get(0))).isEqualTo(StatusContrato.PENDENTE);
+        contratoService.cancelarContrato(deB.get(0));
+    }
+
+    @Test
+    void pedidoNaoReivindicadoOuReivindicadoDeNovoRecusaODecisorAntigo() throws Exception {
+        Long id = novoPedido();
+        assertThatThrownBy(() -> contratoService.rejeitarPedido(id, agenteA)).isInstanceOf(ConflitoException.class);
+
+        assertThat(idsDe(contratoFilaService.reivindicar(AGENTE_A, ContratoFilaService.MAXIMO_POR_REIVINDICACAO))).contains(id);
+        Thread.sleep(1600);
+        assertThat(idsDe(contratoFilaService.reivindicar(AGENTE_B, ContratoFilaService.MAXIMO_POR_REIVINDICACAO))).contains(id);
+
+        assertThatThrownBy(() -> contratoService.aprovarPedido(id, agenteA)).isInstanceOf(ConflitoException.class);
+        contratoService.rejeitarPedido(id, agenteB);
+        assertThat(status(id)).isEqualTo(StatusContrato.REJEITADO);
+    }
+
+    @Test
+    void decisaoEmLoteSemAgenteERecusadaEAgenteNaoCredenciadoNaoAnalisa() {
+        Long id = novoPedido();
+        assertThatThrownBy(() -> contratoLoteService.transitar(List.of(id), StatusContrato.APROVADO))
+                .isInstanceOf(RuntimeException.class);
+        contratoService.cancelarContrato(id);
+        assertThat(contratoFilaService.analista("agente.pendente@email.com")).isEmpty();
+        assertThat(contratoFilaService.analista(AGENTE_A)).isPresent();
+    }
+
+    private Long agente(String nome, String email, String cnpj, boolean credenciado) {
+        AgenteEmpresa agente = new AgenteEmpresa(nome, email, "123456", "Rua B", cnpj, "Locadora " + nome, "Locação");
+        agente.setCredenciado(credenciado);
+        return agenteRepository.save(agente).getId();
+    }
+
+    private Long novoPedido() {
+        LocalDate inicio = LocalDate.of(2032, 1, 1).plusDays(10L * pedidos++);
+        Contrato contrato = new Contrato();
+        contrato.setAutomovel(automovelRepository.getReferenceById(automovel.getId()));
+        contrato.setUsuario(clienteRepository.getReferenceById(cliente.getId()));
+        contrato.setDataInicio(inicio);
+        contrato.setDataFim(inicio.plusDays(3));
+        return contratoService.criarPedidoAluguel(contrato).getId();
+    }
+
+    private StatusContrato status(Long id) {
+        return contratoRepository.findById(id).orElseThrow().getStatus();
+    }
+
+    private static List<Long> idsDe(List<ContratoResumo> resumos) {
+        return resumos.stream().map(ContratoResumo::getId).toList();
+    }
+}
@@ -0,0 +1,100 @@
+package com.aluguel.service;
+
+import com.aluguel.dto.ResultadoTransicao;
+import com.aluguel.model.AgenteEmpresa;
+import com.aluguel.model.Automovel;
+import com.aluguel.model.Automovel.TipoProprietario;
+import com.aluguel.model.Cliente;
+import com.aluguel.model.Contrato;
+import com.aluguel.model.Contrato.StatusContrato;
+import com.aluguel.repository.AgenteRepository;
+import com.aluguel.repository.AutomovelRepository;
+import com.aluguel.repository.ClienteRepository;
+import com.aluguel.repository.ContratoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Decisões em lote divididas em pedaços de dois contratos: cada ID distinto recebe um único
+ * resultado, mesmo repetido na requisição ou repartido entre pedaços, e os códigos separam o que
+ * mudou (200), o que já estava decidido (409) e o que não existe (404).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:contrato-lote",
+        "spring.jpa.show-sql=false",
+        "aluguel.lote.tamanho=2",
+        "aluguel.finalizacao.cron=-"
+})
+class ContratoLoteTest {
+
+    @Autowired
+    private ContratoLoteService contratoLoteService;
+
+    @Autowired
+    private ContratoService contratoService;
+
+    @Autowired
+    private ContratoFilaService contratoFilaService;
+
+    @Autowired
+    private ContratoRepository contratoRepository;
+
+    @Autowired
+    private AutomovelRepository automovelRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private AgenteRepository agenteRepository;
+
+    @Test
+    void idsRepetidosRecebemUmResultadoSo() {
+        Automovel automovel = automovelRepository.save(
+                new Automovel("MAT-LOTE", 2022, "Fiat", "Argo", "LOT1234", TipoProprietario.EMPRESA));
+        Cliente cliente = clienteRepository.save(new Cliente("Cliente Lote", "lote@email.com", "123456",
+                "Rua A", "111.222.333-88", "11.222.333-8", "Eng", "Empresa", "Salário"));
+        AgenteEmpresa agente = new AgenteEmpresa("Agente Lote", "agente.lote@email.com", "123456",
+                "Rua B", "12.345.678/0001-88", "Locadora Lote", "Locação");
+        agente.setCredenciado(true);
+        Long agenteId = agenteRepository.save(agente).getId();
+
+        Long primeiro = pedido(automovel, cliente, 0);
+        Long segundo = pedido(automovel, cliente, 1);
+        Long decidido = pedido(automovel, cliente, 2);
+        contratoFilaService.reivindicar("agente.lote@email.com", ContratoFilaService.MAXIMO_POR_REIVINDICACAO);
+        contratoService.aprovarPedido(decidido, agenteId);
+        Long inexistente = Long.MAX_VALUE;
+
+        List<ResultadoTransicao> resultados = contratoLoteService.transitar(
+                List.of(primeiro, segundo, primeiro, inexistente, decidido, segundo, primeiro),
+                StatusContrato.REJEITADO, agenteId);
+
+        assertThat(resultados)
+                .extracting(ResultadoTransicao::getId, ResultadoTransicao::getCodigo)
+                .containsExactly(tuple(primeiro, 200), tuple(segundo, 200), tuple(inexistente, 404), tuple(decidido, 409));
+        for (Long id : List.of(primeiro, segundo)) {
+            Contrato contrato = contratoRepository.findById(id).orElseThrow();
+            assertThat(contrato.getStatus()).isEqualTo(StatusContrato.REJEITADO);
+            assertThat(contrato.getStatusAnterior()).isEqualTo(StatusContrato.PENDENTE);
+        }
+        assertThat(contratoRepository.findById(decidido).orElseThrow().getStatus()).isEqualTo(StatusContrato.APROVADO);
+    }
+
+    private Long pedido(Automovel automovel, Cliente cliente, int ordem) {
+        LocalDate inicio = LocalDate.of(2033, 1, 1).plusDays(10L * ordem);
+        Contrato contrato = new Contrato();
+        contrato.setAutomovel(automovelRepository.getReferenceById(automovel.getId()));
+        contrato.setUsuario(clienteRepository.getReferenceById(cliente.getId()));
+        contrato.setDataInicio(inicio);
+        contrato.setDataFim(inicio.plusDays(3));
+        return contratoService.criarPedidoAluguel(contrato).getId();
+    }
+}
@@ -0,0 +1,192 @@
+package com.aluguel.service;
+
+import com.aluguel.SistemaAluguelApplication;
+import com.aluguel.model.Automovel;
+import com.aluguel.model.Automovel.TipoProprietario;
+import com.aluguel.model.Cliente;
+import com.aluguel.model.Contrato;
+import com.aluguel.repository.AutomovelRepository;
+import com.aluguel.repository.ClienteRepository;
+import com.aluguel.repository.ContratoRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Duas instâncias da aplicação (dois contextos Spring, cada um com suas travas locais) sobre o
+ * mesmo banco H2: só o lease no banco e o token de fencing impedem a reserva dupla entre elas.
+ */
+class DuasInstanciasTest {
+
+    private static final String BANCO = "jdbc:h2:mem:duas-instancias;DB_CLOSE_DELAY=-1";
+    private static final int PEDIDOS = 200;
+
+    private static ConfigurableApplicationContext instanciaA;
+    private static ConfigurableApplicationContext instanciaB;
+
+    @BeforeAll
+    static void subirInstancias() {
+        instanciaA = iniciar("create-drop");
+        instanciaB = iniciar("none");
+    }
+
+    @AfterAll
+    static void derrubarInstancias() {
+        if (instanciaB != null) {
+            instanciaB.close();
+        }
+        if (instanciaA != null) {
+            instanciaA.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext iniciar(String ddl) {
+        return new SpringApplicationBuilder(SistemaAluguelApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + BANCO,
+                "--spring.jpa.hibernate.ddl-auto=" + ddl,
+                "--spring.jpa.show-sql=false",
+                "--aluguel.trava.espera-ms=60000",
+                "--aluguel.finalizacao.cron=-");
+    }
+
+    @Test
+    void pedidosConcorrentesNasDuasInstanciasReservamOAutomovelUmaVez() throws Exception {
+        Automovel automovel = instanciaA.getBean(AutomovelRepository.class).save(
+                new Automovel("MAT-DUAS", 2022, "Fiat", "Argo", "DUA1234", TipoProprietario.EMPRESA));
+        Cliente cliente = novoCliente("duas@email.com", "111.222.333-01", "11.222.333-1");
+        ContratoService[] servicos = {
+                instanciaA.getBean(ContratoService.class), instanciaB.getBean(ContratoService.class)
+        };
+
+        CyclicBarrier largada = new CyclicBarrier(PEDIDOS);
+        ExecutorService executor = Executors.newFixedThreadPool(PEDIDOS);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        try {
+            for (int i = 0; i < PEDIDOS; i++) {
+                ContratoService servico = servicos[i % 2];
+                resultados.add(executor.submit(() -> {
+                    Contrato contrato = novoPedido(automovel, cliente);
+                    largada.await();
+                    try {
+                        servico.criarPedidoAluguel(contrato);
+                        return true;
+                    } catch (RuntimeException e) {
+                        assertThat(e.getMessage()).isEqualTo("Já existe um contrato para este automóvel no período especificado");
+                        return false;
+                    }
+                }));
+            }
+            int vencedores = 0;
+            for (Future<Boolean> resultado : resultados) {
+                if (resultado.get(2, TimeUnit.MINUTES)) {
+                    vencedores++;
+                }
+            }
+
+            assertThat(vencedores).isEqualTo(1);
+            assertThat(contratosDoAutomovel(automovel)).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void gravacaoDeInstanciaQuePerdeuOLeaseEDesfeita() {
+        Automovel automovel = instanciaA.getBean(AutomovelRepository.class).save(
+                new Automovel("MAT-FENCING", 2021, "VW", "Polo", "FEN1234", TipoProprietario.EMPRESA));
+        Cliente cliente = novoCliente("fencing@email.com", "111.222.333-02", "11.222.333-2");
+        ContratoRepository contratosA = instanciaA.getBean(ContratoRepository.class);
+        JdbcTemplate jdbcB = instanciaB.getBean(JdbcTemplate.class);
+        LeaseAutomovelService leasesB = instanciaB.getBean(LeaseAutomovelService.class);
+        long[] tokenB = new long[1];
+
+        // A grava enquanto o lease dela vence e B assume o automóvel, como numa pausa longa de GC.
+        assertThatThrownBy(() -> instanciaA.getBean(TravaAutomovel.class).executar(automovel.getId(), () -> {
+            Contrato contrato = novoPedido(automovel, cliente);
+            contrato.setAutomovel(instanciaA.getBean(AutomovelRepository.class).getReferenceById(automovel.getId()));
+            contrato.setUsuario(instanciaA.getBean(ClienteRepository.class).getReferenceById(cliente.getId()));
+            contratosA.save(contrato);
+            jdbcB.update("UPDATE leases_automovel SET expira_em = ? WHERE automovel_id = ?",
+                    Timestamp.from(Instant.now().minusSeconds(1)), automovel.getId());
+            tokenB[0] = leasesB.adquirir(automovel.getId(), System.nanoTime() + TimeUnit.SECONDS.toNanos(5));
+        }))
+                .hasMessageStartingWith("Lease do automóvel expirou ou foi assumido por outra instância");
+
+        assertThat(contratosDoAutomovel(automovel)).isZero();
+        Long tokenVigente = jdbcB.queryForObject(
+                "SELECT token FROM leases_automovel WHERE automovel_id = ?", Long.class, automovel.getId());
+        assertThat(tokenVigente).isEqualTo(tokenB[0]).isGreaterThan(1L);
+    }
+
+    @Test
+    void primeiroLeaseDoAutomovelFicaComUmaInstanciaSo() throws Exception {
+        LeaseAutomovelService[] leases = {
+                instanciaA.getBean(LeaseAutomovelService.class), instanciaB.getBean(LeaseAutomovelService.class)
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (long automovelId = 1_000_001; automovelId <= 1_000_200; automovelId++) {
+                long id = automovelId;
+                CyclicBarrier largada = new CyclicBarrier(2);
+                List<Future<Boolean>> obtidos = new ArrayList<>();
+                for (LeaseAutomovelService lease : leases) {
+                    obtidos.add(executor.submit(() -> {
+                        largada.await();
+                        try {
+                            lease.adquirir(id, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100));
+                            return true;
+                        } catch (ConflitoException e) {
+                            return false;
+                        }
+                    }));
+                }
+                assertThat(obtidos.get(0).get(1, TimeUnit.MINUTES) && obtidos.get(1).get(1, TimeUnit.MINUTES))
+                        .as("as duas instâncias obtiveram o primeiro lease do automóvel %d", id)
+                        .isFalse();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Cliente novoCliente(String email, String cpf, String rg) {
+        return instanciaA.getBean(ClienteRepository.class).save(new Cliente("Cliente " + email, email, "123456",
+                "Rua A", cpf, rg, "Eng", "Empresa", "Salário"));
+    }
+
+    private static Contrato novoPedido(Automovel automovel, Cliente cliente) {
+        Contrato contrato = new Contrato();
+        Automovel referenciaAutomovel = new Automovel();
+        referenciaAutomovel.setId(automovel.getId());
+        Cliente referenciaCliente = new Cliente();
+        referenciaCliente.setId(cliente.getId());
+        contrato.setAutomovel(referenciaAutomovel);
+        contrato.setUsuario(referenciaCliente);
+        contrato.setDataInicio(LocalDate.of(2030, 3, 1));
+        contrato.setDataFim(LocalDate.of(2030, 3, 5));
+        return contrato;
+    }
+
+    private static long contratosDoAutomovel(Automovel automovel) {
+        return instanciaA.getBean(JdbcTemplate.class).queryForObject(
+                "SELECT COUNT(*) FROM contratos WHERE automovel_id = ?", Long.class, automovel.getId());
+    }
+}
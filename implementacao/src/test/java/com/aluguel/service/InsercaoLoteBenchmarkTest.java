@@ -0,0 +1,75 @@
+package com.aluguel.service;
+
+import com.aluguel.SistemaAluguelApplication;
+import com.aluguel.model.Automovel;
+import com.aluguel.model.Automovel.TipoProprietario;
+import com.aluguel.repository.AutomovelRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mede a gravação de automóveis por {@code saveAll} com os IDs em blocos da sequência e lotes JDBC
+ * de {@link SequenciasIds#BLOCO}, contra a mesma gravação com um INSERT por ida ao banco (lote de 1,
+ * como ocorria com IDENTITY), depois de uma passada de aquecimento descartada. Fora da suíte normal; rodar com
+ * {@code mvn test -Dtest=InsercaoLoteBenchmarkTest -DargLine=-Daluguel.benchmark=true}, e
+ * {@code -Daluguel.benchmark.url=jdbc:h2:tcp://...} para medir contra um banco em rede.
+ */
+@EnabledIfSystemProperty(named = "aluguel.benchmark", matches = "true")
+class InsercaoLoteBenchmarkTest {
+
+    private static final int POR_RODADA = 10_000;
+    private static final int RODADAS = 6;
+
+    @Test
+    void comparaLotesDaSequenciaComUmInsertPorVez() {
+        medir(SequenciasIds.BLOCO, "bench-aquecimento");
+        long umPorVez = medir(1, "bench-um");
+        long emLote = medir(SequenciasIds.BLOCO, "bench-lote");
+        System.out.printf("Inserção de %d automóveis (mediana de %d rodadas): lote %d = %d ms, lote 1 = %d ms%n",
+                POR_RODADA, RODADAS, SequenciasIds.BLOCO, emLote, umPorVez);
+        assertThat(emLote).isPositive();
+    }
+
+    private long medir(int lote, String banco) {
+        String url = System.getProperty("aluguel.benchmark.url", "jdbc:h2:mem:" + banco);
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(SistemaAluguelApplication.class).run(
+                "--spring.main.web-application-type=none",
+                "--spring.datasource.url=" + url,
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + lote,
+                "--aluguel.finalizacao.cron=-",
+                "--logging.level.root=WARN")) {
+            AutomovelRepository repositorio = contexto.getBean(AutomovelRepository.class);
+            TransactionTemplate transacao = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+            List<Long> tempos = new ArrayList<>();
+            int placa = 0;
+            for (int rodada = 0; rodada < RODADAS; rodada++) {
+                List<Automovel> automoveis = new ArrayList<>(POR_RODADA);
+                for (int i = 0; i < POR_RODADA; i++, placa++) {
+                    automoveis.add(new Automovel("BENCH-" + placa, 2020, "VW", "Gol", placa(placa), TipoProprietario.EMPRESA));
+                }
+                long inicio = System.nanoTime();
+                transacao.executeWithoutResult(status -> repositorio.saveAll(automoveis));
+                tempos.add((System.nanoTime() - inicio) / 1_000_000);
+            }
+            tempos.sort(null);
+            return tempos.get(RODADAS / 2);
+        }
+    }
+
+    private static String placa(int numero) {
+        char primeira = (char) ('A' + numero / 260_000 % 26);
+        char segunda = (char) ('A' + numero / 10_000 % 26);
+        return "" + primeira + segunda + 'B' + String.format("%04d", numero % 10_000);
+    }
+}
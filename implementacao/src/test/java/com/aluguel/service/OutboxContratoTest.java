@@ -0,0 +1,195 @@
+package com.aluguel.service;
+
+import com.aluguel.model.AgenteEmpresa;
+import com.aluguel.model.Automovel;
+import com.aluguel.model.Automovel.TipoProprietario;
+import com.aluguel.model.Cliente;
+import com.aluguel.model.Contrato;
+import com.aluguel.model.Contrato.StatusContrato;
+import com.aluguel.model.EventoContrato;
+import com.aluguel.repository.AgenteRepository;
+import com.aluguel.repository.AutomovelRepository;
+import com.aluguel.repository.ClienteRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Outbox de contratos: o evento gravado com a transição chega aos assinantes fora da requisição,
+ * uma falha faz o evento voltar só para o assinante que falhou, e eventos de uma instância que
+ * parou de renovar a presença são adotados e entregues por outra.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox-contrato",
+        "spring.jpa.show-sql=false",
+        "aluguel.eventos.intervalo-ms=50",
+        "aluguel.eventos.orfaos-ms=1000",
+        "aluguel.eventos.espera-maxima-ms=200",
+        "aluguel.finalizacao.cron=-"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OutboxContratoTest {
+
+    @TestConfiguration
+    static class Assinantes {
+
+        @Bean
+        EventosRecebidos eventosRecebidos() {
+            return new EventosRecebidos();
+        }
+
+        @Bean
+        AssinanteInstavel assinanteInstavel() {
+            return new AssinanteInstavel();
+        }
+    }
+
+    static class EventosRecebidos implements AssinanteEventosContrato {
+
+        final List<EventoContrato> eventos = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void receber(List<EventoContrato> lote) {
+            eventos.addAll(lote);
+        }
+    }
+
+    /** Falha enquanto houver falhas programadas; depois guarda o que recebe. */
+    static class AssinanteInstavel implements AssinanteEventosContrato {
+
+        final AtomicInteger falhasRestantes = new AtomicInteger();
+        final List<EventoContrato> eventos = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void receber(List<EventoContrato> lote) {
+            if (falhasRestantes.getAndUpdate(restantes -> Math.max(0, restantes - 1)) > 0) {
+                throw new IllegalStateException("falha programada");
+            }
+            eventos.addAll(lote);
+        }
+    }
+
+    @Autowired
+    private ContratoService contratoService;
+
+    @Autowired
+    private ContratoFilaService contratoFilaService;
+
+    @Autowired
+    private AutomovelRepository automovelRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private AgenteRepository agenteRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EventosRecebidos recebidos;
+
+    @Autowired
+    private AssinanteInstavel instavel;
+
+    private Cliente cliente;
+    private Long agenteId;
+    private int automoveis;
+
+    @BeforeAll
+    void preparar() {
+        cliente = clienteRepository.save(new Cliente("Cliente Outbox", "outbox@email.com", "123456",
+                "Rua A", "111.222.333-11", "11.222.333-0", "Eng", "Empresa", "Salário"));
+        AgenteEmpresa agente = new AgenteEmpresa("Agente Outbox", "agente.outbox@email.com", "123456",
+                "Rua B", "12.345.678/0001-11", "Locadora Outbox", "Locação");
+        agente.setCredenciado(true);
+        agenteId = agenteRepository.save(agente).getId();
+    }
+
+    @Test
+    void ativacaoECancelamentoChegamAoAssinanteDeDisponibilidade() throws Exception {
+        Automovel automovel = novoAutomovel();
+        Long id = novoPedido(automovel);
+        contratoFilaService.reivindicar("agente.outbox@email.com", ContratoFilaService.MAXIMO_POR_REIVINDICACAO);
+        contratoService.aprovarPedido(id, agenteId);
+        contratoService.ativarContrato(id);
+
+        aguardar(() -> !automovelRepository.findById(automovel.getId()).orElseThrow().getDisponivel());
+        contratoService.cancelarContrato(id);
+        aguardar(() -> automovelRepository.findById(automovel.getId()).orElseThrow().getDisponivel());
+
+        assertThat(recebidos.eventos.stream().filter(evento -> evento.getContratoId().equals(id)).map(EventoContrato::getStatus))
+                .containsExactly(StatusContrato.PENDENTE, StatusContrato.APROVADO, StatusContrato.ATIVO, StatusContrato.CANCELADO);
+        aguardar(() -> pendentesNoOutbox() == 0);
+    }
+
+    @Test
+    void falhaDeUmAssinanteReentregaSoParaEle() throws Exception {
+        aguardar(() -> pendentesNoOutbox() == 0);
+        instavel.falhasRestantes.set(3);
+        Long id = novoPedido(novoAutomovel());
+
+        aguardar(() -> instavel.eventos.stream().anyMatch(evento -> evento.getContratoId().equals(id)));
+        aguardar(() -> pendentesNoOutbox() == 0);
+        assertThat(instavel.falhasRestantes.get()).isZero();
+        assertThat(recebidos.eventos.stream().filter(evento -> evento.getContratoId().equals(id))).hasSize(1);
+    }
+
+    @Test
+    void eventosDeInstanciaSemPresencaSaoAdotados() throws Exception {
+        Automovel automovel = novoAutomovel();
+        Long id = novoPedido(automovel);
+        jdbcTemplate.update("INSERT INTO outbox_contrato (contrato_id, automovel_id, status_anterior, status, ocorrido_em, origem, tentativas) " +
+                        "VALUES (?, ?, NULL, ?, ?, ?, 0)",
+                id, automovel.getId(), StatusContrato.CANCELADO.name(), Timestamp.from(Instant.now().minusSeconds(60)),
+                "instancia-encerrada");
+
+        aguardar(() -> recebidos.eventos.stream()
+                .anyMatch(evento -> evento.getContratoId().equals(id) && evento.getStatus() == StatusContrato.CANCELADO));
+        aguardar(() -> pendentesNoOutbox() == 0);
+    }
+
+    private Automovel novoAutomovel() {
+        int numero = automoveis++;
+        return automovelRepository.save(new Automovel("MAT-OUT-" + numero, 2022, "Fiat", "Argo",
+                String.format("OUT%04d", numero), TipoProprietario.EMPRESA));
+    }
+
+    private Long novoPedido(Automovel automovel) {
+        Contrato contrato = new Contrato();
+        contrato.setAutomovel(automovelRepository.getReferenceById(automovel.getId()));
+        contrato.setUsuario(clienteRepository.getReferenceById(cliente.getId()));
+        contrato.setDataInicio(LocalDate.now());
+        contrato.setDataFim(LocalDate.now().plusDays(3));
+        return contratoService.criarPedidoAluguel(contrato).getId();
+    }
+
+    private int pendentesNoOutbox() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_contrato", Integer.class);
+    }
+
+    private static void aguardar(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (!condicao.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condição não atingida a tempo").isLessThan(limite);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.aluguel.service;
+
+import com.aluguel.model.Automovel;
+import com.aluguel.model.Automovel.TipoProprietario;
+import com.aluguel.model.Cliente;
+import com.aluguel.model.Contrato;
+import com.aluguel.repository.AutomovelRepository;
+import com.aluguel.repository.ClienteRepository;
+import com.aluguel.repository.ContratoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pedidos concorrentes para o mesmo automóvel e período: a trava por automóvel deve deixar
+ * passar exatamente um, a edição de datas não pode invadir outra reserva, e o {@code @Version} deve recusar gravações feitas sobre uma cópia velha.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reserva-concorrente",
+        "spring.jpa.show-sql=false",
+        "aluguel.trava.espera-ms=60000",
+        "aluguel.finalizacao.cron=-"
+})
+class ReservaConcorrenteTest {
+
+    private static final int PEDIDOS = 200;
+
+    @Autowired
+    private ContratoService contratoService;
+
+    @Autowired
+    private AutomovelRepository automovelRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ContratoRepository contratoRepository;
+
+    @Test
+    void apenasUmPedidoConcorrenteReservaOAutomovel() throws Exception {
+        Automovel automovel = automovelRepository.save(
+                new Automovel("MAT-CONC", 2022, "Fiat", "Argo", "CON1234", TipoProprietario.EMPRESA));
+        Cliente cliente = clienteRepository.save(new Cliente("Cliente Concorrente", "concorrente@email.com", "123456",
+                "Rua A", "111.222.333-44", "11.222.333-4", "Eng", "Empresa", "Salário"));
+
+        CyclicBarrier largada = new CyclicBarrier(PEDIDOS);
+        ExecutorService executor = Executors.newFixedThreadPool(PEDIDOS);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        try {
+            for (int i = 0; i < PEDIDOS; i++) {
+                resultados.add(executor.submit(() -> {
+                    Contrato contrato = new Contrato();
+                    contrato.setAutomovel(automovelRepository.getReferenceById(automovel.getId()));
+                    contrato.setUsuario(clienteRepository.getReferenceById(cliente.getId()));
+                    contrato.setDataInicio(LocalDate.of(2030, 3, 1));
+                    contrato.setDataFim(LocalDate.of(2030, 3, 5));
+                    largada.await();
+                    try {
+                        contratoService.criarPedidoAluguel(contrato);
+                        return true;
+                    } catch (RuntimeException e) {
+                        assertThat(e.getMessage()).isEqualTo("Já existe um contrato para este automóvel no período especificado");
+                        return false;
+                    }
+                }));
+            }
+            int vencedores = 0;
+            for (Future<Boolean> resultado : resultados) {
+                if (resultado.get(2, TimeUnit.MINUTES)) {
+                    vencedores++;
+                }
+            }
+
+            assertThat(vencedores).isEqualTo(1);
+            assertThat(contratoRepository.existsConflito(automovel.getId(), Contrato.STATUS_QUE_RESERVAM,
+                    LocalDate.of(2030, 3, 1), LocalDate.of(2030, 3, 5))).isTrue();
+            assertThat(contratoRepository.count()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void atualizacaoNaoMoveAsDatasParaCimaDeOutraReserva() {
+        Automovel automovel = automovelRepository.save(
+                new Automovel("MAT-DATAS", 2023, "Fiat", "Mobi", "DAT1234", TipoProprietario.EMPRESA));
+        Cliente cliente = clienteRepository.save(new Cliente("Cliente Datas", "datas@email.com", "123456",
+                "Rua A", "111.222.333-66", "11.222.333-6", "Eng", "Empresa", "Salário"));
+        Contrato primeiro = contratoService.criarPedidoAluguel(pedido(automovel, cliente, LocalDate.of(2030, 5, 1), LocalDate.of(2030, 5, 5)));
+        Contrato segundo = contratoService.criarPedidoAluguel(pedido(automovel, cliente, LocalDate.of(2030, 6, 1), LocalDate.of(2030, 6, 5)));
+
+        try {
+            Contrato sobreposto = pedido(automovel, cliente, LocalDate.of(2030, 5, 4), LocalDate.of(2030, 5, 8));
+            sobreposto.setStatus(segundo.getStatus());
+            assertThatThrownBy(() -> contratoService.atualizarContrato(segundo.getId(), sobreposto))
+                    .isInstanceOf(ConflitoException.class);
+            assertThat(contratoRepository.findById(segundo.getId()).orElseThrow().getDataInicio()).isEqualTo(LocalDate.of(2030, 6, 1));
+
+            Contrato encolhido = pedido(automovel, cliente, LocalDate.of(2030, 5, 2), LocalDate.of(2030, 5, 3));
+            encolhido.setStatus(primeiro.getStatus());
+            assertThat(contratoService.atualizarContrato(primeiro.getId(), encolhido).getDataFim()).isEqualTo(LocalDate.of(2030, 5, 3));
+        } finally {
+            contratoService.excluirContrato(primeiro.getId());
+            contratoService.excluirContrato(segundo.getId());
+        }
+    }
+
+    private Contrato pedido(Automovel automovel, Cliente cliente, LocalDate inicio, LocalDate fim) {
+        Contrato contrato = new Contrato();
+        contrato.setAutomovel(automovelRepository.getReferenceById(automovel.getId()));
+        contrato.setUsuario(clienteRepository.getReferenceById(cliente.getId()));
+        contrato.setDataInicio(inicio);
+        contrato.setDataFim(fim);
+        return contrato;
+    }
+
+    @Test
+    void gravacaoSobreVersaoVelhaDoAutomovelFalha() {
+        Automovel salvo = automovelRepository.save(
+                new Automovel("MAT-VERSAO", 2021, "VW", "Polo", "VER1234", TipoProprietario.EMPRESA));
+        Automovel copiaA = automovelRepository.findById(salvo.getId()).orElseThrow();
+        Automovel copiaB = automovelRepository.findById(salvo.getId()).orElseThrow();
+
+        copiaA.setModelo("Polo Track");
+        automovelRepository.save(copiaA);
+
+        copiaB.setModelo("Virtus");
+        assertThatThrownBy(() -> automovelRepository.save(copiaB))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+}
@@ -0,0 +1,191 @@
+package com.aluguel.service;
+
+import com.aluguel.model.AgenteEmpresa;
+import com.aluguel.model.Automovel;
+import com.aluguel.model.Automovel.TipoProprietario;
+import com.aluguel.model.Cliente;
+import com.aluguel.model.Contrato;
+import com.aluguel.model.Contrato.StatusContrato;
+import com.aluguel.model.EventoContrato;
+import com.aluguel.repository.AgenteRepository;
+import com.aluguel.repository.AutomovelRepository;
+import com.aluguel.repository.ClienteRepository;
+import com.aluguel.repository.ContratoRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Transições de status por UPDATE condicional: de duas decisões concorrentes só uma vale, o evento
+ * registra a origem real mesmo quando o destino aceita várias, e a recusa distingue 404 de 409.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:transicao-contrato",
+        "spring.jpa.show-sql=false",
+        "aluguel.eventos.intervalo-ms=50",
+        "aluguel.finalizacao.cron=-"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TransicaoContratoTest {
+
+    @TestConfiguration
+    static class Assinante {
+
+        @Bean
+        EventosRecebidos eventosRecebidos() {
+            return new EventosRecebidos();
+        }
+    }
+
+    static class EventosRecebidos implements AssinanteEventosContrato {
+
+        final List<EventoContrato> eventos = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void receber(List<EventoContrato> lote) {
+            eventos.addAll(lote);
+        }
+    }
+
+    @Autowired
+    private ContratoService contratoService;
+
+    @Autowired
+    private ContratoRepository contratoRepository;
+
+    @Autowired
+    private AutomovelRepository automovelRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private AgenteRepository agenteRepository;
+
+    @Autowired
+    private ContratoFilaService contratoFilaService;
+
+    @Autowired
+    private EventosRecebidos recebidos;
+
+    private Automovel automovel;
+    private Cliente cliente;
+    private Long agenteId;
+    private int pedidos;
+
+    @BeforeAll
+    void preparar() {
+        automovel = automovelRepository.save(
+                new Automovel("MAT-TRANS", 2022, "Fiat", "Argo", "TRA1234", TipoProprietario.EMPRESA));
+        cliente = clienteRepository.save(new Cliente("Cliente Transição", "transicao@email.com", "123456",
+                "Rua A", "111.222.333-55", "11.222.333-5", "Eng", "Empresa", "Salário"));
+        AgenteEmpresa agente = new AgenteEmpresa("Agente Transição", "agente.transicao@email.com", "123456",
+                "Rua B", "12.345.678/0001-55", "Locadora Transição", "Locação");
+        agente.setCredenciado(true);
+        agenteId = agenteRepository.save(agente).getId();
+    }
+
+    @Test
+    void decisoesConcorrentesSobreOMesmoPedidoDeixamPassarSoUma() throws Exception {
+        for (int rodada = 0; rodada < 20; rodada++) {
+            Long id = novoPedido().getId();
+            reivindicarPendentes();
+            CyclicBarrier largada = new CyclicBarrier(2);
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                Future<Boolean> aprovacao = executor.submit(() -> decidir(largada, () -> contratoService.aprovarPedido(id, agenteId)));
+                Future<Boolean> rejeicao = executor.submit(() -> decidir(largada, () -> contratoService.rejeitarPedido(id, agenteId)));
+                boolean aprovado = aprovacao.get(1, TimeUnit.MINUTES);
+                boolean rejeitado = rejeicao.get(1, TimeUnit.MINUTES);
+
+                assertThat(aprovado ^ rejeitado).isTrue();
+                Contrato contrato = contratoRepository.findById(id).orElseThrow();
+                assertThat(contrato.getStatus()).isEqualTo(aprovado ? StatusContrato.APROVADO : StatusContrato.REJEITADO);
+                assertThat(contrato.getStatusAnterior()).isEqualTo(StatusContrato.PENDENTE);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    void cancelamentoRegistraOStatusDeOndeOContratoSaiu() throws Exception {
+        Long pendente = novoPedido().getId();
+        Long aprovado = novoPedido().getId();
+        reivindicarPendentes();
+        contratoService.aprovarPedido(aprovado, agenteId);
+
+        contratoService.cancelarContrato(pendente);
+        contratoService.cancelarContrato(aprovado);
+
+        assertThat(aguardarEvento(pendente, StatusContrato.CANCELADO).getStatusAnterior()).isEqualTo(StatusContrato.PENDENTE);
+        assertThat(aguardarEvento(aprovado, StatusContrato.CANCELADO).getStatusAnterior()).isEqualTo(StatusContrato.APROVADO);
+        assertThat(aguardarEvento(aprovado, StatusContrato.CANCELADO).getAutomovelId()).isEqualTo(automovel.getId());
+    }
+
+    @Test
+    void recusaDistingueContratoInexistenteDeTransicaoInvalida() {
+        Long id = novoPedido().getId();
+        Long versao = contratoRepository.findById(id).orElseThrow().getVersao();
+
+        assertThatThrownBy(() -> contratoService.finalizarContrato(id)).isInstanceOf(ConflitoException.class);
+        assertThatThrownBy(() -> contratoService.aprovarPedido(Long.MAX_VALUE, agenteId)).isInstanceOf(NaoEncontradoException.class);
+
+        Contrato contrato = contratoRepository.findById(id).orElseThrow();
+        assertThat(contrato.getStatus()).isEqualTo(StatusContrato.PENDENTE);
+        assertThat(contrato.getVersao()).isEqualTo(versao);
+    }
+
+    private Contrato novoPedido() {
+        LocalDate inicio = LocalDate.of(2031, 1, 1).plusDays(10L * pedidos++);
+        Contrato contrato = new Contrato();
+        contrato.setAutomovel(automovelRepository.getReferenceById(automovel.getId()));
+        contrato.setUsuario(clienteRepository.getReferenceById(cliente.getId()));
+        contrato.setDataInicio(inicio);
+        contrato.setDataFim(inicio.plusDays(3));
+        return contratoService.criarPedidoAluguel(contrato);
+    }
+
+    private void reivindicarPendentes() {
+        contratoFilaService.reivindicar("agente.transicao@email.com", ContratoFilaService.MAXIMO_POR_REIVINDICACAO);
+    }
+
+    private static boolean decidir(CyclicBarrier largada, Runnable decisao) throws Exception {
+        largada.await();
+        try {
+            decisao.run();
+            return true;
+        } catch (ConflitoException e) {
+            return false;
+        }
+    }
+
+    private EventoContrato aguardarEvento(Long contratoId, StatusContrato status) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < limite) {
+            for (EventoContrato evento : recebidos.eventos) {
+                if (evento.getContratoId().equals(contratoId) && evento.getStatus() == status) {
+                    return evento;
+                }
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Evento " + status + " do contrato " + contratoId + " não entregue");
+    }
+}